@@ -1,1362 +1,895 @@
 package edu.millocorona.LAPILU.CrossAssembler;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
+import edu.millocorona.LAPILU.CrossAssembler.diagnostics.DiagnosticCode;
+import edu.millocorona.LAPILU.CrossAssembler.diagnostics.DiagnosticCollector;
+import edu.millocorona.LAPILU.CrossAssembler.encoder.InstructionDefinition;
+import edu.millocorona.LAPILU.CrossAssembler.encoder.InstructionEncoder;
+import edu.millocorona.LAPILU.CrossAssembler.encoder.InstructionSet;
+import edu.millocorona.LAPILU.CrossAssembler.encoder.SectionEncodingCache;
 import edu.millocorona.LAPILU.CrossAssembler.exceptions.AssemblyException;
+import edu.millocorona.LAPILU.CrossAssembler.include.IncludeCache;
+import edu.millocorona.LAPILU.CrossAssembler.jfr.AssemblyPhaseEvent;
+import edu.millocorona.LAPILU.CrossAssembler.jfr.OutputFileEvent;
+import edu.millocorona.LAPILU.CrossAssembler.jfr.SectionEncodingEvent;
+import edu.millocorona.LAPILU.CrossAssembler.lexer.Lexer;
+import edu.millocorona.LAPILU.CrossAssembler.linker.EncodedSection;
+import edu.millocorona.LAPILU.CrossAssembler.linker.Fixup;
+import edu.millocorona.LAPILU.CrossAssembler.linker.Linker;
+import edu.millocorona.LAPILU.CrossAssembler.linker.SectionLayout;
+import edu.millocorona.LAPILU.CrossAssembler.memory.MemoryImage;
+import edu.millocorona.LAPILU.CrossAssembler.metrics.MetricsRegistry;
+import edu.millocorona.LAPILU.CrossAssembler.metrics.ProgramMetrics;
 import edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats.OutputFileFormat;
-import edu.millocorona.LAPILU.CrossAssembler.util.StringUtils;
+import edu.millocorona.LAPILU.CrossAssembler.parser.SectionKind;
+import edu.millocorona.LAPILU.CrossAssembler.parser.SourceParser;
+import edu.millocorona.LAPILU.CrossAssembler.parser.SourceProgram;
+import edu.millocorona.LAPILU.CrossAssembler.parser.SourceSection;
+import edu.millocorona.LAPILU.CrossAssembler.parser.SourceStatement;
+import edu.millocorona.LAPILU.CrossAssembler.parser.StatementHandler;
+import edu.millocorona.LAPILU.CrossAssembler.stats.AssemblyStatistics;
+import edu.millocorona.LAPILU.CrossAssembler.symbols.SymbolTable;
+import edu.millocorona.LAPILU.CrossAssembler.util.NumericLiteralParser;
 
+/**
+ * Assembles LAPILU assembly files for a data bus and address bus configuration. The assemble method keeps no state between calls,
+ * so one instance can assemble many files, also from many threads at the same time.
+ */
 public class LAPILUCrossAssembler {
 	private int dataBusLength;
 	private int addressBusLength;
 	private String inputFileName;
-	private LinkedList<String> binaryMachineCodeStrings;
+	private MemoryImage memoryImage;
+	private InstructionEncoder instructionEncoder;
+	private SectionLayout sectionLayout;
+	private Linker linker;
+	private SectionEncodingCache sectionEncodingCache;
+	private IncludeCache includeCache;
+	private MetricsRegistry metricsRegistry;
+	private boolean parallelEncoding = true;
+	private long streamingMinimumBytes = DEFAULT_STREAMING_MINIMUM_BYTES;
+	//The smaller programs are encoded in the current thread, the tasks would cost more than the encoding
+	private static final int PARALLEL_ENCODING_MINIMUM_STATEMENTS = 2048;
+	//The files from this size are encoded while they are read, see assembleStreaming
+	public static final long DEFAULT_STREAMING_MINIMUM_BYTES = 8L*1024*1024;
+	private static final int STREAMING_BUFFER_BYTES = 64*1024;
 	
-	public LAPILUCrossAssembler(int dataBusLength, int addressBusLength, String inputFileName) {
+	public LAPILUCrossAssembler(int dataBusLength, int addressBusLength) {
 		this.dataBusLength = dataBusLength;
 		this.addressBusLength = addressBusLength;
+		this.instructionEncoder = new InstructionEncoder(dataBusLength,addressBusLength);
+		this.sectionLayout = new SectionLayout(addressBusLength);
+		this.linker = new Linker(dataBusLength,addressBusLength);
+	}
+	
+	public LAPILUCrossAssembler(int dataBusLength, int addressBusLength, String inputFileName) {
+		this(dataBusLength,addressBusLength);
 		this.inputFileName = inputFileName;
 	}
 	
-	@SuppressWarnings("unchecked")
-	public void assembleFile() throws AssemblyException, IOException {		
-		String fileContent = new String (Files.readAllBytes(Paths.get(inputFileName)));
-		//First we need to remove all the empty lines
-		fileContent = fileContent.replaceAll("(?m)^\\s+", "");
-		//Now we need to remove the comments
-		StringBuilder fileContentWithoutCommentsBuilder = new StringBuilder();
-		for(String line:fileContent.split("\n")) {
-			if(!line.startsWith("//")) {
-				if(line.contains("//")) {
-					fileContentWithoutCommentsBuilder.append(line.substring(0,line.indexOf("//")));
-					fileContentWithoutCommentsBuilder.append("\n");
-				}else {
-					fileContentWithoutCommentsBuilder.append(line);
-					fileContentWithoutCommentsBuilder.append("\n");
-				}
-			}
+	public int getDataBusLength() {
+		return dataBusLength;
+	}
+	
+	public int getAddressBusLength() {
+		return addressBusLength;
+	}
+	
+	/**
+	 * Assembles the input file given in the constructor, the result is kept for outputAssembledFile
+	 */
+	public void assembleFile() throws AssemblyException, IOException {
+		assembleFile(null);
+	}
+	
+	/**
+	 * Assembles the input file given in the constructor measuring every phase, the result is kept for outputAssembledFile
+	 * @param statistics - where the phases are measured, null to not measure them
+	 */
+	public void assembleFile(AssemblyStatistics statistics) throws AssemblyException, IOException {
+		assembleFile(statistics,new DiagnosticCollector(inputFileName));
+	}
+	
+	/**
+	 * Assembles the input file given in the constructor reporting all its errors and warnings, the result is kept for outputAssembledFile
+	 * @param statistics - where the phases are measured, null to not measure them
+	 * @param diagnostics - where the errors and warnings are reported, the warnings stay there when the file is assembled
+	 * @throws AssemblyException with the diagnostics if the program has errors
+	 */
+	public void assembleFile(AssemblyStatistics statistics, DiagnosticCollector diagnostics) throws AssemblyException, IOException {
+		memoryImage = assemble(Paths.get(inputFileName),statistics,diagnostics);
+	}
+	
+	/**
+	 * The purpose of this method is to assemble a file without changing the state of the assembler
+	 * @param inputFile - the LAPILU assembly file
+	 * @return the memory image of the assembled program
+	 * @throws AssemblyException if the program has errors
+	 * @throws IOException if the file cannot be read
+	 */
+	public MemoryImage assemble(Path inputFile) throws AssemblyException, IOException {
+		return assemble(inputFile,null,new DiagnosticCollector(inputFile.toString()));
+	}
+	
+	/**
+	 * Same as assemble(Path), the files of streamingMinimumBytes or more are encoded while they are read with assembleStreaming.
+	 * The files given to .include are found from the directory of the file
+	 * @param statistics - where the phases are measured, null to not measure them
+	 * @param diagnostics - where the errors and warnings are reported, the warnings stay there when the file is assembled
+	 * @throws AssemblyException with the diagnostics if the program has errors
+	 */
+	public MemoryImage assemble(Path inputFile, AssemblyStatistics statistics, DiagnosticCollector diagnostics) throws AssemblyException, IOException {
+		if(Files.size(inputFile) >= streamingMinimumBytes) {
+			return assembleStreaming(FileChannel.open(inputFile),inputFile,statistics,diagnostics);
 		}
-		String fileContentWithoutComments = fileContentWithoutCommentsBuilder.toString().toUpperCase();
-		String headSection = "";
-		String codeSection = "";
-		//Now we need to divide the code in the two sections it can contain, the .head and the .code
-		if(fileContentWithoutComments.contains(".head")) {
-			int startOfHeadSection = fileContentWithoutComments.indexOf(".head")+6;
-			int endOfHeadSection = fileContentWithoutComments.indexOf(".endhead");
-			headSection = fileContentWithoutComments.substring(startOfHeadSection,endOfHeadSection);
-		}else {
-			throw new AssemblyException("The head section is not present in the file");
+		AssemblyPhaseEvent phaseEvent = startPhase("parse",statistics);
+		SourceProgram program = parse(Files.newInputStream(inputFile),inputFile,diagnostics);
+		phaseEvent.commit();
+		return assemble(program,statistics,diagnostics);
+	}
+	
+	/**
+	 * The purpose of this method is to assemble a program that is already in memory or comes from another source than a file
+	 * @param input - the LAPILU assembly code encoded in UTF-8, it is closed when the program is read
+	 * @return the memory image of the assembled program
+	 * @throws AssemblyException if the program has errors
+	 * @throws IOException if the input cannot be read
+	 */
+	public MemoryImage assemble(InputStream input) throws AssemblyException, IOException {
+		return assemble(input,null);
+	}
+	
+	/**
+	 * The purpose of this method is to assemble a program measuring the time, the allocated bytes and the counts of every phase
+	 * @param input - the LAPILU assembly code encoded in UTF-8, it is closed when the program is read
+	 * @param statistics - where the parse, encode and link phases are measured, null to not measure them
+	 * @return the memory image of the assembled program
+	 */
+	public MemoryImage assemble(InputStream input, AssemblyStatistics statistics) throws AssemblyException, IOException {
+		return assemble(input,statistics,new DiagnosticCollector(null));
+	}
+	
+	/**
+	 * The purpose of this method is to assemble a program finding all its errors, every phase continues after an error so the errors
+	 * of the whole program are reported at once
+	 * @param input - the LAPILU assembly code encoded in UTF-8, it is closed when the program is read
+	 * @param statistics - where the parse, encode and link phases are measured, null to not measure them
+	 * @param diagnostics - where the errors and warnings are reported, the warnings stay there when the program is assembled
+	 * @return the memory image of the assembled program
+	 * @throws AssemblyException with the diagnostics if the program has errors
+	 */
+	public MemoryImage assemble(InputStream input, AssemblyStatistics statistics, DiagnosticCollector diagnostics) throws AssemblyException, IOException {
+		//The lexer reads the file while the parser asks for tokens, so reading, lexing and parsing are a single phase
+		AssemblyPhaseEvent phaseEvent = startPhase("parse",statistics);
+		SourceProgram program = parse(input,diagnostics);
+		phaseEvent.commit();
+		return assemble(program,statistics,diagnostics);
+	}
+	
+	/**
+	 * The purpose of this method is to encode and link a program already parsed, a caller that needs the parsed program, like the
+	 * watcher that needs its included files, parses it and then assembles it here
+	 * @param program - the program given by parse, with the diagnostics of the parser in the diagnostics
+	 * @param statistics - where the encode and link phases are measured, null to not measure them
+	 * @param diagnostics - where the errors and warnings are reported, the warnings stay there when the program is assembled
+	 * @return the memory image of the assembled program
+	 * @throws AssemblyException with the diagnostics if the program has errors
+	 */
+	public MemoryImage assemble(SourceProgram program, AssemblyStatistics statistics, DiagnosticCollector diagnostics) throws AssemblyException {
+		if(program.getMainSection() == null) {
+			//Without the main section there is nothing to encode, the parser already reported it
+			throw new AssemblyException(diagnostics);
 		}
-		if(fileContentWithoutComments.contains(".code")) {
-			int startOfCodeSection = fileContentWithoutComments.indexOf(".code")+6;
-			int endOfCodeSection = fileContentWithoutComments.indexOf(".endcode");
-			codeSection = fileContentWithoutComments.substring(startOfCodeSection,endOfCodeSection);
-		}else {
-			throw new AssemblyException("The code section is not present in the file");
+		countParsedProgram(program,statistics);
+		
+		AssemblyPhaseEvent phaseEvent = startPhase("encode",statistics);
+		ArrayList<EncodedSection> encodedSections = encode(program,diagnostics);
+		phaseEvent.commit();
+		countEncodedSections(encodedSections,statistics);
+		return linkAssembledProgram(program,encodedSections,statistics,diagnostics);
+	}
+	
+	/**
+	 * The purpose of this method is to assemble a very large generated program with a memory proportional to its machine code and
+	 * not to its lines. The input is decoded from UTF-8 in blocks while it is read and every statement is encoded as soon as it is
+	 * parsed, only the code labels and the instructions that use them are kept for the linker. The sections are not looked for in the
+	 * section cache and are encoded in the current thread, and the .head section must be declared before the .code section
+	 * @param input - the LAPILU assembly code encoded in UTF-8, it is closed when the program is read
+	 * @param statistics - where the stream (read, parse and encode) and link phases are measured, null to not measure them
+	 * @param diagnostics - where the errors and warnings are reported, the warnings stay there when the program is assembled
+	 * @return the memory image of the assembled program
+	 * @throws AssemblyException with the diagnostics if the program has errors
+	 */
+	public MemoryImage assembleStreaming(ReadableByteChannel input, AssemblyStatistics statistics, DiagnosticCollector diagnostics) throws AssemblyException, IOException {
+		return assembleStreaming(input,null,statistics,diagnostics);
+	}
+	
+	/**
+	 * @param inputFile - the file of the program, the included files are found from its directory, null to find them from the working directory
+	 */
+	private MemoryImage assembleStreaming(ReadableByteChannel input, Path inputFile, AssemblyStatistics statistics, DiagnosticCollector diagnostics) throws AssemblyException, IOException {
+		AssemblyPhaseEvent phaseEvent = startPhase("stream",statistics);
+		SymbolTable symbols = new SymbolTable();
+		StreamingSectionEncoder streamingEncoder = new StreamingSectionEncoder(symbols,diagnostics);
+		//The same replacement of the invalid bytes as an InputStreamReader
+		CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		SourceProgram program;
+		try(Reader reader = Channels.newReader(input,decoder,STREAMING_BUFFER_BYTES)){
+			SourceParser parser = createParser(new Lexer(reader,symbols),inputFile,diagnostics);
+			parser.setStatementHandler(streamingEncoder);
+			program = parser.parse();
 		}
-		HashMap<String,String> constantLabels = new HashMap<String,String>();
-		//Now we need to process the head section
-		for(String headLine:headSection.split("\n")) {
-			if(headLine.contains("=")) {
-				//is a constant label
-				String labelName  = headLine.split("=")[0].replaceAll("\\s","");
-				if(labelName.isEmpty()) {
-					throw new AssemblyException("The label name is empty");
-				}else if(labelName.contains("¬") || labelName.contains("$") || labelName.contains("%") || labelName.contains("#") || labelName.contains(":")) {
-					throw new AssemblyException("The label name "+labelName+" is invalid, it cannot contain ¬, $, : or % characters");
-				}
-				String labelValue = headLine.split("=")[1].replaceAll("\\s","");
-				if( !(labelValue.matches("\\$([0-9a-fA-F])+") || labelValue.matches("¬([0-1])+") || labelValue.matches("%([0-9])+")) ) {
-					throw new AssemblyException("The value "+labelValue+" of the label "+labelName+" is invalid");
-				}
-				constantLabels.put(labelName, labelValue);
-			}
+		if(program.getMainSection() == null) {
+			phaseEvent.commit();
+			throw new AssemblyException(diagnostics);
 		}
-		//Now we need to process the .code section this section is divided into more sections, one mandatory .main section, one optional .interrupt section, and 0 or more .org sections
-		
-		//First lets find the .main section
-		String mainSection = "";
-		if(codeSection.contains(".main")) {
-			int startOfMainSection = codeSection.indexOf(".main")+6;
-			int endOfMainSection = codeSection.indexOf(".endmain");
-			if(endOfMainSection == -1) {
-				throw new AssemblyException("The .main section is not properly closed with an .endmain");
+		ArrayList<EncodedSection> encodedSections = streamingEncoder.getEncodedSections(program);
+		phaseEvent.commit();
+		countParsedProgram(program,statistics);
+		countEncodedSections(encodedSections,statistics);
+		return linkAssembledProgram(program,encodedSections,statistics,diagnostics);
+	}
+	
+	private static void countParsedProgram(SourceProgram program, AssemblyStatistics statistics) {
+		if(statistics != null) {
+			ArrayList<SourceSection> sourceSections = getSourceSections(program);
+			int statements = 0;
+			for(SourceSection sourceSection:sourceSections) {
+				statements+=sourceSection.getStatementCount();
 			}
-			mainSection = codeSection.substring(startOfMainSection,endOfMainSection);
-			mainSection = mainSection.replaceAll("(?m)^\\s+", "");
-		}else {
-			throw new AssemblyException("The main code section is not present in the file");
+			statistics.count("constants",program.getSymbols().getConstantCount());
+			statistics.count("sections",sourceSections.size());
+			statistics.count("statements",statements);
 		}
-		
-		System.out.println("Main section:"+mainSection);
-		
-		//Now lets find the .interrupt section
-		String interruptSection = "";
-		if(codeSection.contains(".interrupt")) {
-			int startOfInterruptSection = codeSection.indexOf(".interrupt")+11;
-			int endOfInterruptSection = codeSection.indexOf(".endinterrupt");
-			if(endOfInterruptSection == -1) {
-				throw new AssemblyException("The .interrupt section is not properly closed with an .endinterrupt");
+	}
+	
+	private static void countEncodedSections(ArrayList<EncodedSection> encodedSections, AssemblyStatistics statistics) {
+		if(statistics != null) {
+			for(EncodedSection encodedSection:encodedSections) {
+				statistics.count("words",encodedSection.getImage().getSize());
+				statistics.count("codeLabels",encodedSection.getCodeLabelCount());
+				statistics.count("fixups",encodedSection.getFixups().size());
 			}
-			interruptSection = codeSection.substring(startOfInterruptSection,endOfInterruptSection);
-			interruptSection = interruptSection.replaceAll("(?m)^\\s+", "");
 		}
-		
-		System.out.println("Interrupt section:"+interruptSection);
-		
-		LinkedList<String[]> orgSections = new LinkedList<String[]>();
-		if(codeSection.contains(".org")) {
-			for (int startIndexOfOrgSection:StringUtils.getIndexesOfMatches(codeSection,".org")) {
-				String orgStartLine = codeSection.substring(startIndexOfOrgSection,codeSection.indexOf("\n",startIndexOfOrgSection)+1);//I added the +1 as a little hack to preser the \n character
-				String orgSectionLocation = "";
-				if(orgStartLine.contains("$")) {
-					orgSectionLocation = orgStartLine.substring(orgStartLine.indexOf("$"),orgStartLine.indexOf("\n",orgStartLine.indexOf("$"))); //Maybe later we can add a token like : at the end of the section declaration to rely less on the new line 
-				}else if (orgStartLine.contains("¬")) {
-					orgSectionLocation = orgStartLine.substring(orgStartLine.indexOf("¬"),orgStartLine.indexOf("\n",orgStartLine.indexOf("¬")));
-				}else if (orgStartLine.contains("%")) {
-					orgSectionLocation = orgStartLine.substring(orgStartLine.indexOf("%"),orgStartLine.indexOf("\n",orgStartLine.indexOf("%")));
-				}
-				orgSectionLocation = orgSectionLocation.trim();
-				if(orgSectionLocation.trim().isEmpty()) {
-					throw new AssemblyException("The assembler cannot find the location of the .org section declared in the line: "+orgStartLine+" please meke sure that the location is provided.");
-				}
-				int startOfOrgSection= startIndexOfOrgSection+5+orgSectionLocation.length();
-				int endOfOrgSection = codeSection.indexOf(".endorg",startOfOrgSection);
-				String orgSection = codeSection.substring(startOfOrgSection, endOfOrgSection);
-				orgSection=orgSection.replaceAll("(?m)^\\s+", "");
-				orgSections.add(new String[] {orgSection,orgSectionLocation});
-				System.out.println("Org section location:"+orgSectionLocation+"Content:"+orgSection);
+	}
+	
+	/**
+	 * The last phase of assemble and assembleStreaming
+	 */
+	private MemoryImage linkAssembledProgram(SourceProgram program, ArrayList<EncodedSection> encodedSections, AssemblyStatistics statistics, DiagnosticCollector diagnostics) throws AssemblyException {
+		AssemblyPhaseEvent phaseEvent = startPhase("link",statistics);
+		MemoryImage linkedImage = link(program,encodedSections,diagnostics);
+		phaseEvent.commit();
+		if(linkedImage == null) {
+			throw new AssemblyException(diagnostics);
+		}
+		if(statistics != null) {
+			statistics.count("imageWords",linkedImage.getSize());
+			statistics.count("usedRanges",linkedImage.getUsedRangeCount());
+			statistics.endPhase();
+		}
+		return linkedImage;
+	}
+	
+	/**
+	 * Starts a phase in the statistics, if they are measured, and in the flight recorder, the event costs almost nothing when it is not recording
+	 */
+	private AssemblyPhaseEvent startPhase(String phase, AssemblyStatistics statistics) {
+		if(statistics != null) {
+			statistics.startPhase(phase);
+		}
+		AssemblyPhaseEvent phaseEvent = new AssemblyPhaseEvent(phase,dataBusLength,addressBusLength);
+		phaseEvent.begin();
+		return phaseEvent;
+	}
+	
+	/**
+	 * The purpose of this method is to read the program and group its lines in sections, it is the first step of assemble
+	 * @param input - the LAPILU assembly code encoded in UTF-8, it is closed when the program is read
+	 * @return the constants and the sections of the program
+	 */
+	public SourceProgram parse(InputStream input) throws AssemblyException, IOException {
+		DiagnosticCollector diagnostics = new DiagnosticCollector(null);
+		SourceProgram program = parse(input,diagnostics);
+		if(diagnostics.hasErrors()) {
+			throw new AssemblyException(diagnostics);
+		}
+		return program;
+	}
+	
+	/**
+	 * Same as parse, but the errors are reported to the diagnostics and the parser continues in the next line
+	 * @return the program, if the diagnostics have errors it can have missing sections or statements
+	 */
+	public SourceProgram parse(InputStream input, DiagnosticCollector diagnostics) throws IOException {
+		return parse(input,null,diagnostics);
+	}
+	
+	/**
+	 * Same as parse with diagnostics, for a file, the files that it includes are found from its directory
+	 * @param inputFile - the LAPILU assembly file
+	 */
+	public SourceProgram parse(Path inputFile, DiagnosticCollector diagnostics) throws IOException {
+		return parse(Files.newInputStream(inputFile),inputFile,diagnostics);
+	}
+	
+	private SourceProgram parse(InputStream input, Path inputFile, DiagnosticCollector diagnostics) throws IOException {
+		try(Reader reader = new InputStreamReader(input,StandardCharsets.UTF_8)){
+			//The lexer skips the comments and empty lines and converts everything to upper case while it reads the file
+			return createParser(new Lexer(reader),inputFile,diagnostics).parse();
+		}
+	}
+	
+	private SourceParser createParser(Lexer lexer, Path inputFile, DiagnosticCollector diagnostics) {
+		SourceParser parser = new SourceParser(lexer,diagnostics);
+		//Without a cache the included files are read again in every assembly
+		parser.setIncludes(inputFile,includeCache);
+		return parser;
+	}
+	
+	/**
+	 * The purpose of this method is to create the machine code for all instructions in all sections, except for the code labels,
+	 * it is the second step of assemble
+	 * @param program - the parsed program
+	 * @return the encoded sections in the order main, interrupt vector and the org sections as they are declared
+	 */
+	public ArrayList<EncodedSection> encode(SourceProgram program) throws AssemblyException {
+		DiagnosticCollector diagnostics = new DiagnosticCollector(null);
+		ArrayList<EncodedSection> encodedSections = encode(program,diagnostics);
+		if(diagnostics.hasErrors()) {
+			throw new AssemblyException(diagnostics);
+		}
+		return encodedSections;
+	}
+	
+	/**
+	 * Same as encode, but the errors are reported to the diagnostics and every section is encoded until its end
+	 * @return the encoded sections, the instructions with errors are not in them
+	 */
+	public ArrayList<EncodedSection> encode(SourceProgram program, DiagnosticCollector diagnostics) {
+		ArrayList<SourceSection> sourceSections = getSourceSections(program);
+		ArrayList<EncodedSection> machineCodeWithoutReplacingCodeLabelsForAllSections = new ArrayList<EncodedSection>();
+		if(!parallelEncoding || !isWorthEncodingInParallel(sourceSections)) {
+			for(SourceSection sourceSection:sourceSections) {
+				machineCodeWithoutReplacingCodeLabelsForAllSections.add(encodeSection(sourceSection,program.getSymbols(),diagnostics));
 			}
+			return machineCodeWithoutReplacingCodeLabelsForAllSections;
 		}
+		//The sections don't depend on each other until they are linked, so each one is encoded in a task of the fork join pool,
+		//the pool of the current thread if it is a worker (like in a batch) or the common pool
+		ArrayList<SectionEncodingTask> tasks = new ArrayList<SectionEncodingTask>();
+		for(SourceSection sourceSection:sourceSections) {
+			tasks.add(new SectionEncodingTask(sourceSection,program.getSymbols(),new DiagnosticCollector(diagnostics.getFile())));
+		}
+		ForkJoinTask.invokeAll(tasks);
+		//The results and the diagnostics are collected in the order of the sections, so they are the same as in a single thread
+		for(SectionEncodingTask task:tasks) {
+			diagnostics.addAll(task.diagnostics);
+			machineCodeWithoutReplacingCodeLabelsForAllSections.add(task.encodedSection);
+		}
+		return machineCodeWithoutReplacingCodeLabelsForAllSections;
+	}
+	
+	private static boolean isWorthEncodingInParallel(ArrayList<SourceSection> sourceSections) {
+		if(sourceSections.size() <= 2) {
+			return false;
+		}
+		//With a single thread in the pool the tasks run one after the other and only add their cost
+		int parallelism = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool().getParallelism() : ForkJoinPool.getCommonPoolParallelism();
+		if(parallelism <= 1) {
+			return false;
+		}
+		int statements = 0;
+		for(SourceSection sourceSection:sourceSections) {
+			statements+=sourceSection.getStatementCount();
+		}
+		return statements >= PARALLEL_ENCODING_MINIMUM_STATEMENTS;
+	}
+	
+	/**
+	 * The purpose of this method is to put the encoded sections in a single memory image and replace the code labels with their
+	 * addresses, it is the last step of assemble
+	 * @param program - the parsed program
+	 * @param machineCodeWithoutReplacingCodeLabelsForAllSections - the sections given by encode
+	 * @return the memory image of the program
+	 */
+	public MemoryImage link(SourceProgram program, List<EncodedSection> machineCodeWithoutReplacingCodeLabelsForAllSections) throws AssemblyException {
+		DiagnosticCollector diagnostics = new DiagnosticCollector(null);
+		MemoryImage linkedImage = link(program,machineCodeWithoutReplacingCodeLabelsForAllSections,diagnostics);
+		if(linkedImage == null) {
+			throw new AssemblyException(diagnostics);
+		}
+		return linkedImage;
+	}
+	
+	/**
+	 * Same as link, but the errors are reported to the diagnostics, all the code labels and sections are checked before giving up
+	 * @return the memory image of the program, null if the diagnostics have errors, also the ones of the previous phases
+	 */
+	public MemoryImage link(SourceProgram program, List<EncodedSection> machineCodeWithoutReplacingCodeLabelsForAllSections, DiagnosticCollector diagnostics) {
+		SymbolTable symbols = program.getSymbols();
+		ArrayList<SourceSection> sourceSections = getSourceSections(program);
 		
-		
-		//At this point we have every section of the code correctly grouped, now we create the machine code for all instructions in all sections, except for the code labels
-		HashMap<String,Integer> codeLabels = new HashMap<String,Integer>();
-		
-		LinkedList<Object[]> machineCodeWithoutReplacingCodeLabelsForAllSections = new LinkedList<Object[]>();
-		
-		LinkedList<String> machineCodeWithoutReplacingCodeLabelsForMainSection = new LinkedList<String>();
-		
-		//First we start with the main section
-		
-		int mainSectionMemoryAddress = 0;
-		int mainSectionLine = 1;
-		for(String line:mainSection.split("\n")) {
-			//We have 2 options, the line is a CODELABEL or the line is an instruction
-			line = line.trim();
-			if(mainSectionMemoryAddress<256) {
-				if (line.endsWith(":")) {
-					//Is a label
-					String labelName = line.substring(0,line.indexOf(":")).trim();
-					if(labelName.isEmpty()) {
-						throw new AssemblyException("The label name at line "+mainSectionLine+" of main section is empty");
-					}else if(labelName.contains("¬") || labelName.contains("$") || labelName.contains("%") || labelName.contains("#")) {
-						throw new AssemblyException("The label name "+labelName+" at line "+mainSectionLine+" of main section is invalid, it cannot contain ¬, $ or % characters");
-					}else {
-						if(constantLabels.containsKey(labelName)) {
-							throw new AssemblyException("The label: "+labelName+" at line "+mainSectionLine+" of main section is already defined as a constant label");
-						}else if(codeLabels.containsKey(labelName)) {
-							throw new AssemblyException("The label: "+labelName+" at line "+mainSectionLine+" of main section is already defined as a code label");
-						}else {
-							codeLabels.put(labelName, mainSectionMemoryAddress);
-						}
-					}
-				}else{
-					String instructionMnemonic   = line.split(" ")[0].trim();
-					String instructionParameter = line.split(" ")[1].trim();
-					if(constantLabels.containsKey(instructionParameter)) {
-						//The parameter of the instruction is a constant label, we replace it
-						instructionParameter = constantLabels.get(instructionParameter).trim();
-					}
-					try {
-						LinkedList<String> instructionBinaryRepresentation = getnstructionBinaryRepresentationAsStringList(instructionMnemonic, instructionParameter);
-						machineCodeWithoutReplacingCodeLabelsForMainSection.addAll(instructionBinaryRepresentation);
-						mainSectionMemoryAddress+=instructionBinaryRepresentation.size();
-					}catch(AssemblyException ex) {
-						throw new AssemblyException("Error at line "+mainSectionLine+" of main section: "+ex.toString());
-					}	
+		//First we put together the code labels of all sections, a label can be declared only once in the whole program.
+		//The addresses are kept by symbol id, so the program is not changed and can be linked again
+		int[] codeLabelAddresses = new int[symbols.size()];
+		Arrays.fill(codeLabelAddresses,-1);
+		for(int i = 0;i<sourceSections.size();i++) {
+			EncodedSection encodedSection = machineCodeWithoutReplacingCodeLabelsForAllSections.get(i);
+			for(int j = 0;j<encodedSection.getCodeLabelCount();j++) {
+				String labelName = encodedSection.getCodeLabelName(j);
+				//The ids of a section taken from the cache can be from the table of another program, then its names are used
+				int symbol = encodedSection.getSymbols() == symbols ? encodedSection.getCodeLabelSymbol(j) : symbols.find(labelName);
+				if(symbol == SymbolTable.NOT_FOUND) {
+					throw new IllegalArgumentException("The section "+encodedSection.getDescription()+" was not encoded from this program");
+				}else if(symbols.isConstant(symbol)) {
+					reportCodeLabelError(diagnostics,DiagnosticCode.CODE_LABEL_IS_CONSTANT,sourceSections.get(i),labelName,"The label: "+labelName+" is already defined as a constant label");
+				}else if(codeLabelAddresses[symbol] != -1) {
+					reportCodeLabelError(diagnostics,DiagnosticCode.DUPLICATE_CODE_LABEL,sourceSections.get(i),labelName,"The label: "+labelName+" is already defined as a code label");
+				}else {
+					codeLabelAddresses[symbol] = encodedSection.getCodeLabelAddress(j);
 				}
-			}else {
-				throw new AssemblyException("The main section occupies more than 255 (0 to 255) memory addresses, you can reduce it by jumping to another memory section outside the main one and continuing the execution from that point");
 			}
-			mainSectionLine++;
 		}
-		machineCodeWithoutReplacingCodeLabelsForAllSections.add(new Object[] {machineCodeWithoutReplacingCodeLabelsForMainSection,0,machineCodeWithoutReplacingCodeLabelsForMainSection.size()-1});
 		
-		//Then we continue with the Interrupt vector section
-		
-		LinkedList<String> machineCodeWithoutReplacingCodeLabelsForInterruptVectorSection = new LinkedList<String>();
-		
-		int interruptVectorSectionMemoryAddress = 256;
-		int interruptVectorSectionLine = 1;
-		for(String line:interruptSection.split("\n")) {
-			//We have 2 options, the line is a CODELABEL or the line is an instruction
-			line = line.trim();
-			if(interruptVectorSectionMemoryAddress<1024) {
-				if (line.endsWith(":")) {
-					//Is a label
-					String labelName = line.substring(0,line.indexOf(":")).trim();
-					if(labelName.isEmpty()) {
-						throw new AssemblyException("The label name at line "+interruptVectorSectionLine+" of interrupt vector section is empty");
-					}else if(labelName.contains("¬") || labelName.contains("$") || labelName.contains("%") || labelName.contains("#")) {
-						throw new AssemblyException("The label name "+labelName+" at line "+interruptVectorSectionLine+" of interrupt vector section is invalid, it cannot contain ¬, $ or % characters");
-					}else {
-						if(constantLabels.containsKey(labelName)) {
-							throw new AssemblyException("The label: "+labelName+" at line "+interruptVectorSectionLine+" of interrupt vector section is already defined as a constant label");
-						}else if(codeLabels.containsKey(labelName)) {
-							throw new AssemblyException("The label: "+labelName+" at line "+interruptVectorSectionLine+" of interrupt vector section is already defined as a code label");
-						}else {
-							codeLabels.put(labelName, interruptVectorSectionMemoryAddress);
-						}
-					}
-				}else{
-					String instructionMnemonic   = line.split(" ")[0].trim();
-					String instructionParameter = line.split(" ")[1].trim();
-					if(constantLabels.containsKey(instructionParameter)) {
-						//The parameter of the instruction is a constant label, we replace it
-						instructionParameter = constantLabels.get(instructionParameter).trim();
-					}
-					try {
-						LinkedList<String> instructionBinaryRepresentation = getnstructionBinaryRepresentationAsStringList(instructionMnemonic, instructionParameter);
-						machineCodeWithoutReplacingCodeLabelsForInterruptVectorSection.addAll(instructionBinaryRepresentation);
-						interruptVectorSectionMemoryAddress+=instructionBinaryRepresentation.size();
-					}catch(AssemblyException ex) {
-						throw new AssemblyException("Error at line "+interruptVectorSectionLine+" of interrupt vector section: "+ex.toString());
-					}	
+		//Every code label used by a section must exist, the statements that use a missing one are looked for only if there is one
+		for(int i = 0;i<sourceSections.size();i++) {
+			EncodedSection encodedSection = machineCodeWithoutReplacingCodeLabelsForAllSections.get(i);
+			for(Fixup fixup:encodedSection.getFixups()) {
+				int symbol = encodedSection.getSymbols() == symbols ? fixup.getSymbol() : symbols.find(fixup.getLabelName());
+				if(symbol == SymbolTable.NOT_FOUND || codeLabelAddresses[symbol] < 0) {
+					reportUndefinedCodeLabels(sourceSections.get(i),symbols,codeLabelAddresses,diagnostics);
+					break;
 				}
-			}else {
-				throw new AssemblyException("The interrupt vector section occupies more than 768 (256 - 1023) memory addresses, you can reduce it by jumping to another memory section outside the main one and continuing the execution from that point");
 			}
-			interruptVectorSectionLine++;
 		}
 		
-		machineCodeWithoutReplacingCodeLabelsForAllSections.add(new Object[] {machineCodeWithoutReplacingCodeLabelsForInterruptVectorSection,256,machineCodeWithoutReplacingCodeLabelsForInterruptVectorSection.size()-1});
-
-		
-		for(String[] orgSection:orgSections) {
-			String orgSectionLocation = orgSection[1];
-			LinkedList<String> machineCodeWithoutReplacingCodeLabelsForCurrentOrgSection = new LinkedList<String>();
-			if(parameterNumberIsRepresentableWithAddressBusLength(orgSectionLocation)) {
-				int currentOrgSectionMemoryAddress = convertParameterNumberValueToDecimal(orgSectionLocation);
-				int currentOrgSectionLine = 1;
-				for(String line:orgSection[0].split("\n")) {
-					//We have 2 options, the line is a CODELABEL or the line is an instruction
-					if(currentOrgSectionMemoryAddress<Math.pow(2,addressBusLength)-1) {
-						line = line.trim();
-						if (line.endsWith(":")) {
-							//Is a label
-							String labelName = line.substring(0,line.indexOf(":")).trim();
-							if(labelName.isEmpty()) {
-								throw new AssemblyException("The label name at line "+currentOrgSectionLine+" of org section located at "+orgSectionLocation+" is empty");
-							}else if(labelName.contains("¬") || labelName.contains("$") || labelName.contains("%") || labelName.contains("#")) {
-								throw new AssemblyException("The label name "+labelName+" at line "+currentOrgSectionLine+" of org section located at "+orgSectionLocation+" is invalid, it cannot contain ¬, $ or % characters");
-							}else {
-								if(constantLabels.containsKey(labelName)) {
-									throw new AssemblyException("The label: "+labelName+" at line "+currentOrgSectionLine+" of org section located at "+orgSectionLocation+" is already defined as a constant label");
-								}else if(codeLabels.containsKey(labelName)) {
-									throw new AssemblyException("The label: "+labelName+" at line "+currentOrgSectionLine+" of org section located at "+orgSectionLocation+" is already defined as a code label");
-								}else {
-									codeLabels.put(labelName, currentOrgSectionMemoryAddress);
-								}
-							}
-						}else{
-							String instructionMnemonic   = line.split(" ")[0].trim();
-							String instructionParameter = line.split(" ")[1].trim();
-							if(constantLabels.containsKey(instructionParameter)) {
-								//The parameter of the instruction is a constant label, we replace it
-								instructionParameter = constantLabels.get(instructionParameter).trim();
-							}
-							try {
-								LinkedList<String> instructionBinaryRepresentation = getnstructionBinaryRepresentationAsStringList(instructionMnemonic, instructionParameter);
-								machineCodeWithoutReplacingCodeLabelsForCurrentOrgSection.addAll(instructionBinaryRepresentation);
-								currentOrgSectionMemoryAddress+=instructionBinaryRepresentation.size();
-							}catch(AssemblyException ex) {
-								throw new AssemblyException("Error at line "+currentOrgSectionLine+" of org section located at "+orgSectionLocation+": "+ex.toString());
-							}	
-						}
-						currentOrgSectionLine++;
-					}else {
-						throw new AssemblyException("The org section goes outside of memory");
-					}
-				}
-				machineCodeWithoutReplacingCodeLabelsForAllSections.add(new Object[] {machineCodeWithoutReplacingCodeLabelsForCurrentOrgSection,convertParameterNumberValueToDecimal(orgSectionLocation),machineCodeWithoutReplacingCodeLabelsForCurrentOrgSection.size()-1});
-			}else {
-				throw new AssemblyException("The org section location "+orgSectionLocation+" is invalid");
+		//Then we need to make sure that the sections fit in the memory and doesn't overlap, the .org sections with an invalid
+		//location are left out, their error is already reported and they would overlap with anything
+		ArrayList<SourceSection> placedSourceSections = new ArrayList<SourceSection>();
+		ArrayList<EncodedSection> placedSections = new ArrayList<EncodedSection>();
+		for(int i = 0;i<sourceSections.size();i++) {
+			if(sourceSections.get(i).getKind() != SectionKind.ORG || instructionEncoder.isValidAddress(NumericLiteralParser.parse(sourceSections.get(i).getLocation()))) {
+				placedSourceSections.add(sourceSections.get(i));
+				placedSections.add(machineCodeWithoutReplacingCodeLabelsForAllSections.get(i));
 			}
 		}
+		sectionLayout.checkSections(placedSourceSections,placedSections,diagnostics);
+		if(diagnostics.hasErrors()) {
+			return null;
+		}
 		
-		//At this point we already populated the machineCodeWithoutReplacingCodeLabelsForAllSections list, now its time to construct the binary representation
-		//First we need to make sure that the sections doesn't repeat or overlap
-		//For this first we make sure that the .org sections starting point are not in the region of the .main and the .interrupt sections
-		for(int i = 2;i<machineCodeWithoutReplacingCodeLabelsForAllSections.size();i++) {
-			Object[] sectionAInfo = machineCodeWithoutReplacingCodeLabelsForAllSections.get(i);
-			int sectionAStart = (Integer) sectionAInfo[1];
-			if(sectionAStart<=255) {
-				throw new AssemblyException("The .org section number "+(i-1)+" overlaps with the .main section");
+		//At this point we know that the sections doesn't overlap, its time to put them in a single
+		//memory image and replace all the code tags with the address values
+		MemoryImage linkedImage = linker.link(machineCodeWithoutReplacingCodeLabelsForAllSections,symbols,codeLabelAddresses);
+		if(metricsRegistry != null) {
+			ProgramMetrics.record(metricsRegistry,program,machineCodeWithoutReplacingCodeLabelsForAllSections,linkedImage);
+		}
+		return linkedImage;
+	}
+	
+	/**
+	 * Reports every instruction of the section whose parameter is a code label that is not declared in the program
+	 */
+	private static void reportUndefinedCodeLabels(SourceSection section, SymbolTable symbols, int[] codeLabelAddresses, DiagnosticCollector diagnostics) {
+		String sectionName = getSectionName(section);
+		for(SourceStatement statement:section.getStatements()) {
+			int symbol = statement.getSymbol();
+			if(statement.isLabel() || symbol == SymbolTable.NOT_FOUND || symbols.isConstant(symbol) || codeLabelAddresses[symbol] >= 0 || statement.getParameter().startsWith("#")) {
+				continue;
 			}
-			if(sectionAStart>=256 && sectionAStart<=1023) {
-				throw new AssemblyException("The .org section number "+(i-1)+" overlaps with the .interrupt section");
+			//The instructions that don't accept code labels already have an error of the encoder
+			InstructionDefinition instruction = InstructionSet.getInstruction(statement.getName());
+			if(instruction != null && instruction.acceptsCodeLabels()) {
+				diagnostics.error(statement.getFile(),DiagnosticCode.UNDEFINED_CODE_LABEL,sectionName,statement.getLine(),statement.getColumn(),"The code label: "+statement.getParameter()+" dosen't exists");
 			}
 		}
-		//Now we need to make sure that the .org sections doesn't overlap in between them
-		for(int i = 2;i<machineCodeWithoutReplacingCodeLabelsForAllSections.size();i++) {
-			Object[] sectionAInfo = machineCodeWithoutReplacingCodeLabelsForAllSections.get(i);
-			int sectionAStart = (Integer) sectionAInfo[1];
-			for(int j = 2;j<machineCodeWithoutReplacingCodeLabelsForAllSections.size();j++) {
-				Object[] sectionBInfo = machineCodeWithoutReplacingCodeLabelsForAllSections.get(j);
-				int sectionBStart = (Integer) sectionBInfo[1];
-				int sectionBEnd = (Integer) sectionBInfo[2];
-				if(sectionAStart>=sectionBStart && sectionAStart<=sectionBEnd) {
-					throw new AssemblyException("The .org section number "+(i-1)+" overlaps with the .org section number "+(j+1)+" section");
-				}
-			}
+	}
+	
+	/**
+	 * @return the sections of the program, always in the same order: main, interrupt vector and the org sections as they are declared
+	 */
+	private static ArrayList<SourceSection> getSourceSections(SourceProgram program) {
+		ArrayList<SourceSection> sourceSections = new ArrayList<SourceSection>();
+		sourceSections.add(program.getMainSection());
+		if(program.getInterruptSection() != null) {
+			sourceSections.add(program.getInterruptSection());
+		}else {
+			sourceSections.add(new SourceSection(SectionKind.INTERRUPT,"",0));
 		}
-		
-		//At this point we know that the sections doesn't overlap, its time to replace all 
-		//the code tags with the address values and fill the 
-		//empty spaces with 0 but first we need to order the sections
+		sourceSections.addAll(program.getOrgSections());
+		return sourceSections;
+	}
 	
-		machineCodeWithoutReplacingCodeLabelsForAllSections.sort(new Comparator<Object[]>() {
-			@Override
-			public int compare(Object[] o1, Object[] o2) {
-				if(((Integer)o1[1])>((Integer)o2[1])) {
-					return 1;
-				}else if(((Integer)o1[1])<((Integer)o2[1])) {
-					return -1;
-				}else {
-					return 0;
-				}
+	/**
+	 * The purpose of this method is to create the machine code of a section, the code labels are not replaced yet.
+	 * If the section is in the cache it is not encoded again
+	 * @param section - the section of the source code
+	 * @param symbols - the symbol table of the program, with the values of the constant labels
+	 * @param diagnostics - where the errors of the section are reported
+	 * @return the encoded section with the addresses of the code labels declared in it, without the instructions that have errors
+	 */
+	private EncodedSection encodeSection(SourceSection section, SymbolTable symbols, DiagnosticCollector diagnostics) {
+		SectionEncodingEvent sectionEvent = new SectionEncodingEvent();
+		sectionEvent.begin();
+		String cacheKey = null;
+		if(sectionEncodingCache != null) {
+			cacheKey = SectionEncodingCache.computeKey(section,symbols,dataBusLength,addressBusLength);
+			EncodedSection cachedSection = sectionEncodingCache.get(cacheKey);
+			if(cachedSection != null) {
+				//The description has the line of the section, that can be different in this file
+				EncodedSection encodedSection = cachedSection.withDescription(getSectionDescription(section));
+				commitSectionEvent(sectionEvent,section,encodedSection,-1,true);
+				return encodedSection;
 			}
-		});
-		String valueCeroAsBinaryString = convertNumberToBinaryStringOfDataBusSize(0);
-		for(int j = 0;j<machineCodeWithoutReplacingCodeLabelsForAllSections.size();j++) {
-			Object[] sectionInfo = machineCodeWithoutReplacingCodeLabelsForAllSections.get(j);
-			if((j+1)<machineCodeWithoutReplacingCodeLabelsForAllSections.size()) {
-				int startOfNextSection = (Integer) machineCodeWithoutReplacingCodeLabelsForAllSections.get(j+1)[1];
-				//Intermediate section
-				for(int i = (Integer)sectionInfo[1];i<startOfNextSection;i++ ) {
-					LinkedList<String> sectionBinaryMachineCode = (LinkedList<String>) sectionInfo[0];
-					if(i<sectionBinaryMachineCode.size()) {
-						if(!sectionBinaryMachineCode.get(i).matches("([0-1])+")) {
-							//Is a label, we need to replace it 
-							if(codeLabels.containsKey(sectionBinaryMachineCode.get(i).trim())) {
-								int addressOfLabel = codeLabels.get(sectionBinaryMachineCode.get(i).trim());
-								String[] addressOfLabelAsBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(addressOfLabel);
-								binaryMachineCodeStrings.add(addressOfLabelAsBinaryStrings[0]);
-								binaryMachineCodeStrings.add(addressOfLabelAsBinaryStrings[1]);
-								i++;
-							}else {
-								throw new AssemblyException("The code label: "+sectionBinaryMachineCode.get(i)+" dosen't exists");
-							}
-						}else {
-							binaryMachineCodeStrings.add(sectionBinaryMachineCode.get(i));
-						}
-					}else {
-						binaryMachineCodeStrings.add(valueCeroAsBinaryString);
-					}
-				}
-			}else {
-				//Last section
-				for(int i = (Integer)sectionInfo[1];i<(Integer)sectionInfo[2];i++ ) {
-					LinkedList<String> sectionBinaryMachineCode = (LinkedList<String>) sectionInfo[0];
-					if(i<sectionBinaryMachineCode.size()) {
-						if(!sectionBinaryMachineCode.get(i).matches("([0-1])+")) {
-							//Is a label, we need to replace it 
-							if(codeLabels.containsKey(sectionBinaryMachineCode.get(i).trim())) {
-								int addressOfLabel = codeLabels.get(sectionBinaryMachineCode.get(i).trim());
-								String[] addressOfLabelAsBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(addressOfLabel);
-								binaryMachineCodeStrings.add(addressOfLabelAsBinaryStrings[0]);
-								binaryMachineCodeStrings.add(addressOfLabelAsBinaryStrings[1]);
-								i++;
-							}else {
-								throw new AssemblyException("The code label: "+sectionBinaryMachineCode.get(i)+" dosen't exists");
-							}
-						}else {
-							binaryMachineCodeStrings.add(sectionBinaryMachineCode.get(i));
-						}
-					}else {
-						binaryMachineCodeStrings.add(valueCeroAsBinaryString);
+		}
+		SectionEncoder sectionEncoder = new SectionEncoder(section,symbols,diagnostics);
+		for(SourceStatement statement:section.getStatements()) {
+			sectionEncoder.encodeStatement(statement);
+		}
+		sectionEncoder.finishSection();
+		//A section with errors is not kept, the cache must only give sections that can be linked
+		if(sectionEncodingCache != null && !sectionEncoder.hasErrors()) {
+			sectionEncodingCache.put(cacheKey,sectionEncoder.encodedSection);
+		}
+		commitSectionEvent(sectionEvent,section,sectionEncoder.encodedSection,sectionEncoder.instructionCount,false);
+		return sectionEncoder.encodedSection;
+	}
+	
+	/**
+	 * @param instructions - the number of instructions of the section, -1 to count them in the statements
+	 */
+	private static void commitSectionEvent(SectionEncodingEvent sectionEvent, SourceSection section, EncodedSection encodedSection, int instructions, boolean fromCache) {
+		sectionEvent.end();
+		//The fields are filled only if the event is recorded, counting the instructions is not free
+		if(sectionEvent.shouldCommit()) {
+			if(instructions < 0) {
+				instructions = 0;
+				for(SourceStatement statement:section.getStatements()) {
+					if(!statement.isLabel()) {
+						instructions++;
 					}
 				}
 			}
+			sectionEvent.kind = section.getKind().name();
+			sectionEvent.description = encodedSection.getDescription();
+			sectionEvent.startAddress = encodedSection.getImage().getOrigin();
+			sectionEvent.words = encodedSection.getImage().getSize();
+			sectionEvent.instructions = instructions;
+			sectionEvent.fromCache = fromCache;
+			sectionEvent.commit();
 		}
 	}
 	
-	public void outputAssembledFile(String outputFileName,OutputFileFormat outputFileFormat) throws AssemblyException, IOException{
-		outputFileFormat.outputFormatedFile(outputFileName,binaryMachineCodeStrings);
+	private static String getSectionDescription(SourceSection section) {
+		if(section.getKind() == SectionKind.MAIN) {
+			return ".main section";
+		}else if(section.getKind() == SectionKind.INTERRUPT) {
+			return ".interrupt section";
+		}
+		return ".org section declared at line "+section.getLine()+(section.getFile() != null ? " of "+section.getFile() : "");
 	}
 	
-	private LinkedList<String> getnstructionBinaryRepresentationAsStringList(String instructionMnemonic,String instructionParameter) throws AssemblyException {
-		switch(instructionMnemonic) {
-			case "ADC":
-				if(instructionParameter.contains("#")) {
-					//Direct
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(1)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(2)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(3)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}
-			case "SUB":
-				if(instructionParameter.contains("#")) {
-					//Direct
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(4)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(5)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(6)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}
-			case "INC":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(1)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "OR":
-				if(instructionParameter.contains("#")) {
-					//Direct
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(8)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(9)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(10)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}
-			case "AND":
-				if(instructionParameter.contains("#")) {
-					//Direct
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(11)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(12)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(13)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}
-			case "NOT":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(14)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "XOR":
-				if(instructionParameter.contains("#")) {
-					//Direct
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(15)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(16)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(17)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}
-			case "RTCL":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(18)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "RTCR":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(19)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "DEC":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(20)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "CLCF":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(21)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "CLZF":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(22)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "CLNF":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(23)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "CLOF":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(24)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "CLIDF":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(25)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "SCF":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(26)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "SZF":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(27)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "SNF":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(28)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "SOF":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(29)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "SIDF":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(30)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "LDA":
-				if(instructionParameter.contains("#")) {
-					//Direct
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(31)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(32)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(33)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}
-			case "LDX":
-				if(instructionParameter.contains("#")) {
-					//Direct
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(34)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(35)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(36)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}
-			case "LDY":
-				if(instructionParameter.contains("#")) {
-					//Direct
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(37)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(38)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(39)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}
-			case "STA":
-				if(instructionParameter.contains("#")) {
-					throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" indicates a direct adressing mode but this instruction does not support it");
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(40)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(41)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}
-			case "STX":
-				if(instructionParameter.contains("#")) {
-					throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" indicates a direct adressing mode but this instruction does not support it");
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(42)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(43)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}
-			case "STY":
-				if(instructionParameter.contains("#")) {
-					throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" indicates a direct adressing mode but this instruction does not support it");
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(44)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(45)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid");
-					}
-				}
-			case "TAX":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(46)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "TAY":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(47)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "TXA":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(48)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-				
-			case "TXY":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(49)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "TYA":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(50)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "TYX":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(51)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "PSHA":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(52)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "PSHS":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(53)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "PSHX":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(54)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "PSHY":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(55)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "POPA":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(56)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "POPS":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(57)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "POPX":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(58)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "POPY":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(59)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "NOP":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(60)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "JMP":
-				if(instructionParameter.contains("#")) {
-					throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" indicates a direct adressing mode but this instruction does not support it");
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(61)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(62)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						//Is a code label, we reserve 2 memory addresses for it, as absolute addressing
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(62)); //Instruction binary representation
-						instructionBinaryRepresentation.add(instructionParameter);
-						instructionBinaryRepresentation.add(instructionParameter);
-						return instructionBinaryRepresentation;
-					}
-				}
-			case "JSR":
-				if(instructionParameter.contains("#")) {
-					throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" indicates a direct adressing mode but this instruction does not support it");
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(63)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(0));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(63)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						//Is a code label, we reserve 2 memory addresses for it, as absolute addressing
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(63)); //Instruction binary representation
-						instructionBinaryRepresentation.add(instructionParameter);
-						instructionBinaryRepresentation.add(instructionParameter);
-						return instructionBinaryRepresentation;
-					}
-				}
-			case "RETS":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(64)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			case "BCC":
-				if(instructionParameter.contains("#")) {
-					throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" indicates a direct adressing mode but this instruction does not support it");
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(65)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(66)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						//Is a code label, we reserve 2 memory addresses for it, as absolute addressing
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(66)); //Instruction binary representation
-						instructionBinaryRepresentation.add(instructionParameter);
-						instructionBinaryRepresentation.add(instructionParameter);
-						return instructionBinaryRepresentation;
-					}
-				}
-			case "BCS":
-				if(instructionParameter.contains("#")) {
-					throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" indicates a direct adressing mode but this instruction does not support it");
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(67)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(68)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						//Is a code label, we reserve 2 memory addresses for it, as absolute addressing
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(68)); //Instruction binary representation
-						instructionBinaryRepresentation.add(instructionParameter);
-						instructionBinaryRepresentation.add(instructionParameter);
-						return instructionBinaryRepresentation;
-					}
-				}
-			case "BZC":
-				if(instructionParameter.contains("#")) {
-					throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" indicates a direct adressing mode but this instruction does not support it");
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(69)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(70)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						//Is a code label, we reserve 2 memory addresses for it, as absolute addressing
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(70)); //Instruction binary representation
-						instructionBinaryRepresentation.add(instructionParameter);
-						instructionBinaryRepresentation.add(instructionParameter);
-						return instructionBinaryRepresentation;
-					}
-				}
-			case "BZS":
-				if(instructionParameter.contains("#")) {
-					throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" indicates a direct adressing mode but this instruction does not support it");
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(71)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(72)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						//Is a code label, we reserve 2 memory addresses for it, as absolute addressing
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(72)); //Instruction binary representation
-						instructionBinaryRepresentation.add(instructionParameter);
-						instructionBinaryRepresentation.add(instructionParameter);
-						return instructionBinaryRepresentation;
-					}
-				}
-			case "BNC":
-				if(instructionParameter.contains("#")) {
-					throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" indicates a direct adressing mode but this instruction does not support it");
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(73)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(74)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						//Is a code label, we reserve 2 memory addresses for it, as absolute addressing
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(74)); //Instruction binary representation
-						instructionBinaryRepresentation.add(instructionParameter);
-						instructionBinaryRepresentation.add(instructionParameter);
-						return instructionBinaryRepresentation;
-					}
-				}
-			case "BNS":
-				if(instructionParameter.contains("#")) {
-					throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" indicates a direct adressing mode but this instruction does not support it");
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(75)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(76)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						//Is a code label, we reserve 2 memory addresses for it, as absolute addressing
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(76)); //Instruction binary representation
-						instructionBinaryRepresentation.add(instructionParameter);
-						instructionBinaryRepresentation.add(instructionParameter);
-						return instructionBinaryRepresentation;
-					}
-				}
-			case "BOC":
-				if(instructionParameter.contains("#")) {
-					throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" indicates a direct adressing mode but this instruction does not support it");
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(77)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(78)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						//Is a code label, we reserve 2 memory addresses for it, as absolute addressing
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(78)); //Instruction binary representation
-						instructionBinaryRepresentation.add(instructionParameter);
-						instructionBinaryRepresentation.add(instructionParameter);
-						return instructionBinaryRepresentation;
-					}
-				}
-
-			case "BOS":
-				if(instructionParameter.contains("#")) {
-					throw new AssemblyException("The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" indicates a direct adressing mode but this instruction does not support it");
-				}else {
-					//Adressing
-					if(parameterNumberIsRepresentableWithDataBusLength(instructionParameter)) {
-						//Zero page
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(79)); //Instruction binary representation
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter)));
-						return instructionBinaryRepresentation;
-					}else if (parameterNumberIsRepresentableWithAddressBusLength(instructionParameter)){
-						//Absolute
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(80)); //Instruction binary representation
-						String [] parameterBinaryStrings = convertNumberToTwoBinaryStringOfDataBusSize(convertParameterNumberValueToDecimal(instructionParameter));
-						instructionBinaryRepresentation.add(parameterBinaryStrings[0]);
-						instructionBinaryRepresentation.add(parameterBinaryStrings[1]);
-						return instructionBinaryRepresentation;
-					}else {
-						//Is a code label, we reserve 2 memory addresses for it, as absolute addressing
-						LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-						instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(80)); //Instruction binary representation
-						instructionBinaryRepresentation.add(instructionParameter);
-						instructionBinaryRepresentation.add(instructionParameter);
-						return instructionBinaryRepresentation;
-					}
-				}
-			case "RETI":
-				if(instructionParameter.isEmpty()) {
-					LinkedList<String> instructionBinaryRepresentation = new LinkedList<String>();
-					instructionBinaryRepresentation.add(convertNumberToBinaryStringOfDataBusSize(81)); //Instruction binary representation
-					return instructionBinaryRepresentation;
-				}else {
-					throw new AssemblyException("The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
-				}
-			default:
-				throw new AssemblyException("Invalid opcode: "+instructionMnemonic);
+	/**
+	 * @return how the section is called in the error messages
+	 */
+	private static String getSectionName(SourceSection section) {
+		if(section.getKind() == SectionKind.MAIN) {
+			return "main section";
+		}else if(section.getKind() == SectionKind.INTERRUPT) {
+			return "interrupt vector section";
 		}
+		return "org section located at "+section.getLocation();
 	}
 	
-	
 	/**
-	 * Validates if the given number is representable with the number of bytes of the data bus
-	 * @param number
-	 * @return true if is representable and valid, false if not
+	 * Reports an error in the line where the code label is declared, in the file of the program or in an included file
 	 */
-	private boolean parameterNumberIsRepresentableWithDataBusLength(String number) {
-		double maximumRepresentableNumber = Math.pow(2,dataBusLength)-1;
-		if(number.matches("\\$([0-9a-fA-F])+")){
-			//Hex number
-			number = number.replace("$","");
-			if(Integer.parseInt(number, 16)<=maximumRepresentableNumber) {
-				return true;
+	private static void reportCodeLabelError(DiagnosticCollector diagnostics, DiagnosticCode code, SourceSection section, String labelName, String message) {
+		for(SourceStatement statement:section.getStatements()) {
+			if(statement.isLabel() && statement.getName().equals(labelName)) {
+				diagnostics.error(statement.getFile(),code,getSectionName(section),statement.getLine(),0,message);
+				return;
 			}
-		}else if (number.matches("¬([0-1])+")) {
-			 //Binary number
-			number = number.replace("¬","");
-			if(Integer.parseInt(number, 2)<=maximumRepresentableNumber) {
-				return true;
+		}
+		diagnostics.error(section.getFile(),code,getSectionName(section),section.getLine(),0,message);
+	}
+	
+	/**
+	 * @param parallelEncoding - true to encode the sections of big programs at the same time, it is enabled by default
+	 */
+	public void setParallelEncoding(boolean parallelEncoding) {
+		this.parallelEncoding = parallelEncoding;
+	}
+	
+	/**
+	 * @param streamingMinimumBytes - the size from which assemble(Path) and assembleFile encode the file while it is read, Long.MAX_VALUE
+	 * to always keep the whole program in memory
+	 */
+	public void setStreamingMinimumBytes(long streamingMinimumBytes) {
+		this.streamingMinimumBytes = streamingMinimumBytes;
+	}
+	
+	/**
+	 * @param sectionEncodingCache - the cache of encoded sections, it can be shared by many assemblers, null to encode every section
+	 */
+	public void setSectionEncodingCache(SectionEncodingCache sectionEncodingCache) {
+		this.sectionEncodingCache = sectionEncodingCache;
+	}
+	
+	public SectionEncodingCache getSectionEncodingCache() {
+		return sectionEncodingCache;
+	}
+	
+	/**
+	 * @param includeCache - the cache of the files given to .include, it can be shared by many assemblers, null to read the included files
+	 * in every assembly
+	 */
+	public void setIncludeCache(IncludeCache includeCache) {
+		this.includeCache = includeCache;
+	}
+	
+	public IncludeCache getIncludeCache() {
+		return includeCache;
+	}
+	
+	/**
+	 * @param metricsRegistry - where the instruction mix and the label uses of every linked program are counted, it can be shared by
+	 * many assemblers, null to not count them
+	 */
+	public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+		this.metricsRegistry = metricsRegistry;
+	}
+	
+	public MemoryImage getMemoryImage() {
+		return memoryImage;
+	}
+	
+	public void outputAssembledFile(String outputFileName,OutputFileFormat outputFileFormat) throws AssemblyException, IOException{
+		outputAssembledFile(outputFileName,outputFileFormat,null);
+	}
+	
+	/**
+	 * Writes the assembled program measuring the output phase
+	 * @param statistics - where the output phase is measured, null to not measure it
+	 */
+	public void outputAssembledFile(String outputFileName,OutputFileFormat outputFileFormat,AssemblyStatistics statistics) throws AssemblyException, IOException{
+		if(statistics != null) {
+			statistics.startPhase("output");
+		}
+		writeOutputFile(outputFileName,outputFileFormat,memoryImage);
+		if(statistics != null) {
+			if(!outputFileName.endsWith(outputFileFormat.getFileExtension())) {
+				outputFileName+=outputFileFormat.getFileExtension();
 			}
-		}else if (number.matches("%([0-9])+")) {
-			//Decimal number
-			number = number.replace("%","");
-			if(Integer.parseInt(number)<=maximumRepresentableNumber) {
-				return true;
+			statistics.count("outputBytes",Files.size(Paths.get(outputFileName)));
+			statistics.endPhase();
+		}
+	}
+	
+	/**
+	 * The purpose of this method is to write a memory image in a file and record it in the flight recorder, the batch and the build cache
+	 * write their files with it
+	 * @param outputFileName - the output file, the extension of the format is added if it doesn't have it
+	 * @param outputFileFormat - the format of the output file
+	 * @param memoryImage - the assembled program
+	 */
+	public static void writeOutputFile(String outputFileName, OutputFileFormat outputFileFormat, MemoryImage memoryImage) throws AssemblyException, IOException {
+		OutputFileEvent outputEvent = new OutputFileEvent();
+		outputEvent.begin();
+		outputFileFormat.outputFormatedFile(outputFileName,memoryImage);
+		outputEvent.end();
+		if(outputEvent.shouldCommit()) {
+			if(!outputFileName.endsWith(outputFileFormat.getFileExtension())) {
+				outputFileName+=outputFileFormat.getFileExtension();
 			}
-			
+			outputEvent.format = outputFileFormat.getName();
+			outputEvent.file = outputFileName;
+			outputEvent.words = memoryImage.getSize();
+			outputEvent.size = Files.size(Paths.get(outputFileName));
+			outputEvent.commit();
 		}
-		return false;
 	}
 	
 	/**
-	 * Validates if the given number is representable with the number of bytes of the address bus
-	 * @param number
-	 * @return true if is representable and valid, false if not
+	 * Encodes the statements of a section one by one, so a section can be encoded from its list of statements or while it is parsed
 	 */
-	private boolean parameterNumberIsRepresentableWithAddressBusLength(String number) {
-		double maximumRepresentableNumber = Math.pow(2,addressBusLength)-1;
-		if(number.matches("\\$([0-9a-fA-F])+")){
-			//Hex number
-			number = number.replace("$","");
-			if(Integer.parseInt(number, 16)<=maximumRepresentableNumber) {
-				return true;
+	private class SectionEncoder {
+		private SourceSection section;
+		private SymbolTable symbols;
+		private DiagnosticCollector diagnostics;
+		private String sectionName;
+		private int lastAddress;
+		private boolean sectionFull;
+		//The last instruction can end after the last address, there is no next statement to find it
+		private SourceStatement lastStatement;
+		private int errorsBefore;
+		private int instructionCount;
+		private EncodedSection encodedSection;
+		
+		public SectionEncoder(SourceSection section, SymbolTable symbols, DiagnosticCollector diagnostics) {
+			this.section = section;
+			this.symbols = symbols;
+			this.diagnostics = diagnostics;
+			this.sectionName = getSectionName(section);
+			this.errorsBefore = diagnostics.getErrorCount();
+			int origin;
+			if(section.getKind() == SectionKind.MAIN) {
+				origin = SectionLayout.MAIN_SECTION_START;
+				lastAddress = SectionLayout.MAIN_SECTION_END;
+			}else if(section.getKind() == SectionKind.INTERRUPT) {
+				origin = SectionLayout.INTERRUPT_SECTION_START;
+				lastAddress = SectionLayout.INTERRUPT_SECTION_END;
+			}else {
+				long orgSectionAddress = NumericLiteralParser.parse(section.getLocation());
+				if(instructionEncoder.isValidAddress(orgSectionAddress)) {
+					origin = (int) orgSectionAddress;
+				}else {
+					//The section is still encoded from 0 to find the errors of its instructions, the linker leaves it out
+					diagnostics.error(section.getFile(),DiagnosticCode.INVALID_ORG_LOCATION,sectionName,section.getLine(),0,"The org section location "+section.getLocation()+" is invalid");
+					origin = 0;
+				}
+				lastAddress = (int) ((1L<<addressBusLength)-1);
 			}
-		}else if (number.matches("¬([0-1])+")) {
-			 //Binary number
-			number = number.replace("¬","");
-			if(Integer.parseInt(number, 2)<=maximumRepresentableNumber) {
-				return true;
+			encodedSection = new EncodedSection(section.getKind(),getSectionDescription(section),dataBusLength,origin,symbols);
+		}
+		
+		public void encodeStatement(SourceStatement statement) {
+			MemoryImage sectionImage = encodedSection.getImage();
+			if(!sectionFull && sectionImage.getEndAddress()>lastAddress) {
+				//Reported once, the rest of the instructions are not encoded but their labels are kept so they are not reported as missing
+				reportSectionFull(statement);
 			}
-		}else if (number.matches("%([0-9])+")) {
-			//Decimal number
-			number = number.replace("%","");
-			if(Integer.parseInt(number)<=maximumRepresentableNumber) {
-				return true;
+			lastStatement = statement;
+			//We have 2 options, the statement is a CODELABEL or an instruction
+			if (statement.isLabel()) {
+				//Is a label
+				String labelName = statement.getName();
+				if(labelName.isEmpty()) {
+					diagnostics.error(statement.getFile(),DiagnosticCode.INVALID_LABEL_NAME,sectionName,statement.getLine(),statement.getColumn(),"The label name is empty");
+				}else if(labelName.contains("¬") || labelName.contains("$") || labelName.contains("%") || labelName.contains("#")) {
+					//The label is kept, so the instructions that use it don't have another error
+					diagnostics.error(statement.getFile(),DiagnosticCode.INVALID_LABEL_NAME,sectionName,statement.getLine(),statement.getColumn(),"The label name "+labelName+" is invalid, it cannot contain ¬, $ or % characters");
+					encodedSection.addCodeLabel(labelName,statement.getSymbol(),sectionImage.getEndAddress());
+				}else if(statement.isRedeclaration()) {
+					diagnostics.error(statement.getFile(),DiagnosticCode.DUPLICATE_CODE_LABEL,sectionName,statement.getLine(),statement.getColumn(),"The label: "+labelName+" is already defined as a code label");
+				}else {
+					encodedSection.addCodeLabel(labelName,statement.getSymbol(),sectionImage.getEndAddress());
+				}
+			}else {
+				instructionCount++;
+				if(!sectionFull) {
+					instructionEncoder.encodeInstruction(statement,symbols,encodedSection,sectionName,diagnostics);
+				}
 			}
-			
 		}
-		return false;
-	}
-	
-	private int convertParameterNumberValueToDecimal(String number) {
-		if(number.matches("\\$([0-9a-fA-F])+")){
-			//Hex number
-			number = number.replace("$","");
-			return Integer.parseInt(number, 16);
-		}else if (number.matches("¬([0-1])+")) {
-			 //Binary number
-			number = number.replace("¬","");
-			return Integer.parseInt(number, 2);
-		}else if (number.matches("%([0-9])+")) {
-			//Decimal number
-			number = number.replace("%","");
-			return Integer.parseInt(number);
-		}else {
-			return 0;
+		
+		/**
+		 * The purpose of this method is to report the last instruction of the section if it ends after the last address of the section,
+		 * the other instructions are checked when the next statement is encoded, it must be called once all the statements are encoded
+		 */
+		public void finishSection() {
+			if(!sectionFull && lastStatement != null && encodedSection.getImage().getEndAddress()>lastAddress+1L) {
+				reportSectionFull(lastStatement);
+			}
 		}
 		
-	}
-	
-	private String convertNumberToBinaryStringOfDataBusSize(int number) {
-		String numberBinaryString = Integer.toBinaryString(number);
-		while(numberBinaryString.length()<dataBusLength) {
-			numberBinaryString="0"+numberBinaryString;
+		private void reportSectionFull(SourceStatement statement) {
+			sectionFull = true;
+			encodedSection.setTooLarge(true);
+			if(section.getKind() == SectionKind.MAIN) {
+				diagnostics.error(statement.getFile(),DiagnosticCode.SECTION_TOO_LARGE,sectionName,statement.getLine(),0,"The main section occupies more than 255 (0 to 255) memory addresses, you can reduce it by jumping to another memory section outside the main one and continuing the execution from that point");
+			}else if(section.getKind() == SectionKind.INTERRUPT) {
+				diagnostics.error(statement.getFile(),DiagnosticCode.SECTION_TOO_LARGE,sectionName,statement.getLine(),0,"The interrupt vector section occupies more than 768 (256 - 1023) memory addresses, you can reduce it by jumping to another memory section outside the main one and continuing the execution from that point");
+			}else {
+				diagnostics.error(statement.getFile(),DiagnosticCode.SECTION_OUTSIDE_MEMORY,sectionName,statement.getLine(),0,"The org section goes outside of memory");
+			}
+		}
+		
+		public boolean hasErrors() {
+			return diagnostics.getErrorCount() != errorsBefore;
 		}
-		return numberBinaryString;
 	}
 	
-	private String[] convertNumberToTwoBinaryStringOfDataBusSize(int number) {
-		String numberBinaryString = Integer.toBinaryString(number);
-		//11010101 01010111
-		String lowPart = reverseString(numberBinaryString.substring(0,dataBusLength));//Low part
-		String highPart = reverseString(numberBinaryString.substring(dataBusLength,numberBinaryString.length()));//High part
-		while(highPart.length()<dataBusLength) {
-			highPart="0"+highPart;
+	/**
+	 * Encodes the statements while the parser reads them, it only keeps in the sections the statements that the linker and the
+	 * metrics read again: the code labels and the instructions whose parameter is a name
+	 */
+	private class StreamingSectionEncoder implements StatementHandler {
+		private SymbolTable symbols;
+		private DiagnosticCollector diagnostics;
+		//By identity, the sections of the program are told apart by the object and not by their content
+		private IdentityHashMap<SourceSection, SectionEncoder> sectionEncoders = new IdentityHashMap<SourceSection, SectionEncoder>();
+		//The parser reads the sections one after the other, so the statements are always of the last section started
+		private SectionEncoder lastSectionEncoder;
+		private SectionEncodingEvent lastSectionEvent;
+		
+		public StreamingSectionEncoder(SymbolTable symbols, DiagnosticCollector diagnostics) {
+			this.symbols = symbols;
+			this.diagnostics = diagnostics;
+		}
+		
+		@Override
+		public void sectionStarted(SourceSection section) {
+			commitLastSectionEvent();
+			lastSectionEvent = new SectionEncodingEvent();
+			lastSectionEvent.begin();
+			lastSectionEncoder = new SectionEncoder(section,symbols,diagnostics);
+			sectionEncoders.put(section,lastSectionEncoder);
+		}
+		
+		@Override
+		public boolean statementParsed(SourceSection section, SourceStatement statement) {
+			lastSectionEncoder.encodeStatement(statement);
+			if(statement.isLabel()) {
+				return true;
+			}
+			//The instructions with a constant are only needed again to count the substitutions
+			int symbol = statement.getSymbol();
+			return symbol != SymbolTable.NOT_FOUND && (metricsRegistry != null || !symbols.isConstant(symbol));
+		}
+		
+		/**
+		 * @return the encoded sections in the order of getSourceSections, the sections that were not declared are encoded empty
+		 */
+		public ArrayList<EncodedSection> getEncodedSections(SourceProgram program) {
+			commitLastSectionEvent();
+			ArrayList<EncodedSection> encodedSections = new ArrayList<EncodedSection>();
+			for(SourceSection sourceSection:getSourceSections(program)) {
+				SectionEncoder sectionEncoder = sectionEncoders.get(sourceSection);
+				encodedSections.add(sectionEncoder != null ? sectionEncoder.encodedSection : encodeSection(sourceSection,symbols,diagnostics));
+			}
+			return encodedSections;
+		}
+		
+		private void commitLastSectionEvent() {
+			if(lastSectionEncoder != null) {
+				lastSectionEncoder.finishSection();
+				commitSectionEvent(lastSectionEvent,lastSectionEncoder.section,lastSectionEncoder.encodedSection,lastSectionEncoder.instructionCount,false);
+				lastSectionEncoder = null;
+			}
 		}
-		return new String[] {lowPart,highPart};//Little endian
 	}
 	
-	private String reverseString(String string) {
-		StringBuilder stringBuilder = new StringBuilder();
-		stringBuilder.append(string);
-		return stringBuilder.reverse().toString();
+	/**
+	 * Encodes one section in the fork join pool, its diagnostics are kept to be added in the order of the sections
+	 */
+	private class SectionEncodingTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private SourceSection section;
+		private SymbolTable symbols;
+		private EncodedSection encodedSection;
+		private DiagnosticCollector diagnostics;
+		
+		public SectionEncodingTask(SourceSection section, SymbolTable symbols, DiagnosticCollector diagnostics) {
+			this.section = section;
+			this.symbols = symbols;
+			this.diagnostics = diagnostics;
+		}
+		
+		@Override
+		protected void compute() {
+			encodedSection = encodeSection(section,symbols,diagnostics);
+		}
 	}
 }
@@ -0,0 +1,106 @@
+package edu.millocorona.LAPILU.CrossAssembler.batch;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import edu.millocorona.LAPILU.CrossAssembler.LAPILUCrossAssembler;
+import edu.millocorona.LAPILU.CrossAssembler.cache.BuildCache;
+import edu.millocorona.LAPILU.CrossAssembler.diagnostics.DiagnosticCollector;
+import edu.millocorona.LAPILU.CrossAssembler.exceptions.AssemblyException;
+import edu.millocorona.LAPILU.CrossAssembler.memory.MemoryImage;
+import edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats.OutputFileFormat;
+
+/**
+ * Assembles many files in the same JVM with a fork join pool, a failure in one file doesn't stop the others
+ */
+public class BatchAssembler {
+	private LAPILUCrossAssembler assembler;
+	private OutputFileFormat outputFileFormat;
+	private int parallelism;
+	private BuildCache buildCache;
+
+	/**
+	 * @param assembler - the assembler shared by all the files
+	 * @param outputFileFormat - the format of the output files
+	 * @param parallelism - the number of files assembled at the same time
+	 */
+	public BatchAssembler(LAPILUCrossAssembler assembler, OutputFileFormat outputFileFormat, int parallelism) {
+		this.assembler = assembler;
+		this.outputFileFormat = outputFileFormat;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * @param buildCache - the cache of output files, null to assemble every file
+	 */
+	public void setBuildCache(BuildCache buildCache) {
+		this.buildCache = buildCache;
+	}
+
+	/**
+	 * The purpose of this method is to assemble all the files of the batch, the output of each file is written in the output directory with
+	 * the same path that the input file has inside the base directory of the batch
+	 * @param batchInput - the files to assemble
+	 * @param outputDirectory - where the output files are written
+	 * @return the result of every file, in the same order as the input files
+	 */
+	public List<BatchFileResult> assembleAll(BatchInput batchInput, Path outputDirectory) {
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			ArrayList<ForkJoinTask<BatchFileResult>> tasks = new ArrayList<ForkJoinTask<BatchFileResult>>();
+			for(Path inputFile:batchInput.getInputFiles()) {
+				tasks.add(pool.submit(new Callable<BatchFileResult>() {
+					@Override
+					public BatchFileResult call() {
+						return assembleOne(inputFile,getOutputFile(batchInput.getBaseDirectory(),inputFile,outputDirectory));
+					}
+				}));
+			}
+			ArrayList<BatchFileResult> results = new ArrayList<BatchFileResult>();
+			for(ForkJoinTask<BatchFileResult> task:tasks) {
+				results.add(task.join());
+			}
+			return results;
+		}finally {
+			pool.shutdown();
+		}
+	}
+
+	private BatchFileResult assembleOne(Path inputFile, Path outputFile) {
+		long start = System.nanoTime();
+		String errorMessage = null;
+		DiagnosticCollector diagnostics = new DiagnosticCollector(inputFile.toString());
+		try {
+			Files.createDirectories(outputFile.toAbsolutePath().getParent());
+			if(buildCache != null) {
+				buildCache.assembleFile(assembler,inputFile,outputFile.toString(),outputFileFormat,null,diagnostics);
+			}else {
+				MemoryImage memoryImage = assembler.assemble(inputFile,null,diagnostics);
+				LAPILUCrossAssembler.writeOutputFile(outputFile.toString(),outputFileFormat,memoryImage);
+			}
+		}catch(AssemblyException e) {
+			errorMessage = "Assembly error: "+e.toString();
+		}catch(IOException e) {
+			errorMessage = "Input/output error: "+e.toString();
+		}catch(RuntimeException e) {
+			errorMessage = "Internal error: "+e.toString();
+		}
+		return new BatchFileResult(inputFile,errorMessage == null ? outputFile : null,errorMessage,diagnostics,System.nanoTime()-start);
+	}
+
+	private Path getOutputFile(Path baseDirectory, Path inputFile, Path outputDirectory) {
+		Path relativeInputFile = baseDirectory.toAbsolutePath().normalize().relativize(inputFile.toAbsolutePath().normalize());
+		String fileName = relativeInputFile.getFileName().toString();
+		if(fileName.toLowerCase().endsWith(BatchInput.INPUT_FILE_EXTENSION)) {
+			fileName = fileName.substring(0,fileName.length()-BatchInput.INPUT_FILE_EXTENSION.length());
+		}
+		Path relativeOutputFile = relativeInputFile.getParent() == null ? outputDirectory.resolve(fileName) : outputDirectory.resolve(relativeInputFile.getParent()).resolve(fileName);
+		return relativeOutputFile.resolveSibling(fileName+outputFileFormat.getFileExtension());
+	}
+}
@@ -0,0 +1,54 @@
+package edu.millocorona.LAPILU.CrossAssembler.batch;
+
+import java.nio.file.Path;
+
+import edu.millocorona.LAPILU.CrossAssembler.diagnostics.DiagnosticCollector;
+
+public class BatchFileResult {
+	private Path inputFile;
+	private Path outputFile;
+	private String errorMessage;
+	private DiagnosticCollector diagnostics;
+	private long elapsedNanoseconds;
+
+	public BatchFileResult(Path inputFile, Path outputFile, String errorMessage, DiagnosticCollector diagnostics, long elapsedNanoseconds) {
+		this.inputFile = inputFile;
+		this.outputFile = outputFile;
+		this.errorMessage = errorMessage;
+		this.diagnostics = diagnostics;
+		this.elapsedNanoseconds = elapsedNanoseconds;
+	}
+
+	public Path getInputFile() {
+		return inputFile;
+	}
+
+	/**
+	 * @return the file written, null if the assembly failed
+	 */
+	public Path getOutputFile() {
+		return outputFile;
+	}
+
+	/**
+	 * @return the reason of the failure, null if the file was assembled
+	 */
+	public String getErrorMessage() {
+		return errorMessage;
+	}
+
+	/**
+	 * @return the errors and warnings of the program, the file can be assembled and still have warnings
+	 */
+	public DiagnosticCollector getDiagnostics() {
+		return diagnostics;
+	}
+
+	public boolean isSuccessful() {
+		return errorMessage == null;
+	}
+
+	public long getElapsedNanoseconds() {
+		return elapsedNanoseconds;
+	}
+}
@@ -0,0 +1,129 @@
+package edu.millocorona.LAPILU.CrossAssembler.batch;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import edu.millocorona.LAPILU.CrossAssembler.exceptions.AssemblyException;
+
+/**
+ * The files of a batch and the directory from which their output paths are computed
+ */
+public class BatchInput {
+	public static final String INPUT_FILE_EXTENSION = ".lpasm";
+
+	private Path baseDirectory;
+	private List<Path> inputFiles;
+
+	public BatchInput(Path baseDirectory, List<Path> inputFiles) {
+		this.baseDirectory = baseDirectory;
+		this.inputFiles = inputFiles;
+	}
+
+	/**
+	 * @return every .lpasm file inside the directory and its subdirectories
+	 */
+	public static BatchInput fromDirectory(Path directory) throws IOException {
+		ArrayList<Path> inputFiles = new ArrayList<Path>();
+		try(Stream<Path> paths = Files.walk(directory)){
+			Iterator<Path> iterator = paths.iterator();
+			while(iterator.hasNext()) {
+				Path path = iterator.next();
+				if(Files.isRegularFile(path) && path.getFileName().toString().toLowerCase().endsWith(INPUT_FILE_EXTENSION)) {
+					inputFiles.add(path);
+				}
+			}
+		}
+		Collections.sort(inputFiles);
+		return new BatchInput(directory,inputFiles);
+	}
+
+	/**
+	 * @param glob - a glob pattern like src/**&#47;*.lpasm, the directories before the first wildcard are the base directory
+	 * @return every file that matches the pattern
+	 */
+	public static BatchInput fromGlob(String glob) throws IOException {
+		String normalizedGlob = glob.replace('\\','/');
+		Path baseDirectory = Paths.get("");
+		String[] parts = normalizedGlob.split("/");
+		int firstPatternPart = 0;
+		while(firstPatternPart < parts.length-1 && !containsWildcard(parts[firstPatternPart])) {
+			baseDirectory = baseDirectory.resolve(parts[firstPatternPart].isEmpty() ? "/" : parts[firstPatternPart]);
+			firstPatternPart++;
+		}
+		StringBuilder pattern = new StringBuilder();
+		for(int i = firstPatternPart;i<parts.length;i++) {
+			if(pattern.length() > 0) {
+				pattern.append('/');
+			}
+			pattern.append(parts[i]);
+		}
+		PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:"+pattern);
+		//In a glob **/ needs at least one directory, but src/**/*.lpasm must also give the files directly inside src
+		String patternWithoutLeadingDirectories = pattern.toString();
+		while(patternWithoutLeadingDirectories.startsWith("**/")) {
+			patternWithoutLeadingDirectories = patternWithoutLeadingDirectories.substring(3);
+		}
+		PathMatcher baseDirectoryMatcher = patternWithoutLeadingDirectories.equals(pattern.toString()) ? null : FileSystems.getDefault().getPathMatcher("glob:"+patternWithoutLeadingDirectories);
+		Path walkDirectory = baseDirectory.toString().isEmpty() ? Paths.get(".") : baseDirectory;
+		ArrayList<Path> inputFiles = new ArrayList<Path>();
+		if(Files.isDirectory(walkDirectory)) {
+			try(Stream<Path> paths = Files.walk(walkDirectory)){
+				Iterator<Path> iterator = paths.iterator();
+				while(iterator.hasNext()) {
+					Path path = iterator.next();
+					Path relativePath = walkDirectory.relativize(path);
+					if(Files.isRegularFile(path) && (matcher.matches(relativePath) || (baseDirectoryMatcher != null && baseDirectoryMatcher.matches(relativePath)))) {
+						inputFiles.add(path);
+					}
+				}
+			}
+		}
+		Collections.sort(inputFiles);
+		return new BatchInput(walkDirectory,inputFiles);
+	}
+
+	/**
+	 * @param manifest - a text file with the path of one input file per line, relative to the directory of the manifest, the empty lines and
+	 * the lines that start with # are ignored
+	 * @throws AssemblyException if a file is not inside the directory of the manifest, its output file would be outside the output directory
+	 */
+	public static BatchInput fromManifest(Path manifest) throws IOException, AssemblyException {
+		Path baseDirectory = manifest.toAbsolutePath().normalize().getParent();
+		ArrayList<Path> inputFiles = new ArrayList<Path>();
+		int lineNumber = 0;
+		for(String line:Files.readAllLines(manifest,StandardCharsets.UTF_8)) {
+			lineNumber++;
+			line = line.trim();
+			if(!line.isEmpty() && !line.startsWith("#")) {
+				Path inputFile = baseDirectory.resolve(line).normalize();
+				if(!inputFile.startsWith(baseDirectory)) {
+					throw new AssemblyException("The file "+line+" in the line "+lineNumber+" of "+manifest+" is not inside the directory of the manifest");
+				}
+				inputFiles.add(inputFile);
+			}
+		}
+		return new BatchInput(baseDirectory,inputFiles);
+	}
+
+	private static boolean containsWildcard(String globPart) {
+		return globPart.indexOf('*') != -1 || globPart.indexOf('?') != -1 || globPart.indexOf('[') != -1 || globPart.indexOf('{') != -1;
+	}
+
+	public Path getBaseDirectory() {
+		return baseDirectory;
+	}
+
+	public List<Path> getInputFiles() {
+		return inputFiles;
+	}
+}
@@ -0,0 +1,346 @@
+package edu.millocorona.LAPILU.CrossAssembler.benchmark;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.millocorona.LAPILU.CrossAssembler.LAPILUCrossAssembler;
+import edu.millocorona.LAPILU.CrossAssembler.generator.ProgramGenerator;
+import edu.millocorona.LAPILU.CrossAssembler.lexer.Lexer;
+import edu.millocorona.LAPILU.CrossAssembler.lexer.TokenType;
+import edu.millocorona.LAPILU.CrossAssembler.linker.EncodedSection;
+import edu.millocorona.LAPILU.CrossAssembler.memory.MemoryImage;
+import edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats.OutputFileFormat;
+import edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats.OutputFileFormatRegistry;
+import edu.millocorona.LAPILU.CrossAssembler.parser.SourceProgram;
+
+/**
+ * Measures every step of the assembler separately: lexing, parsing, encoding, linking and writing each output format, plus the whole
+ * assembly, for several program sizes and bus configurations. Like JMH, every fork is a new JVM, so the JIT decisions of one fork don't
+ * change the others, and every step is warmed up and then measured in several iterations of a fixed time. The result of a step is the
+ * mean and the standard deviation of the iterations of all the forks, for the time and for the bytes allocated by one execution. The
+ * allocations of all the threads are counted, so the fork join workers of the parallel encode are included.
+ *
+ * Usage: java edu.millocorona.LAPILU.CrossAssembler.benchmark.PipelineBenchmark [-f forks] [-i iterations] [-wt warmup ms]
+ * [-it iteration ms] [-o results file]
+ */
+public class PipelineBenchmark {
+	//Number of instructions of the programs
+	private static final int[] PROGRAM_SIZES = {1000,10000,100000};
+	//Pairs of data bus length and address bus length
+	private static final int[][] BUS_CONFIGURATIONS = {{8,16},{8,20},{16,24}};
+	//The forks write one line with this prefix for every iteration measured, the other lines are ignored
+	private static final String ITERATION_PREFIX = "iteration ";
+
+	private int forks = 2;
+	private int iterations = 5;
+	private long warmupMilliseconds = 1000;
+	private long iterationMilliseconds = 500;
+	//The results of the steps are written here so the JIT cannot remove them, a volatile write cannot be removed
+	private volatile Object sink;
+	private List<String> results = new ArrayList<String>();
+
+	public static void main(String[] args) throws Exception {
+		PipelineBenchmark benchmark = new PipelineBenchmark();
+		String resultsFileName = null;
+		boolean fork = false;
+		for(int i = 0;i<args.length;i++) {
+			if("-fork".equals(args[i])) {
+				fork = true;
+			}else if(i+1<args.length) {
+				String value = args[++i];
+				switch(args[i-1]) {
+					case "-f":
+						benchmark.forks = Integer.parseInt(value);
+						break;
+					case "-i":
+						benchmark.iterations = Integer.parseInt(value);
+						break;
+					case "-wt":
+						benchmark.warmupMilliseconds = Long.parseLong(value);
+						break;
+					case "-it":
+						benchmark.iterationMilliseconds = Long.parseLong(value);
+						break;
+					case "-o":
+						resultsFileName = value;
+						break;
+					default:
+						throw new IllegalArgumentException("Unknown argument "+args[i-1]);
+				}
+			}
+		}
+		if(fork) {
+			benchmark.runFork(System.out);
+			return;
+		}
+		benchmark.run(System.out);
+		if(resultsFileName != null) {
+			Files.write(Paths.get(resultsFileName),benchmark.results,StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * The purpose of this method is to run all the forks and write the statistics of every step, with all the program sizes and bus configurations
+	 */
+	public void run(PrintStream out) throws Exception {
+		results.add("# LAPILU Cross-assembler pipeline benchmark");
+		results.add("# java "+System.getProperty("java.version")+" ("+System.getProperty("java.vm.name")+"), "+Runtime.getRuntime().availableProcessors()+" processors, "+System.getProperty("os.name")+" "+System.getProperty("os.arch"));
+		results.add("# "+forks+" forks, warmup "+warmupMilliseconds+" ms, "+iterations+" iterations of "+iterationMilliseconds+" ms, the errors are one standard deviation of the iterations");
+		results.add(String.format("%-12s %10s %5s %5s %15s %12s %15s %12s","step","size","dbl","abl","ns/op","error","bytes/op","error"));
+		for(String line:results) {
+			out.println(line);
+		}
+		//The samples of every step in the order they are measured, by step, size and bus configuration
+		LinkedHashMap<String,ArrayList<double[]>> samples = new LinkedHashMap<String,ArrayList<double[]>>();
+		for(int i = 0;i<forks;i++) {
+			out.println("# fork "+(i+1)+" of "+forks);
+			runForkProcess(samples);
+		}
+		for(Map.Entry<String,ArrayList<double[]>> step:samples.entrySet()) {
+			ArrayList<double[]> stepSamples = step.getValue();
+			String result = String.format("%s %15.0f %12.0f %15.0f %12.0f",step.getKey(),mean(stepSamples,0),standardDeviation(stepSamples,0),mean(stepSamples,1),standardDeviation(stepSamples,1));
+			results.add(result);
+			out.println(result);
+		}
+	}
+
+	/**
+	 * Starts a new JVM with the same class path and options, that measures all the steps once, and adds its iterations to the samples
+	 */
+	private void runForkProcess(LinkedHashMap<String,ArrayList<double[]>> samples) throws IOException, InterruptedException {
+		ArrayList<String> command = new ArrayList<String>();
+		command.add(Paths.get(System.getProperty("java.home"),"bin","java").toString());
+		command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(PipelineBenchmark.class.getName());
+		command.add("-fork");
+		command.add("-i");
+		command.add(String.valueOf(iterations));
+		command.add("-wt");
+		command.add(String.valueOf(warmupMilliseconds));
+		command.add("-it");
+		command.add(String.valueOf(iterationMilliseconds));
+		Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+		try(BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(),StandardCharsets.UTF_8))){
+			String line;
+			while((line = reader.readLine()) != null) {
+				if(!line.startsWith(ITERATION_PREFIX)) {
+					continue;
+				}
+				//iteration [step] [size] [dbl] [abl] [ns/op] [bytes/op]
+				String[] fields = line.substring(ITERATION_PREFIX.length()).trim().split("\\s+");
+				String key = String.format("%-12s %10s %5s %5s",fields[0],fields[1],fields[2],fields[3]);
+				ArrayList<double[]> stepSamples = samples.get(key);
+				if(stepSamples == null) {
+					stepSamples = new ArrayList<double[]>();
+					samples.put(key,stepSamples);
+				}
+				stepSamples.add(new double[] {Double.parseDouble(fields[4]),Double.parseDouble(fields[5])});
+			}
+		}
+		if(process.waitFor() != 0) {
+			throw new IOException("The benchmark fork ended with the exit code "+process.exitValue());
+		}
+	}
+
+	/**
+	 * The purpose of this method is to measure all the steps in this JVM, it is executed by every fork
+	 */
+	public void runFork(PrintStream out) throws Exception {
+		for(int[] busConfiguration:BUS_CONFIGURATIONS) {
+			for(int programSize:PROGRAM_SIZES) {
+				String source = buildProgram(programSize,busConfiguration[0],busConfiguration[1]);
+				if(source != null) {
+					runProgram(out,source,programSize,busConfiguration[0],busConfiguration[1]);
+				}
+			}
+		}
+	}
+
+	private void runProgram(PrintStream out, String source, int programSize, int dataBusLength, int addressBusLength) throws Exception {
+		byte[] sourceBytes = source.getBytes(StandardCharsets.UTF_8);
+		LAPILUCrossAssembler assembler = new LAPILUCrossAssembler(dataBusLength,addressBusLength);
+		SourceProgram program = assembler.parse(new ByteArrayInputStream(sourceBytes));
+		ArrayList<EncodedSection> encodedSections = assembler.encode(program);
+		MemoryImage memoryImage = assembler.link(program,encodedSections);
+
+		measure(out,"lex",programSize,dataBusLength,addressBusLength,new Step() {
+			@Override
+			public Object execute() throws Exception {
+				Lexer lexer = new Lexer(new StringReader(source));
+				int tokens = 0;
+				while(lexer.nextToken().getType() != TokenType.END_OF_FILE) {
+					tokens++;
+				}
+				return tokens;
+			}
+		});
+		measure(out,"parse",programSize,dataBusLength,addressBusLength,new Step() {
+			@Override
+			public Object execute() throws Exception {
+				return assembler.parse(new ByteArrayInputStream(sourceBytes));
+			}
+		});
+		measure(out,"encode",programSize,dataBusLength,addressBusLength,new Step() {
+			@Override
+			public Object execute() throws Exception {
+				return assembler.encode(program);
+			}
+		});
+		LAPILUCrossAssembler sequentialAssembler = new LAPILUCrossAssembler(dataBusLength,addressBusLength);
+		sequentialAssembler.setParallelEncoding(false);
+		measure(out,"encode-seq",programSize,dataBusLength,addressBusLength,new Step() {
+			@Override
+			public Object execute() throws Exception {
+				return sequentialAssembler.encode(program);
+			}
+		});
+		measure(out,"link",programSize,dataBusLength,addressBusLength,new Step() {
+			@Override
+			public Object execute() throws Exception {
+				return assembler.link(program,encodedSections);
+			}
+		});
+		for(OutputFileFormat outputFileFormat:OutputFileFormatRegistry.getFormats()) {
+			measure(out,outputFileFormat.getName(),programSize,dataBusLength,addressBusLength,new Step() {
+				@Override
+				public Object execute() throws Exception {
+					DiscardingChannel channel = new DiscardingChannel();
+					outputFileFormat.outputFormatedImage(memoryImage,channel);
+					return channel.bytesWritten;
+				}
+			});
+		}
+		measure(out,"assemble",programSize,dataBusLength,addressBusLength,new Step() {
+			@Override
+			public Object execute() throws Exception {
+				return assembler.assemble(new ByteArrayInputStream(sourceBytes));
+			}
+		});
+	}
+
+	private void measure(PrintStream out, String stepName, int programSize, int dataBusLength, int addressBusLength, Step step) throws Exception {
+		long warmupEnd = System.nanoTime()+warmupMilliseconds*1000000;
+		while(System.nanoTime() < warmupEnd) {
+			sink = step.execute();
+		}
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		for(int i = 0;i<iterations;i++) {
+			long operations = 0;
+			HashMap<Long,Long> allocatedBefore = getAllocatedBytesByThread(threadBean);
+			long start = System.nanoTime();
+			long iterationEnd = start+iterationMilliseconds*1000000;
+			long now;
+			do {
+				sink = step.execute();
+				operations++;
+				now = System.nanoTime();
+			}while(now < iterationEnd);
+			long allocatedBytes = 0;
+			for(Map.Entry<Long,Long> thread:getAllocatedBytesByThread(threadBean).entrySet()) {
+				//A thread started during the iteration allocated everything it has, the ones that ended are not counted
+				Long before = allocatedBefore.get(thread.getKey());
+				allocatedBytes+=thread.getValue()-(before != null ? before : 0);
+			}
+			out.println(ITERATION_PREFIX+stepName+" "+programSize+" "+dataBusLength+" "+addressBusLength+" "+((double) (now-start)/operations)+" "+((double) allocatedBytes/operations));
+		}
+	}
+
+	/**
+	 * @return the bytes allocated since it started by every live thread, by thread id
+	 */
+	private static HashMap<Long,Long> getAllocatedBytesByThread(com.sun.management.ThreadMXBean threadBean) {
+		long[] threadIds = threadBean.getAllThreadIds();
+		long[] allocatedBytes = threadBean.getThreadAllocatedBytes(threadIds);
+		HashMap<Long,Long> allocatedBytesByThread = new HashMap<Long,Long>();
+		for(int i = 0;i<threadIds.length;i++) {
+			if(allocatedBytes[i] >= 0) {
+				allocatedBytesByThread.put(threadIds[i],allocatedBytes[i]);
+			}
+		}
+		return allocatedBytesByThread;
+	}
+
+	private static double mean(ArrayList<double[]> samples, int field) {
+		double sum = 0;
+		for(double[] sample:samples) {
+			sum+=sample[field];
+		}
+		return sum/samples.size();
+	}
+
+	private static double standardDeviation(ArrayList<double[]> samples, int field) {
+		if(samples.size() < 2) {
+			return 0;
+		}
+		double mean = mean(samples,field);
+		double sum = 0;
+		for(double[] sample:samples) {
+			sum+=(sample[field]-mean)*(sample[field]-mean);
+		}
+		return Math.sqrt(sum/(samples.size()-1));
+	}
+
+	/**
+	 * @return a program made by the generator with the number of instructions, most of them in .org sections of 1024 instructions,
+	 * null if it doesn't fit in the address bus
+	 */
+	private static String buildProgram(int programSize, int dataBusLength, int addressBusLength) {
+		ProgramGenerator generator = new ProgramGenerator();
+		generator.setSeed(programSize);
+		generator.setInstructions(programSize);
+		generator.setConstants(32);
+		generator.setOrgSections((programSize+1023)/1024);
+		generator.setDataBusLength(dataBusLength);
+		generator.setAddressBusLength(addressBusLength);
+		try {
+			return generator.generate();
+		} catch(IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static abstract class Step {
+		public abstract Object execute() throws Exception;
+	}
+
+	/**
+	 * Receives the output of the formats without writing it anywhere, so only the formatting is measured
+	 */
+	private static class DiscardingChannel implements WritableByteChannel {
+		private long bytesWritten;
+
+		@Override
+		public int write(ByteBuffer source) throws IOException {
+			int bytes = source.remaining();
+			source.position(source.limit());
+			bytesWritten+=bytes;
+			return bytes;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,272 @@
+package edu.millocorona.LAPILU.CrossAssembler.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+
+import edu.millocorona.LAPILU.CrossAssembler.LAPILUCrossAssembler;
+import edu.millocorona.LAPILU.CrossAssembler.diagnostics.DiagnosticCollector;
+import edu.millocorona.LAPILU.CrossAssembler.encoder.InstructionSet;
+import edu.millocorona.LAPILU.CrossAssembler.exceptions.AssemblyException;
+import edu.millocorona.LAPILU.CrossAssembler.memory.MemoryImage;
+import edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats.OutputFileFormat;
+import edu.millocorona.LAPILU.CrossAssembler.stats.AssemblyStatistics;
+
+/**
+ * A directory with the output files of previous assemblies, every file is named by the SHA-256 of the source code, the bus configuration,
+ * the output format and the versions of the assembler, the opcode table and the format, so when the same program is assembled again the output
+ * file is copied without parsing it.
+ * The files are written to a temporary file and then moved, so many processes can use the same directory at the same time. When the
+ * directory is bigger than its limit the files that were used less recently are deleted.
+ * The key only has the bytes of the input file, so the programs with an .include directive outside of a comment are always assembled and
+ * never stored.
+ */
+public class BuildCache {
+	public static final long DEFAULT_MAXIMUM_BYTES = 256L*1024*1024;
+	//The temporary files older than this were left by a process that stopped while writing
+	private static final long ABANDONED_TEMPORARY_FILE_MILLISECONDS = 60*60*1000;
+	private static final String TEMPORARY_FILE_EXTENSION = ".tmp";
+	private static final int READ_BUFFER_BYTES = 64*1024;
+	private static final byte[] INCLUDE_DIRECTIVE = ".include".getBytes(StandardCharsets.US_ASCII);
+
+	private Path directory;
+	private long maximumBytes;
+	private String assemblerVersion;
+
+	/**
+	 * @param directory - the directory of the cache, it is created if it doesn't exist
+	 * @param maximumBytes - the size that the files of the cache can use
+	 * @param assemblerVersion - the version of the assembler, the files of other versions are never used
+	 */
+	public BuildCache(Path directory, long maximumBytes, String assemblerVersion) throws IOException {
+		this.directory = directory;
+		this.maximumBytes = maximumBytes;
+		this.assemblerVersion = assemblerVersion;
+		Files.createDirectories(directory);
+	}
+
+	/**
+	 * The purpose of this method is to compute the key of the output of a program, the input file is read once in blocks, so a big file is
+	 * never all in memory, and in the same read the .include directives are looked for
+	 * @return the key of the output of the program in hexadecimal, null if the program has an .include directive outside of a comment
+	 */
+	public String computeKey(Path inputFile, int dataBusLength, int addressBusLength, OutputFileFormat outputFileFormat) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			//Every Java platform has SHA-256
+			throw new IllegalStateException(e);
+		}
+		digest.update(("LPCA "+assemblerVersion+"\u0000"+InstructionSet.ENCODING_VERSION+"\u0000"+dataBusLength+"\u0000"+addressBusLength+"\u0000"+outputFileFormat.getName()+"\u0000"+outputFileFormat.getFormatVersion()+"\u0000"+outputFileFormat.getOptions()+"\u0000").getBytes(StandardCharsets.UTF_8));
+		byte[] buffer = new byte[READ_BUFFER_BYTES];
+		//The state of the search is kept between the blocks, the directive or the // can be split by the end of a block
+		boolean insideComment = false;
+		boolean previousWasSlash = false;
+		int matchedDirectiveBytes = 0;
+		try(InputStream input = Files.newInputStream(inputFile)){
+			int read;
+			while((read = input.read(buffer)) != -1) {
+				digest.update(buffer,0,read);
+				for(int i = 0;i<read;i++) {
+					byte b = buffer[i];
+					if(insideComment) {
+						insideComment = b != '\n';
+						continue;
+					}
+					if(b == '/' && previousWasSlash) {
+						insideComment = true;
+						previousWasSlash = false;
+						matchedDirectiveBytes = 0;
+						continue;
+					}
+					previousWasSlash = b == '/';
+					matchedDirectiveBytes = (b|0x20) == INCLUDE_DIRECTIVE[matchedDirectiveBytes] ? matchedDirectiveBytes+1 : ((b|0x20) == INCLUDE_DIRECTIVE[0] ? 1 : 0);
+					if(matchedDirectiveBytes == INCLUDE_DIRECTIVE.length) {
+						return null;
+					}
+				}
+			}
+		}
+		byte[] hash = digest.digest();
+		StringBuilder key = new StringBuilder(hash.length*2);
+		for(byte b:hash) {
+			key.append(Character.forDigit((b>>>4)&0xF,16)).append(Character.forDigit(b&0xF,16));
+		}
+		return key.toString();
+	}
+
+	/**
+	 * The purpose of this method is to write the output file of a program, from the cache if it was assembled before, or assembling it and
+	 * adding the output to the cache
+	 * @param assembler - the assembler used if the output is not in the cache
+	 * @param inputFile - the LAPILU assembly file
+	 * @param outputFileName - the output file, the extension of the format is added if it doesn't have it
+	 * @param outputFileFormat - the format of the output file
+	 * @return true if the output was in the cache
+	 * @throws AssemblyException if the program has errors
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public boolean assembleFile(LAPILUCrossAssembler assembler, Path inputFile, String outputFileName, OutputFileFormat outputFileFormat) throws AssemblyException, IOException {
+		return assembleFile(assembler,inputFile,outputFileName,outputFileFormat,null);
+	}
+	
+	/**
+	 * Same as assembleFile without statistics, but measuring the cache lookup and, when the output is not in the cache, every phase of the assembler
+	 * @param statistics - where the phases are measured, null to not measure them
+	 */
+	public boolean assembleFile(LAPILUCrossAssembler assembler, Path inputFile, String outputFileName, OutputFileFormat outputFileFormat, AssemblyStatistics statistics) throws AssemblyException, IOException {
+		return assembleFile(assembler,inputFile,outputFileName,outputFileFormat,statistics,new DiagnosticCollector(inputFile.toString()));
+	}
+	
+	/**
+	 * Same as assembleFile with statistics, but the errors and warnings of the program are reported to the diagnostics. A file copied
+	 * from the cache has no errors and its warnings are not reported again
+	 * @param diagnostics - where the errors and warnings are reported
+	 */
+	public boolean assembleFile(LAPILUCrossAssembler assembler, Path inputFile, String outputFileName, OutputFileFormat outputFileFormat, AssemblyStatistics statistics, DiagnosticCollector diagnostics) throws AssemblyException, IOException {
+		if(!outputFileName.endsWith(outputFileFormat.getFileExtension())) {
+			outputFileName+=outputFileFormat.getFileExtension();
+		}
+		Path outputFile = directory.getFileSystem().getPath(outputFileName).toAbsolutePath();
+		if(!Files.isDirectory(outputFile.getParent())) {
+			throw new AssemblyException("The directory: "+outputFile.getParent()+" does not exist");
+		}
+		if(statistics != null) {
+			statistics.startPhase("cache");
+		}
+		//A file changed while it is hashed or assembled would be stored with the key of other source code, then it is not stored
+		FileTime lastModifiedTime = Files.getLastModifiedTime(inputFile);
+		long size = Files.size(inputFile);
+		String key = computeKey(inputFile,assembler.getDataBusLength(),assembler.getAddressBusLength(),outputFileFormat);
+		boolean cacheable = key != null;
+		Path entry = null;
+		boolean hit = false;
+		if(cacheable) {
+			entry = directory.resolve(key+outputFileFormat.getFileExtension());
+			hit = copyFromCache(entry,outputFile);
+		}
+		if(statistics != null) {
+			statistics.count("hits",hit ? 1 : 0);
+			statistics.endPhase();
+		}
+		if(hit) {
+			return true;
+		}
+		//The big files are encoded while they are read and the included files are found from the directory of the input file
+		MemoryImage memoryImage = assembler.assemble(inputFile,statistics,diagnostics);
+		if(statistics != null) {
+			statistics.startPhase("output");
+		}
+		LAPILUCrossAssembler.writeOutputFile(outputFileName,outputFileFormat,memoryImage);
+		if(cacheable && lastModifiedTime.equals(Files.getLastModifiedTime(inputFile)) && size == Files.size(inputFile)) {
+			store(entry,outputFile);
+		}
+		if(statistics != null) {
+			statistics.count("outputBytes",Files.size(outputFile));
+			statistics.endPhase();
+		}
+		return false;
+	}
+
+	private boolean copyFromCache(Path entry, Path outputFile) throws IOException {
+		try {
+			//The files are copied and not linked, the assembler writes the output files in place and that would change the cache
+			Files.copy(entry,outputFile,StandardCopyOption.REPLACE_EXISTING);
+		} catch(NoSuchFileException e) {
+			if(!Files.exists(entry)) {
+				return false;//Not in the cache or deleted by another process
+			}
+			throw e;
+		}
+		try {
+			//The modification time is the last use of the file, it is used to know which files delete first
+			Files.setLastModifiedTime(entry,FileTime.fromMillis(System.currentTimeMillis()));
+		} catch(NoSuchFileException e) {
+			//Another process deleted it after the copy, the output is already written
+		}
+		return true;
+	}
+
+	private void store(Path entry, Path outputFile) throws IOException {
+		Path temporaryFile = Files.createTempFile(directory,entry.getFileName().toString(),TEMPORARY_FILE_EXTENSION);
+		try {
+			Files.copy(outputFile,temporaryFile,StandardCopyOption.REPLACE_EXISTING);
+			//Other processes see the whole file or nothing
+			Files.move(temporaryFile,entry,StandardCopyOption.ATOMIC_MOVE,StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+		evict();
+	}
+
+	/**
+	 * The purpose of this method is to delete the files used less recently until the cache fits in its limit
+	 */
+	public void evict() throws IOException {
+		ArrayList<CacheFile> files = new ArrayList<CacheFile>();
+		long totalBytes = 0;
+		long now = System.currentTimeMillis();
+		try(DirectoryStream<Path> entries = Files.newDirectoryStream(directory)){
+			for(Path file:entries) {
+				try {
+					long lastModified = Files.getLastModifiedTime(file).toMillis();
+					if(file.getFileName().toString().endsWith(TEMPORARY_FILE_EXTENSION)) {
+						if(now-lastModified > ABANDONED_TEMPORARY_FILE_MILLISECONDS) {
+							Files.deleteIfExists(file);
+						}
+					}else if(Files.isRegularFile(file)) {
+						long size = Files.size(file);
+						files.add(new CacheFile(file,lastModified,size));
+						totalBytes+=size;
+					}
+				} catch(NoSuchFileException e) {
+					//Deleted by another process while we were reading the directory
+				}
+			}
+		}
+		if(totalBytes <= maximumBytes) {
+			return;
+		}
+		Collections.sort(files,new Comparator<CacheFile>() {
+			@Override
+			public int compare(CacheFile file1, CacheFile file2) {
+				return Long.compare(file1.lastModified,file2.lastModified);
+			}
+		});
+		for(CacheFile file:files) {
+			if(totalBytes <= maximumBytes) {
+				break;
+			}
+			Files.deleteIfExists(file.path);
+			totalBytes-=file.size;
+		}
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	private static class CacheFile {
+		private Path path;
+		private long lastModified;
+		private long size;
+
+		public CacheFile(Path path, long lastModified, long size) {
+			this.path = path;
+			this.lastModified = lastModified;
+			this.size = size;
+		}
+	}
+}
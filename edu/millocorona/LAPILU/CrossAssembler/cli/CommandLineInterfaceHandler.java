@@ -1,29 +1,106 @@
 package edu.millocorona.LAPILU.CrossAssembler.cli;
 
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 
 import edu.millocorona.LAPILU.CrossAssembler.LAPILUCrossAssembler;
+import edu.millocorona.LAPILU.CrossAssembler.batch.BatchAssembler;
+import edu.millocorona.LAPILU.CrossAssembler.batch.BatchFileResult;
+import edu.millocorona.LAPILU.CrossAssembler.batch.BatchInput;
+import edu.millocorona.LAPILU.CrossAssembler.cache.BuildCache;
+import edu.millocorona.LAPILU.CrossAssembler.diagnostics.DiagnosticCollector;
+import edu.millocorona.LAPILU.CrossAssembler.encoder.SectionEncodingCache;
+import edu.millocorona.LAPILU.CrossAssembler.include.IncludeCache;
 import edu.millocorona.LAPILU.CrossAssembler.exceptions.AssemblyException;
-import edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats.BinOutputFileFormat;
-import edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats.CoeOutputFileFormat;
+import edu.millocorona.LAPILU.CrossAssembler.metrics.MetricsRegistry;
+import edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats.MifDataRadix;
 import edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats.MifOutputFileFormat;
 import edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats.OutputFileFormat;
+import edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats.OutputFileFormatRegistry;
+import edu.millocorona.LAPILU.CrossAssembler.server.AssemblerClient;
+import edu.millocorona.LAPILU.CrossAssembler.server.AssemblerServer;
+import edu.millocorona.LAPILU.CrossAssembler.stats.AssemblyStatistics;
+import edu.millocorona.LAPILU.CrossAssembler.util.Json;
+import edu.millocorona.LAPILU.CrossAssembler.watch.AssemblyWatcher;
 
 
 public class CommandLineInterfaceHandler {
 
 	public static final float LAPILU_CROSS_ASSEMBLER_VERSION = 0.1f;
+	//The only argument without a value
+	private static final String WATCH_ARGUMENT = "--watch";
+	
+	private PrintStream out;
+	private PrintStream err;
+	//The directory used to resolve the relative file names, null to use the directory of the process
+	private Path workingDirectory;
+	//Shared by the commands executed in a server, null in a normal run
+	private SectionEncodingCache sectionEncodingCache;
+	//The files included by all the programs of a batch are read once, a server gives the cache shared by all its commands
+	private IncludeCache includeCache = new IncludeCache();
+	
+	public CommandLineInterfaceHandler() {
+		this(System.out,System.err,null);
+	}
+	
+	/**
+	 * @param out - where the messages of the commands are written
+	 * @param err - where the errors of the commands are written
+	 * @param workingDirectory - the directory used to resolve the relative file names, null to use the directory of the process
+	 */
+	public CommandLineInterfaceHandler(PrintStream out, PrintStream err, Path workingDirectory) {
+		this.out = out;
+		this.err = err;
+		this.workingDirectory = workingDirectory;
+	}
+	
+	/**
+	 * @param sectionEncodingCache - the cache given to the assemblers created by the commands
+	 */
+	public void setSectionEncodingCache(SectionEncodingCache sectionEncodingCache) {
+		this.sectionEncodingCache = sectionEncodingCache;
+	}
+	
+	/**
+	 * @param includeCache - the cache of included files given to the assemblers created by the commands
+	 */
+	public void setIncludeCache(IncludeCache includeCache) {
+		this.includeCache = includeCache;
+	}
 	
 	public static void main(String[] args) {
-		new CommandLineInterfaceHandler().interpretCommandLineArguments(args);
+		//A watch runs in this JVM, it would keep a thread of the server busy until the server stops
+		if(args.length>0 && ("assemble".equals(args[0]) || "assemble-batch".equals(args[0])) && !Arrays.asList(args).contains(WATCH_ARGUMENT)) {
+			//If a server is running the command is executed there, it is much faster than starting the assembler in this JVM
+			try {
+				int exitCode = new AssemblerClient(AssemblerServer.getDefaultSocketPath()).forward(args,Paths.get(""),System.out,System.err);
+				if(exitCode != AssemblerClient.SERVER_NOT_RUNNING) {
+					System.exit(exitCode);
+				}
+			} catch (IOException e) {
+				System.err.println("Internal error: the connection with the assembler server was lost, "+e.toString());
+				System.exit(1);
+			}
+		}
+		System.exit(new CommandLineInterfaceHandler().interpretCommandLineArguments(args));
 	}
 	
 	/**
 	 * The purpose of this method is to interpret the CLI arguments and start the execution of the command given by the user
 	 * @param arguments - the arguments specified by the user in the command line
+	 * @return the exit code, 0 if the command was successful
 	 */
-	public void interpretCommandLineArguments(String [] arguments) {
+	public int interpretCommandLineArguments(String [] arguments) {
+		if(arguments.length>0 && "serve".equals(arguments[0])) {
+			return executeServeCommand(arguments);
+		}
 		if(arguments.length>1) {
 			if("help".equals(arguments[0])) {
 				if(arguments.length == 1) {
@@ -31,6 +108,10 @@ public class CommandLineInterfaceHandler {
 				}else {
 					if("assemble".equals(arguments[1])) {
 						showAssembleHelp();
+					}else if("assemble-batch".equals(arguments[1])) {
+						showAssembleBatchHelp();
+					}else if("serve".equals(arguments[1])) {
+						showServeHelp();
 					}else if("help".equals(arguments[1])) {
 						showHelpHelp();
 					}else {
@@ -39,115 +120,564 @@ public class CommandLineInterfaceHandler {
 				}
 			}else if("assemble".equals(arguments[0])) {
 				if(arguments.length>=11) {
-					executeAssembleCommand(arguments);
+					return executeAssembleCommand(arguments);
 				}else {
 					showAssembleUsage();
+					return 1;
 				}
+			}else if("assemble-batch".equals(arguments[0])) {
+				return executeAssembleBatchCommand(arguments);
 			}
 		}else {
 			showUsage();
 		}
+		return 0;
 	}
 	
 	private void showUsage() {
-		System.out.println();
-		System.out.println("Usage:");
-		System.out.println();
-		System.out.println("	LPCA	<command>	[arguments]");
-		System.out.println();
-		System.out.println("For help type:");
-		System.out.println();
-		System.out.println("	LPCA	help");
-		System.out.println();
+		out.println();
+		out.println("Usage:");
+		out.println();
+		out.println("	LPCA	<command>	[arguments]");
+		out.println();
+		out.println("For help type:");
+		out.println();
+		out.println("	LPCA	help");
+		out.println();
 	}
 	
 	private void showHelp() {
-		System.out.println();
-		System.out.println("LAPILU Cross-assembler Version "+LAPILU_CROSS_ASSEMBLER_VERSION);
-		System.out.println();
-		System.out.println("The porpouse of this program is to convert LAPILU Assembly code to LAPILU machine code");
-		System.out.println();
-		System.out.println("Usage:");
-		System.out.println();
-		System.out.println("	LPCA	<command>	[arguments]");
-		System.out.println();
-		System.out.println("The available commands are: ");
-		System.out.println();
-		System.out.println("	assemble	Assembles a source code file.");
-		System.out.println("	help		Displays this help message.");
-		System.out.println();
-		System.out.println("Use \"LPCA help <command>\" for more information about a command.");
-		System.out.println();
+		out.println();
+		out.println("LAPILU Cross-assembler Version "+LAPILU_CROSS_ASSEMBLER_VERSION);
+		out.println();
+		out.println("The porpouse of this program is to convert LAPILU Assembly code to LAPILU machine code");
+		out.println();
+		out.println("Usage:");
+		out.println();
+		out.println("	LPCA	<command>	[arguments]");
+		out.println();
+		out.println("The available commands are: ");
+		out.println();
+		out.println("	assemble	Assembles a source code file.");
+		out.println("	assemble-batch	Assembles many source code files at the same time.");
+		out.println("	serve		Keeps the assembler running to execute the assemble commands faster.");
+		out.println("	help		Displays this help message.");
+		out.println();
+		out.println("Use \"LPCA help <command>\" for more information about a command.");
+		out.println();
 	}
 	
 	private void showAssembleUsage() {
-		System.out.println("Usage:");
-		System.out.println();
-		System.out.println("	LPCA	assemble	[arguments]");
-		System.out.println();
+		out.println("Usage:");
+		out.println();
+		out.println("	LPCA	assemble	[arguments]");
+		out.println();
 	}
 	
 	private void showAssembleHelp() {
-		System.out.println();
-		System.out.println("The porpouse of this command is to convert a file with LAPILU assembly code and convert it to LAPILU machine code");
-		System.out.println();
-		System.out.println("The available arguments are:");
-		System.out.println();
-		System.out.println("	Argument format							Optional?		Description");
-		System.out.println();
-		System.out.println("	-dbl [LAPILU_DATA_BUS_LENGTH]			No				Sets the DATA_BUS_LENGTH that your CPU config is using");
-		System.out.println("	-abl [LAPILU_ADDRESS_BUS_LENGTH]		No				Sets the ADDRESS_BUS_LENGTH that your CPU config is using");
-		System.out.println("	-if	 [INPUT_FILE_NAME].lpasm			No				Sets the input file name");
-		System.out.println("	-of	 [OUTPUT_FILE_NAME]					No				Sets the output file name");
-		System.out.println("	-off [OUTPUT_FORMAT]					No				Sets the output file format, the available formats are:");
-		System.out.println("																bin (.bin) Simple binary file");
-		System.out.println("																coe (.coe) Xilinx COE file");
-		System.out.println("																mif (.mif) Memory initialization file");
-		System.out.println();
-		System.out.println("Example for a LAPILU CPU configured with an 8 bit data bus and a 16 bit address bus: ");
-		System.out.println();
-		System.out.println("LPCA assemble -dbl 8 -abl 16 -if my_assembly_file.lpasm -of my_output -off coe");
-		System.out.println();
+		out.println();
+		out.println("The porpouse of this command is to convert a file with LAPILU assembly code and convert it to LAPILU machine code");
+		out.println();
+		out.println("The available arguments are:");
+		out.println();
+		out.println("	Argument format							Optional?		Description");
+		out.println();
+		out.println("	-dbl [LAPILU_DATA_BUS_LENGTH]			No				Sets the DATA_BUS_LENGTH that your CPU config is using");
+		out.println("	-abl [LAPILU_ADDRESS_BUS_LENGTH]		No				Sets the ADDRESS_BUS_LENGTH that your CPU config is using");
+		out.println("	-if	 [INPUT_FILE_NAME].lpasm			No				Sets the input file name");
+		out.println("	-of	 [OUTPUT_FILE_NAME]					No				Sets the output file name");
+		out.println("	-off [OUTPUT_FORMAT]					No				Sets the output file format, the available formats are:");
+		for(OutputFileFormat outputFileFormat:OutputFileFormatRegistry.getFormats()) {
+			out.println("																"+outputFileFormat.getName()+" ("+outputFileFormat.getFileExtension()+") "+outputFileFormat.getDescription());
+		}
+		out.println("	-mr	 [BIN|HEX|UNS]						Yes				Sets the radix of the words of the mif format, by default BIN");
+		showBuildCacheHelp();
+		showMetricsHelp();
+		showDiagnosticsHelp();
+		out.println("	-stats [text|json]						Yes				Prints the time, the allocated memory and the counts of every phase of the assembly");
+		out.println("	--watch									Yes				Keeps running and assembles the file again every time it is saved, the output file is");
+		out.println("															written only if the machine code changed. It cannot be used with -cd or -stats");
+		out.println("	-wd	 [MILLISECONDS]						Yes				Sets how long the file must stay without changes before it is assembled again in");
+		out.println("															--watch, by default "+AssemblyWatcher.DEFAULT_DEBOUNCE_MILLISECONDS+" ms");
+		out.println();
+		out.println("Example for a LAPILU CPU configured with an 8 bit data bus and a 16 bit address bus: ");
+		out.println();
+		out.println("LPCA assemble -dbl 8 -abl 16 -if my_assembly_file.lpasm -of my_output -off coe");
+		out.println();
+		out.println("The same, but assembling the file every time it is saved: ");
+		out.println();
+		out.println("LPCA assemble -dbl 8 -abl 16 -if my_assembly_file.lpasm -of my_output -off coe --watch");
+		out.println();
+	}
+	
+	private void showAssembleBatchUsage() {
+		out.println("Usage:");
+		out.println();
+		out.println("	LPCA	assemble-batch	[arguments]");
+		out.println();
+	}
+	
+	private void showAssembleBatchHelp() {
+		out.println();
+		out.println("The porpouse of this command is to assemble many files with LAPILU assembly code in the same run, the files are assembled in parallel");
+		out.println("and an error in one file doesn't stop the others. The output files keep the folders of the input files inside the output directory");
+		out.println();
+		out.println("The available arguments are:");
+		out.println();
+		out.println("	Argument format							Optional?		Description");
+		out.println();
+		out.println("	-dbl [LAPILU_DATA_BUS_LENGTH]			No				Sets the DATA_BUS_LENGTH that your CPU config is using");
+		out.println("	-abl [LAPILU_ADDRESS_BUS_LENGTH]		No				Sets the ADDRESS_BUS_LENGTH that your CPU config is using");
+		out.println("	-id	 [INPUT_DIRECTORY]					*				Assembles every .lpasm file inside the directory and its subdirectories");
+		out.println("	-ig	 [INPUT_GLOB]						*				Assembles every file that matches the glob pattern, like \"src/**/*.lpasm\"");
+		out.println("	-im	 [INPUT_MANIFEST]					*				Assembles the files listed in the manifest, one path per line relative to the manifest");
+		out.println("															directory, the files must be inside the directory of the manifest");
+		out.println("	-od	 [OUTPUT_DIRECTORY]					No				Sets the directory of the output files");
+		out.println("	-off [OUTPUT_FORMAT]					No				Sets the output file format, the available formats are:");
+		for(OutputFileFormat outputFileFormat:OutputFileFormatRegistry.getFormats()) {
+			out.println("																"+outputFileFormat.getName()+" ("+outputFileFormat.getFileExtension()+") "+outputFileFormat.getDescription());
+		}
+		out.println("	-mr	 [BIN|HEX|UNS]						Yes				Sets the radix of the words of the mif format, by default BIN");
+		out.println("	-j	 [NUMBER_OF_THREADS]				Yes				Sets how many files are assembled at the same time, by default one per processor");
+		showBuildCacheHelp();
+		showMetricsHelp();
+		showDiagnosticsHelp();
+		out.println();
+		out.println("	* Exactly one of -id, -ig or -im must be given");
+		out.println();
+		out.println("The exit code is 0 if all the files were assembled and 1 if any of them failed");
+		out.println();
+		out.println("Example for a LAPILU CPU configured with an 8 bit data bus and a 16 bit address bus: ");
+		out.println();
+		out.println("LPCA assemble-batch -dbl 8 -abl 16 -id my_programs -od my_outputs -off coe");
+		out.println();
+	}
+	
+	private void showBuildCacheHelp() {
+		out.println("	-cd	 [CACHE_DIRECTORY]					Yes				Keeps the output files in the directory, a file assembled before with the same");
+		out.println("															source code, bus lengths and format is copied from there without assembling it");
+		out.println("	-cs	 [CACHE_SIZE_IN_MB]					Yes				Sets the size limit of the cache directory, by default "+(BuildCache.DEFAULT_MAXIMUM_BYTES/(1024*1024))+" MB");
+	}
+	
+	private void showMetricsHelp() {
+		out.println("	-mf	 [METRICS_FILE]						Yes				Writes the instructions by mnemonic and addressing mode, the words of the sections, the");
+		out.println("															labels used and the words of 0 between sections, as JSON if the file ends with .json");
+		out.println("															or in the Prometheus text format otherwise. Files copied from the cache are not counted");
+	}
+	
+	private void showDiagnosticsHelp() {
+		out.println("	-df	 [text|json]						Yes				Sets how the errors and warnings are written, by default text, one per line as");
+		out.println("															file:line:column: error: message. All the errors of a file are found in one run");
+	}
+	
+	private void showServeHelp() {
+		out.println();
+		out.println("The porpouse of this command is to keep the assembler running and waiting for commands in a Unix domain socket, while it is running");
+		out.println("the assemble and assemble-batch commands are sent to it instead of being executed by a new process, so they finish much faster");
+		out.println();
+		out.println("The available arguments are:");
+		out.println();
+		out.println("	Argument format							Optional?		Description");
+		out.println();
+		out.println("	-socket [SOCKET_FILE]					Yes				Sets the socket file, by default "+AssemblerServer.getDefaultSocketPath());
+		out.println("	-j	 [NUMBER_OF_THREADS]				Yes				Sets how many commands can run at the same time, by default one per processor");
+		out.println();
+		out.println("The commands look for the server in the socket given by the "+AssemblerServer.SOCKET_ENVIRONMENT_VARIABLE+" environment variable, or in the default one");
+		out.println();
+		out.println("Example:");
+		out.println();
+		out.println("LPCA serve -j 4");
+		out.println();
 	}
 	
 	private void showHelpHelp() {
-		System.out.println();
-		System.out.println("You need help for the help? mmm... I dont know what to do, maybe call a Jedi?");
-		System.out.println();
+		out.println();
+		out.println("You need help for the help? mmm... I dont know what to do, maybe call a Jedi?");
+		out.println();
 	}
 	
 	private void showNonExistentCommand(String nonExistentCommand) {
-		System.out.println();
-		System.out.println("The command: "+nonExistentCommand+" does not exist");
-		System.out.println();
+		out.println();
+		out.println("The command: "+nonExistentCommand+" does not exist");
+		out.println();
 	}
 	/**
 	 * The purpouse of this method is to start the Assembly of the specified file 
 	 * @param arguments
+	 * @return the exit code
 	 */
-	private void executeAssembleCommand(String[] arguments) {
+	private int executeAssembleCommand(String[] arguments) {
 		//We need to parse the arguments, we put them in to a hash map, so the order doesn't matter
 		HashMap<String,String> assembleCommandArguments = new HashMap<String,String>();
+		boolean watch = false;
+		for(int i = 1;i<arguments.length;i++) {
+			if(WATCH_ARGUMENT.equals(arguments[i].trim())) {
+				watch = true;
+			}else if(i+1<arguments.length) {
+				assembleCommandArguments.put(arguments[i].trim(),arguments[i+1].trim());
+				i++;
+			}
+		}
+		LAPILUCrossAssembler lapiluCrossAssembler = new LAPILUCrossAssembler(Short.parseShort(assembleCommandArguments.get("-dbl")),Short.parseShort(assembleCommandArguments.get("-abl")),resolveFileName(assembleCommandArguments.get("-if")));
+		lapiluCrossAssembler.setSectionEncodingCache(sectionEncodingCache);
+		lapiluCrossAssembler.setIncludeCache(includeCache);
+		MetricsRegistry metricsRegistry = createMetricsRegistry(assembleCommandArguments);
+		lapiluCrossAssembler.setMetricsRegistry(metricsRegistry);
+		if(watch) {
+			return executeWatch(lapiluCrossAssembler,assembleCommandArguments,metricsRegistry);
+		}
+		//The file is named in the diagnostics as the user wrote it
+		DiagnosticCollector diagnostics = new DiagnosticCollector(assembleCommandArguments.get("-if"));
+		try {
+			OutputFileFormat outputFileFormat = getOutputFileFormat(assembleCommandArguments);
+			checkDiagnosticsFormat(assembleCommandArguments);
+			BuildCache buildCache = createBuildCache(assembleCommandArguments);
+			AssemblyStatistics statistics = createStatistics(assembleCommandArguments,outputFileFormat);
+			if(buildCache != null) {
+				buildCache.assembleFile(lapiluCrossAssembler,Paths.get(resolveFileName(assembleCommandArguments.get("-if"))),resolveFileName(assembleCommandArguments.get("-of")),outputFileFormat,statistics,diagnostics);
+			}else {
+				lapiluCrossAssembler.assembleFile(statistics,diagnostics);
+				lapiluCrossAssembler.outputAssembledFile(resolveFileName(assembleCommandArguments.get("-of")),outputFileFormat,statistics);
+			}
+			writeDiagnostics(assembleCommandArguments,diagnostics);
+			if(statistics != null) {
+				if(assembleCommandArguments.get("-stats").equalsIgnoreCase("json")) {
+					out.println(statistics.toJson());
+				}else {
+					out.print(statistics.toText());
+				}
+			}
+			writeMetrics(assembleCommandArguments,metricsRegistry);
+			return 0;
+		} catch (AssemblyException e) {
+			if(e.getDiagnostics() != null) {
+				writeDiagnostics(assembleCommandArguments,e.getDiagnostics());
+			}else {
+				err.println("Assembly error: "+e.toString());
+			}
+		} catch (IOException e) {
+			err.println("Internal error: ");
+			e.printStackTrace(err);
+		}
+		return 1;
+	}
+	
+	/**
+	 * The purpouse of this method is to assemble the file every time it changes, it only returns if the file cannot be watched
+	 * @return the exit code
+	 */
+	private int executeWatch(LAPILUCrossAssembler lapiluCrossAssembler, HashMap<String,String> assembleCommandArguments, MetricsRegistry metricsRegistry) {
+		OutputFileFormat outputFileFormat;
+		try {
+			outputFileFormat = getOutputFileFormat(assembleCommandArguments);
+			checkDiagnosticsFormat(assembleCommandArguments);
+		} catch (AssemblyException e) {
+			err.println("Assembly error: "+e.toString());
+			return 1;
+		}
+		if(assembleCommandArguments.containsKey("-cd") || assembleCommandArguments.containsKey("-stats")) {
+			err.println("The options -cd and -stats cannot be used with "+WATCH_ARGUMENT);
+			return 1;
+		}
+		String inputFileName = assembleCommandArguments.get("-if");
+		boolean jsonDiagnostics = isJsonDiagnostics(assembleCommandArguments);
+		AssemblyWatcher watcher = new AssemblyWatcher(lapiluCrossAssembler,Paths.get(resolveFileName(inputFileName)),resolveFileName(assembleCommandArguments.get("-of")),outputFileFormat,new AssemblyWatcher.Listener() {
+			@Override
+			public void assembled(DiagnosticCollector diagnostics, boolean outputWritten, long elapsedNanoseconds) {
+				writeDiagnostics(assembleCommandArguments,diagnostics);
+				if(!jsonDiagnostics) {
+					out.println(String.format("%s assembled in %.1f ms, %s",inputFileName,elapsedNanoseconds/1e6,outputWritten ? "output file written" : "the machine code didn't change"));
+				}
+				try {
+					writeMetrics(assembleCommandArguments,metricsRegistry);
+				} catch (IOException e) {
+					err.println("Internal error: the metrics file cannot be written, "+e.toString());
+				}
+			}
+			
+			@Override
+			public void failed(Exception error, long elapsedNanoseconds) {
+				if(error instanceof AssemblyException && ((AssemblyException) error).getDiagnostics() != null) {
+					writeDiagnostics(assembleCommandArguments,((AssemblyException) error).getDiagnostics());
+				}else if(error instanceof AssemblyException) {
+					err.println("Assembly error: "+error.toString());
+				}else {
+					err.println("Input/output error: "+error.toString());
+				}
+			}
+		});
+		if(assembleCommandArguments.containsKey("-wd")) {
+			watcher.setDebounceMilliseconds(Long.parseLong(assembleCommandArguments.get("-wd")));
+		}
+		if(!jsonDiagnostics) {
+			out.println("Watching "+inputFileName+" for changes, press Ctrl+C to stop");
+		}
+		try {
+			watcher.watch();
+		} catch (IOException e) {
+			err.println("Internal error: the input file cannot be watched, "+e.toString());
+			return 1;
+		}
+		return 0;
+	}
+	
+	/**
+	 * The purpouse of this method is to assemble all the files given by -id, -ig or -im and report the result of each one
+	 * @param arguments
+	 * @return 0 if all the files were assembled, 1 otherwise
+	 */
+	private int executeAssembleBatchCommand(String[] arguments) {
+		if(arguments.length%2 == 0) {
+			showAssembleBatchUsage();
+			return 1;
+		}
+		HashMap<String,String> assembleBatchCommandArguments = new HashMap<String,String>();
 		for(int i = 1;i<arguments.length;i+=2) {
-			assembleCommandArguments.put(arguments[i].trim(),arguments[i+1].trim());
+			assembleBatchCommandArguments.put(arguments[i].trim(),arguments[i+1].trim());
+		}
+		int inputArguments = 0;
+		for(String inputArgument:new String[] {"-id","-ig","-im"}) {
+			if(assembleBatchCommandArguments.containsKey(inputArgument)) {
+				inputArguments++;
+			}
 		}
-		LAPILUCrossAssembler lapiluCrossAssembler = new LAPILUCrossAssembler(Short.parseShort(assembleCommandArguments.get("-dbl")),Short.parseShort(assembleCommandArguments.get("-abl")),assembleCommandArguments.get("-if"));
+		if(inputArguments != 1 || !assembleBatchCommandArguments.containsKey("-dbl") || !assembleBatchCommandArguments.containsKey("-abl") || !assembleBatchCommandArguments.containsKey("-od") || !assembleBatchCommandArguments.containsKey("-off")) {
+			showAssembleBatchUsage();
+			return 1;
+		}
+		OutputFileFormat outputFileFormat;
 		try {
-			lapiluCrossAssembler.assembleFile();
-			OutputFileFormat outputFileFormat = null;
-			if("bin".equals(assembleCommandArguments.get("-off"))) {
-				outputFileFormat = new BinOutputFileFormat();
-			}else if("coe".equals(assembleCommandArguments.get("-off"))) {
-				outputFileFormat = new CoeOutputFileFormat();
-			}else if("mif".equals(assembleCommandArguments.get("-off"))) {
-				outputFileFormat = new MifOutputFileFormat();
-			}
-			lapiluCrossAssembler.outputAssembledFile(assembleCommandArguments.get("-of"),outputFileFormat);
+			outputFileFormat = getOutputFileFormat(assembleBatchCommandArguments);
+			checkDiagnosticsFormat(assembleBatchCommandArguments);
 		} catch (AssemblyException e) {
-			System.err.println("Assembly error: "+e.toString());
+			err.println("Assembly error: "+e.toString());
+			return 1;
+		}
+		int parallelism = Runtime.getRuntime().availableProcessors();
+		if(assembleBatchCommandArguments.containsKey("-j")) {
+			parallelism = Integer.parseInt(assembleBatchCommandArguments.get("-j"));
+			if(parallelism < 1) {
+				err.println("The number of threads must be at least 1");
+				return 1;
+			}
+		}
+		BatchInput batchInput;
+		try {
+			if(assembleBatchCommandArguments.containsKey("-id")) {
+				batchInput = BatchInput.fromDirectory(Paths.get(resolveFileName(assembleBatchCommandArguments.get("-id"))));
+			}else if(assembleBatchCommandArguments.containsKey("-ig")) {
+				batchInput = BatchInput.fromGlob(resolveFileName(assembleBatchCommandArguments.get("-ig")));
+			}else {
+				batchInput = BatchInput.fromManifest(Paths.get(resolveFileName(assembleBatchCommandArguments.get("-im"))));
+			}
+		} catch (IOException e) {
+			err.println("Internal error: the input files cannot be read, "+e.toString());
+			return 1;
+		} catch (AssemblyException e) {
+			err.println("Assembly error: "+e.toString());
+			return 1;
+		}
+		LAPILUCrossAssembler lapiluCrossAssembler = new LAPILUCrossAssembler(Short.parseShort(assembleBatchCommandArguments.get("-dbl")),Short.parseShort(assembleBatchCommandArguments.get("-abl")));
+		lapiluCrossAssembler.setSectionEncodingCache(sectionEncodingCache);
+		lapiluCrossAssembler.setIncludeCache(includeCache);
+		MetricsRegistry metricsRegistry = createMetricsRegistry(assembleBatchCommandArguments);
+		lapiluCrossAssembler.setMetricsRegistry(metricsRegistry);
+		BatchAssembler batchAssembler = new BatchAssembler(lapiluCrossAssembler,outputFileFormat,parallelism);
+		try {
+			batchAssembler.setBuildCache(createBuildCache(assembleBatchCommandArguments));
+		} catch (IOException e) {
+			err.println("Internal error: the cache directory cannot be created, "+e.toString());
+			return 1;
+		}
+		Path outputDirectory = Paths.get(resolveFileName(assembleBatchCommandArguments.get("-od")));
+		List<BatchFileResult> results = batchAssembler.assembleAll(batchInput,outputDirectory);
+		boolean jsonDiagnostics = isJsonDiagnostics(assembleBatchCommandArguments);
+		StringBuilder json = new StringBuilder("[");
+		int failedFiles = 0;
+		for(BatchFileResult result:results) {
+			if(!result.isSuccessful()) {
+				failedFiles++;
+			}
+			if(jsonDiagnostics) {
+				if(json.length() > 1) {
+					json.append(',');
+				}
+				json.append("{\"file\":").append(Json.quote(result.getInputFile().toString()));
+				json.append(",\"successful\":").append(result.isSuccessful());
+				json.append(",\"error\":").append(result.isSuccessful() ? "null" : Json.quote(result.getErrorMessage()));
+				json.append(",\"diagnostics\":").append(result.getDiagnostics().toJson()).append('}');
+			}else {
+				if(result.isSuccessful()) {
+					out.println(result.getInputFile()+": OK");
+				}
+				if(result.getDiagnostics().getErrorCount()+result.getDiagnostics().getWarningCount() > 0) {
+					//The diagnostics already have the name of the file in every line
+					err.print(result.getDiagnostics().toText());
+				}else if(!result.isSuccessful()) {
+					err.println(result.getInputFile()+": "+result.getErrorMessage());
+				}
+			}
+		}
+		if(jsonDiagnostics) {
+			out.println(json.append(']'));
+		}else {
+			out.println((results.size()-failedFiles)+" of "+results.size()+" files assembled, "+failedFiles+" failed");
+		}
+		try {
+			writeMetrics(assembleBatchCommandArguments,metricsRegistry);
+		} catch (IOException e) {
+			err.println("Internal error: the metrics file cannot be written, "+e.toString());
+			return 1;
+		}
+		return failedFiles == 0 ? 0 : 1;
+	}
+	
+	/**
+	 * The purpouse of this method is to start the assembler server, it only returns if the server cannot start
+	 * @param arguments
+	 * @return the exit code
+	 */
+	private int executeServeCommand(String[] arguments) {
+		if(arguments.length%2 == 0) {
+			out.println("Usage:");
+			out.println();
+			out.println("	LPCA	serve	[arguments]");
+			out.println();
+			return 1;
+		}
+		HashMap<String,String> serveCommandArguments = new HashMap<String,String>();
+		for(int i = 1;i<arguments.length;i+=2) {
+			serveCommandArguments.put(arguments[i].trim(),arguments[i+1].trim());
+		}
+		Path socketPath = AssemblerServer.getDefaultSocketPath();
+		if(serveCommandArguments.containsKey("-socket")) {
+			socketPath = Paths.get(resolveFileName(serveCommandArguments.get("-socket")));
+		}
+		int threads = Runtime.getRuntime().availableProcessors();
+		if(serveCommandArguments.containsKey("-j")) {
+			threads = Integer.parseInt(serveCommandArguments.get("-j"));
+			if(threads < 1) {
+				err.println("The number of threads must be at least 1");
+				return 1;
+			}
+		}
+		AssemblerServer server = new AssemblerServer(socketPath,threads);
+		out.println("LAPILU Cross-assembler Version "+LAPILU_CROSS_ASSEMBLER_VERSION+" waiting for commands on "+socketPath);
+		try {
+			server.serve();
 		} catch (IOException e) {
-			System.err.println("Internal error: ");
-			e.printStackTrace();
+			err.println("Internal error: the server cannot start, "+e.toString());
+		}
+		return 1;
+	}
+	
+	/**
+	 * @return the format given by -off, with the options of the format
+	 * @throws AssemblyException if the format or its options don't exist
+	 */
+	private OutputFileFormat getOutputFileFormat(HashMap<String,String> commandArguments) throws AssemblyException {
+		OutputFileFormat outputFileFormat = OutputFileFormatRegistry.getFormat(commandArguments.get("-off"));
+		if(outputFileFormat == null) {
+			throw new AssemblyException("The output file format "+commandArguments.get("-off")+" does not exist");
+		}
+		if(commandArguments.containsKey("-mr")) {
+			if(!(outputFileFormat instanceof MifOutputFileFormat)) {
+				throw new AssemblyException("The option -mr can only be used with the mif format");
+			}
+			try {
+				//A new instance, the one of the registry is shared by all the commands
+				outputFileFormat = new MifOutputFileFormat(MifDataRadix.valueOf(commandArguments.get("-mr").toUpperCase()));
+			}catch(IllegalArgumentException e) {
+				throw new AssemblyException("The mif data radix "+commandArguments.get("-mr")+" does not exist, it can be BIN, HEX or UNS");
+			}
+		}
+		return outputFileFormat;
+	}
+	
+	/**
+	 * @throws AssemblyException if the format given by -df doesn't exist
+	 */
+	private void checkDiagnosticsFormat(HashMap<String,String> commandArguments) throws AssemblyException {
+		String diagnosticsFormat = commandArguments.get("-df");
+		if(diagnosticsFormat != null && !diagnosticsFormat.equalsIgnoreCase("text") && !diagnosticsFormat.equalsIgnoreCase("json")) {
+			throw new AssemblyException("The diagnostics format "+diagnosticsFormat+" does not exist, it can be text or json");
+		}
+	}
+	
+	private boolean isJsonDiagnostics(HashMap<String,String> commandArguments) {
+		return "json".equalsIgnoreCase(commandArguments.get("-df"));
+	}
+	
+	/**
+	 * Writes the errors and warnings of the program, as JSON in the standard output if -df is json, or one per line in the error output
+	 * followed by how many there are
+	 */
+	private void writeDiagnostics(HashMap<String,String> commandArguments, DiagnosticCollector diagnostics) {
+		if(isJsonDiagnostics(commandArguments)) {
+			out.println(diagnostics.toJson());
+		}else if(diagnostics.getErrorCount()+diagnostics.getWarningCount() > 0) {
+			err.print(diagnostics.toText());
+			err.println(diagnostics.getErrorCount()+(diagnostics.getErrorCount() == 1 ? " error, " : " errors, ")+diagnostics.getWarningCount()+(diagnostics.getWarningCount() == 1 ? " warning" : " warnings"));
+		}
+	}
+	
+	/**
+	 * @return the registry of the metrics asked by -mf, null if the command doesn't ask for them
+	 */
+	private MetricsRegistry createMetricsRegistry(HashMap<String,String> commandArguments) {
+		return commandArguments.containsKey("-mf") ? new MetricsRegistry() : null;
+	}
+	
+	/**
+	 * Writes the metrics in the file given by -mf, as JSON if its name ends with .json and in the Prometheus text format otherwise
+	 */
+	private void writeMetrics(HashMap<String,String> commandArguments, MetricsRegistry metricsRegistry) throws IOException {
+		if(metricsRegistry == null) {
+			return;
+		}
+		String metricsFileName = resolveFileName(commandArguments.get("-mf"));
+		String metrics = metricsFileName.endsWith(".json") ? metricsRegistry.toJson()+"\n" : metricsRegistry.toPrometheusText();
+		Files.write(Paths.get(metricsFileName),metrics.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * @return the statistics asked by -stats with the configuration of the assembly as attributes, null if the command doesn't ask for them
+	 */
+	private AssemblyStatistics createStatistics(HashMap<String,String> commandArguments, OutputFileFormat outputFileFormat) throws AssemblyException, IOException {
+		if(!commandArguments.containsKey("-stats")) {
+			return null;
+		}
+		String statisticsFormat = commandArguments.get("-stats");
+		if(!statisticsFormat.equalsIgnoreCase("text") && !statisticsFormat.equalsIgnoreCase("json")) {
+			throw new AssemblyException("The statistics format "+statisticsFormat+" does not exist, it can be text or json");
+		}
+		AssemblyStatistics statistics = new AssemblyStatistics();
+		statistics.setAttribute("inputFile",commandArguments.get("-if"));
+		statistics.setAttribute("inputBytes",String.valueOf(Files.size(Paths.get(resolveFileName(commandArguments.get("-if"))))));
+		statistics.setAttribute("dbl",commandArguments.get("-dbl"));
+		statistics.setAttribute("abl",commandArguments.get("-abl"));
+		statistics.setAttribute("format",outputFileFormat.getName());
+		return statistics;
+	}
+	
+	/**
+	 * @return the cache given by -cd and -cs, null if the command doesn't use a cache
+	 */
+	private BuildCache createBuildCache(HashMap<String,String> commandArguments) throws IOException {
+		if(!commandArguments.containsKey("-cd")) {
+			return null;
+		}
+		long maximumBytes = BuildCache.DEFAULT_MAXIMUM_BYTES;
+		if(commandArguments.containsKey("-cs")) {
+			maximumBytes = Long.parseLong(commandArguments.get("-cs"))*1024*1024;
+		}
+		return new BuildCache(Paths.get(resolveFileName(commandArguments.get("-cd"))),maximumBytes,String.valueOf(LAPILU_CROSS_ASSEMBLER_VERSION));
+	}
+	
+	private String resolveFileName(String fileName) {
+		if(workingDirectory == null || Paths.get(fileName).isAbsolute()) {
+			return fileName;
 		}
+		return workingDirectory.resolve(fileName).toString();
 	}
 }
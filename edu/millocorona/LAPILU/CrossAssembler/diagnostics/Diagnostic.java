@@ -0,0 +1,96 @@
+package edu.millocorona.LAPILU.CrossAssembler.diagnostics;
+
+import edu.millocorona.LAPILU.CrossAssembler.util.Json;
+
+/**
+ * An error or a warning found in a program, with the place where it was found. The line and the column start at 1, 0 means that the
+ * problem is not in a single line, like a section that is missing
+ */
+public class Diagnostic {
+	private DiagnosticSeverity severity;
+	private DiagnosticCode code;
+	private String file;
+	private String section;
+	private int line;
+	private int column;
+	private String message;
+
+	/**
+	 * @param file - the name of the source file, null if the program doesn't come from a file
+	 * @param section - how the section is called in the messages, like "main section", null if the problem is outside the sections
+	 */
+	public Diagnostic(DiagnosticSeverity severity, DiagnosticCode code, String file, String section, int line, int column, String message) {
+		this.severity = severity;
+		this.code = code;
+		this.file = file;
+		this.section = section;
+		this.line = line;
+		this.column = column;
+		this.message = message;
+	}
+
+	public DiagnosticSeverity getSeverity() {
+		return severity;
+	}
+
+	public DiagnosticCode getCode() {
+		return code;
+	}
+
+	public String getFile() {
+		return file;
+	}
+
+	public String getSection() {
+		return section;
+	}
+
+	public int getLine() {
+		return line;
+	}
+
+	public int getColumn() {
+		return column;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * @return the diagnostic in the file:line:column: severity: message form of most compilers, so editors can jump to the line
+	 */
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder();
+		if(file != null) {
+			text.append(file).append(':');
+		}
+		if(line > 0) {
+			text.append(line).append(':');
+			if(column > 0) {
+				text.append(column).append(':');
+			}
+		}
+		if(text.length() > 0) {
+			text.append(' ');
+		}
+		text.append(severity.name().toLowerCase()).append(": ").append(message);
+		if(section != null) {
+			text.append(" (").append(section).append(')');
+		}
+		return text.append(" [").append(code.name()).append(']').toString();
+	}
+
+	public String toJson() {
+		StringBuilder json = new StringBuilder();
+		json.append("{\"severity\":").append(Json.quote(severity.name().toLowerCase()));
+		json.append(",\"code\":").append(Json.quote(code.name()));
+		json.append(",\"file\":").append(file == null ? "null" : Json.quote(file));
+		json.append(",\"section\":").append(section == null ? "null" : Json.quote(section));
+		json.append(",\"line\":").append(line);
+		json.append(",\"column\":").append(column);
+		json.append(",\"message\":").append(Json.quote(message));
+		return json.append('}').toString();
+	}
+}
@@ -0,0 +1,35 @@
+package edu.millocorona.LAPILU.CrossAssembler.diagnostics;
+
+/**
+ * What kind of problem a diagnostic reports, the name is the code written in the diagnostics, so a tool can group them without
+ * reading the messages
+ */
+public enum DiagnosticCode {
+	UNEXPECTED_TOKEN,
+	MISSING_SECTION,
+	DUPLICATE_SECTION,
+	MISPLACED_SECTION,
+	UNCLOSED_SECTION,
+	EMPTY_SECTION,
+	INVALID_INCLUDE,
+	MISSING_INCLUDE,
+	CYCLIC_INCLUDE,
+	DUPLICATE_INCLUDE,
+	MISSING_CONSTANT_VALUE,
+	INVALID_CONSTANT_VALUE,
+	DUPLICATE_CONSTANT,
+	INVALID_LABEL_NAME,
+	DUPLICATE_CODE_LABEL,
+	CODE_LABEL_IS_CONSTANT,
+	UNDEFINED_CODE_LABEL,
+	MISSING_ORG_LOCATION,
+	INVALID_ORG_LOCATION,
+	INVALID_MNEMONIC,
+	UNEXPECTED_PARAMETER,
+	UNSUPPORTED_ADDRESSING_MODE,
+	NUMBER_TOO_LARGE,
+	INVALID_PARAMETER,
+	SECTION_TOO_LARGE,
+	SECTION_OUTSIDE_MEMORY,
+	SECTION_OVERLAP
+}
@@ -0,0 +1,177 @@
+package edu.millocorona.LAPILU.CrossAssembler.diagnostics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+import edu.millocorona.LAPILU.CrossAssembler.util.Json;
+
+/**
+ * Keeps the errors and warnings found while a program is assembled, the assembler reports a problem here and continues with the next
+ * line, so all the problems of a program are found in a single assembly. After the maximum number of diagnostics they are only counted,
+ * a generated program with an error in every line doesn't fill the memory with them.
+ * It is used by one thread only, the sections encoded in parallel have their own collectors that are added in the order of the sections.
+ */
+public class DiagnosticCollector {
+	public static final int DEFAULT_MAXIMUM_DIAGNOSTICS = 1000;
+
+	private String file;
+	private int maximumDiagnostics;
+	private ArrayList<Diagnostic> diagnostics = new ArrayList<Diagnostic>();
+	private int errorCount;
+	private int warningCount;
+
+	/**
+	 * @param file - the name of the source file written in the diagnostics, null if the program doesn't come from a file
+	 */
+	public DiagnosticCollector(String file) {
+		this(file,DEFAULT_MAXIMUM_DIAGNOSTICS);
+	}
+
+	/**
+	 * @param maximumDiagnostics - the number of diagnostics kept, the ones after it are only counted
+	 */
+	public DiagnosticCollector(String file, int maximumDiagnostics) {
+		this.file = file;
+		this.maximumDiagnostics = maximumDiagnostics;
+	}
+
+	public String getFile() {
+		return file;
+	}
+
+	/**
+	 * The purpose of this method is to report a problem that doesn't let the program be assembled
+	 * @param code - the kind of problem
+	 * @param section - how the section is called in the messages, null if the problem is outside the sections
+	 * @param line - the line of the problem, 0 if it is not in a single line
+	 * @param column - the column of the problem, 0 if it is not known
+	 * @param message - the description of the problem
+	 */
+	public void error(DiagnosticCode code, String section, int line, int column, String message) {
+		error(null,code,section,line,column,message);
+	}
+
+	/**
+	 * Same as error, but the program can still be assembled
+	 */
+	public void warning(DiagnosticCode code, String section, int line, int column, String message) {
+		warning(null,code,section,line,column,message);
+	}
+
+	/**
+	 * Same as error, for a problem in a file included by the program
+	 * @param file - the name of the included file, null if the problem is in the file of the collector
+	 */
+	public void error(String file, DiagnosticCode code, String section, int line, int column, String message) {
+		errorCount++;
+		add(new Diagnostic(DiagnosticSeverity.ERROR,code,file != null ? file : this.file,section,line,column,message));
+	}
+
+	/**
+	 * Same as warning, for a problem in a file included by the program
+	 * @param file - the name of the included file, null if the problem is in the file of the collector
+	 */
+	public void warning(String file, DiagnosticCode code, String section, int line, int column, String message) {
+		warningCount++;
+		add(new Diagnostic(DiagnosticSeverity.WARNING,code,file != null ? file : this.file,section,line,column,message));
+	}
+
+	private void add(Diagnostic diagnostic) {
+		if(diagnostics.size() < maximumDiagnostics) {
+			diagnostics.add(diagnostic);
+		}
+	}
+
+	/**
+	 * The purpose of this method is to add the diagnostics of another collector after the ones of this collector
+	 */
+	public void addAll(DiagnosticCollector other) {
+		errorCount+=other.errorCount;
+		warningCount+=other.warningCount;
+		for(Diagnostic diagnostic:other.diagnostics) {
+			add(diagnostic);
+		}
+	}
+
+	public boolean hasErrors() {
+		return errorCount > 0;
+	}
+
+	public int getErrorCount() {
+		return errorCount;
+	}
+
+	public int getWarningCount() {
+		return warningCount;
+	}
+
+	/**
+	 * @return the diagnostics kept, sorted by file, line and column, the ones that are not in a single line go at the end
+	 */
+	public List<Diagnostic> getDiagnostics() {
+		sortByLine();
+		return Collections.unmodifiableList(diagnostics);
+	}
+
+	/**
+	 * Every phase finds its errors from the first line to the last, so they are sorted when they are read. The file of the collector goes
+	 * first and the included files in the order of their first diagnostic. The sort is stable, the diagnostics of the same line and column
+	 * stay in the order of the phases
+	 */
+	private void sortByLine() {
+		HashMap<String,Integer> fileOrder = new HashMap<String,Integer>();
+		fileOrder.put(file,0);
+		for(Diagnostic diagnostic:diagnostics) {
+			fileOrder.putIfAbsent(diagnostic.getFile(),fileOrder.size());
+		}
+		Collections.sort(diagnostics,new Comparator<Diagnostic>() {
+			@Override
+			public int compare(Diagnostic diagnostic1, Diagnostic diagnostic2) {
+				//The diagnostics without a line go at the end
+				int order = Boolean.compare(diagnostic1.getLine() == 0,diagnostic2.getLine() == 0);
+				if(order == 0) {
+					order = Integer.compare(fileOrder.get(diagnostic1.getFile()),fileOrder.get(diagnostic2.getFile()));
+				}
+				if(order == 0) {
+					order = Integer.compare(diagnostic1.getLine(),diagnostic2.getLine());
+				}
+				//In a line they go by column, a file read line by line is encoded before the end of the line is parsed
+				return order != 0 ? order : Integer.compare(diagnostic1.getColumn(),diagnostic2.getColumn());
+			}
+		});
+	}
+
+	/**
+	 * @return one diagnostic per line, and how many were not kept if the maximum was reached
+	 */
+	public String toText() {
+		StringBuilder text = new StringBuilder();
+		for(Diagnostic diagnostic:getDiagnostics()) {
+			text.append(diagnostic).append('\n');
+		}
+		int notKept = errorCount+warningCount-diagnostics.size();
+		if(notKept > 0) {
+			text.append("... and ").append(notKept).append(" more not shown\n");
+		}
+		return text.toString();
+	}
+
+	public String toJson() {
+		StringBuilder json = new StringBuilder();
+		json.append("{\"file\":").append(file == null ? "null" : Json.quote(file));
+		json.append(",\"errors\":").append(errorCount);
+		json.append(",\"warnings\":").append(warningCount);
+		json.append(",\"diagnostics\":[");
+		sortByLine();
+		for(int i = 0;i<diagnostics.size();i++) {
+			if(i > 0) {
+				json.append(',');
+			}
+			json.append(diagnostics.get(i).toJson());
+		}
+		return json.append("]}").toString();
+	}
+}
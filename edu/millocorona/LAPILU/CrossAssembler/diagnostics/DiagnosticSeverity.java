@@ -0,0 +1,6 @@
+package edu.millocorona.LAPILU.CrossAssembler.diagnostics;
+
+public enum DiagnosticSeverity {
+	ERROR,		//The program cannot be assembled
+	WARNING		//The program is assembled, but something in it is probably a mistake
+}
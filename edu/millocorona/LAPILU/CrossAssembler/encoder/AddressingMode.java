@@ -0,0 +1,21 @@
+package edu.millocorona.LAPILU.CrossAssembler.encoder;
+
+public enum AddressingMode {
+	DIRECT(2),		//Opcode and the value
+	ZERO_PAGE(2),	//Opcode and an address that fits in the data bus
+	ABSOLUTE(3),	//Opcode and an address in two words, little endian
+	IMPLIED(1);		//Just the opcode
+
+	private int size;
+
+	private AddressingMode(int size) {
+		this.size = size;
+	}
+
+	/**
+	 * @return the number of memory addresses that an instruction with this addressing mode occupies
+	 */
+	public int getSize() {
+		return size;
+	}
+}
@@ -0,0 +1,53 @@
+package edu.millocorona.LAPILU.CrossAssembler.encoder;
+
+public class InstructionDefinition {
+	public static final int NOT_SUPPORTED = -1;
+
+	private String mnemonic;
+	private int[] opcodes;
+	private boolean acceptsCodeLabels;
+	private int index;
+
+	public InstructionDefinition(String mnemonic, int directOpcode, int zeroPageOpcode, int absoluteOpcode, int impliedOpcode, boolean acceptsCodeLabels) {
+		this.mnemonic = mnemonic;
+		this.opcodes = new int[AddressingMode.values().length];
+		this.opcodes[AddressingMode.DIRECT.ordinal()] = directOpcode;
+		this.opcodes[AddressingMode.ZERO_PAGE.ordinal()] = zeroPageOpcode;
+		this.opcodes[AddressingMode.ABSOLUTE.ordinal()] = absoluteOpcode;
+		this.opcodes[AddressingMode.IMPLIED.ordinal()] = impliedOpcode;
+		this.acceptsCodeLabels = acceptsCodeLabels;
+	}
+
+	public String getMnemonic() {
+		return mnemonic;
+	}
+
+	/**
+	 * @return the opcode of the instruction for the addressing mode, or NOT_SUPPORTED
+	 */
+	public int getOpcode(AddressingMode addressingMode) {
+		return opcodes[addressingMode.ordinal()];
+	}
+
+	public boolean supports(AddressingMode addressingMode) {
+		return opcodes[addressingMode.ordinal()] != NOT_SUPPORTED;
+	}
+
+	/**
+	 * @return true if the parameter can be a code label, in that case the absolute addressing mode is used
+	 */
+	public boolean acceptsCodeLabels() {
+		return acceptsCodeLabels;
+	}
+
+	/**
+	 * @return the position of the instruction in InstructionSet.getInstructions()
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	void setIndex(int index) {
+		this.index = index;
+	}
+}
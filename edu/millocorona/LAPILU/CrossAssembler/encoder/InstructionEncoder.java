@@ -0,0 +1,111 @@
+package edu.millocorona.LAPILU.CrossAssembler.encoder;
+
+import edu.millocorona.LAPILU.CrossAssembler.diagnostics.DiagnosticCode;
+import edu.millocorona.LAPILU.CrossAssembler.diagnostics.DiagnosticCollector;
+import edu.millocorona.LAPILU.CrossAssembler.linker.EncodedSection;
+import edu.millocorona.LAPILU.CrossAssembler.linker.Fixup;
+import edu.millocorona.LAPILU.CrossAssembler.memory.MemoryImage;
+import edu.millocorona.LAPILU.CrossAssembler.parser.SourceStatement;
+import edu.millocorona.LAPILU.CrossAssembler.symbols.SymbolTable;
+import edu.millocorona.LAPILU.CrossAssembler.util.NumericLiteralParser;
+
+/**
+ * Converts the instructions to machine code using the opcodes of the InstructionSet
+ */
+public class InstructionEncoder {
+	private int dataBusLength;
+	//The limits are computed only once for the bus configuration
+	private long maximumDataBusValue;
+	private long maximumAddressBusValue;
+
+	public InstructionEncoder(int dataBusLength, int addressBusLength) {
+		this.dataBusLength = dataBusLength;
+		this.maximumDataBusValue = (1L<<dataBusLength)-1;
+		this.maximumAddressBusValue = (1L<<addressBusLength)-1;
+	}
+
+	/**
+	 * The purpose of this method is to write the machine code of an instruction at the end of the memory image of its section
+	 * @param statement - the instruction, with its mnemonic, its parameter and the id of the parameter in the symbol table
+	 * @param symbols - the symbol table of the program, with the values of the constant labels
+	 * @param section - the section where the instruction is written, if the parameter is a code label a fixup is added to it
+	 * @param sectionName - how the section is called in the diagnostics
+	 * @param diagnostics - where the error is reported if the instruction or its parameter are invalid
+	 * @return the number of memory addresses written, 0 if the instruction has an error, then nothing is written
+	 */
+	public int encodeInstruction(SourceStatement statement, SymbolTable symbols, EncodedSection section, String sectionName, DiagnosticCollector diagnostics) {
+		String instructionMnemonic = statement.getName();
+		String instructionParameter = statement.getParameter();
+		int parameterSymbol = statement.getSymbol();
+		MemoryImage sectionImage = section.getImage();
+		InstructionDefinition instruction = InstructionSet.getInstruction(instructionMnemonic);
+		if(instruction == null) {
+			return error(diagnostics,DiagnosticCode.INVALID_MNEMONIC,statement,sectionName,"Invalid opcode: "+instructionMnemonic);
+		}
+		if(instruction.supports(AddressingMode.IMPLIED)) {
+			if(instructionParameter.isEmpty()) {
+				sectionImage.append(instruction.getOpcode(AddressingMode.IMPLIED));
+				section.countInstruction(instruction,AddressingMode.IMPLIED);
+				return AddressingMode.IMPLIED.getSize();
+			}else {
+				return error(diagnostics,DiagnosticCode.UNEXPECTED_PARAMETER,statement,sectionName,"The instruction: "+instructionMnemonic+" cannot accept parameters, and the parameter: "+instructionParameter+" was found");
+			}
+		}
+		boolean direct = instructionParameter.startsWith("#");
+		int numberStart = direct ? 1 : 0;
+		long value = NumericLiteralParser.parse(instructionParameter,numberStart);
+		String number = instructionParameter;
+		if(value == NumericLiteralParser.NOT_A_NUMBER && symbols.isConstant(parameterSymbol)) {
+			//The parameter of the instruction is a constant label, we replace it with the value parsed with the .head section
+			value = symbols.getValue(parameterSymbol);
+		}
+		if(direct) {
+			if(!instruction.supports(AddressingMode.DIRECT)) {
+				return error(diagnostics,DiagnosticCode.UNSUPPORTED_ADDRESSING_MODE,statement,sectionName,"The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" indicates a direct adressing mode but this instruction does not support it");
+			}
+			if(NumericLiteralParser.isValue(value) && value <= maximumDataBusValue) {
+				sectionImage.append(instruction.getOpcode(AddressingMode.DIRECT));
+				sectionImage.append((int) value);
+				section.countInstruction(instruction,AddressingMode.DIRECT);
+				return AddressingMode.DIRECT.getSize();
+			}
+		}else if(NumericLiteralParser.isValue(value)) {
+			if(instruction.supports(AddressingMode.ZERO_PAGE) && value <= maximumDataBusValue) {
+				sectionImage.append(instruction.getOpcode(AddressingMode.ZERO_PAGE));
+				sectionImage.append((int) value);
+				section.countInstruction(instruction,AddressingMode.ZERO_PAGE);
+				return AddressingMode.ZERO_PAGE.getSize();
+			}else if(instruction.supports(AddressingMode.ABSOLUTE) && value <= maximumAddressBusValue) {
+				sectionImage.append(instruction.getOpcode(AddressingMode.ABSOLUTE));
+				sectionImage.append((int) value);//Low part, little endian
+				sectionImage.append((int) (value>>>dataBusLength));//High part
+				section.countInstruction(instruction,AddressingMode.ABSOLUTE);
+				return AddressingMode.ABSOLUTE.getSize();
+			}
+		}else if(value == NumericLiteralParser.NOT_A_NUMBER && instruction.acceptsCodeLabels() && !number.isEmpty()) {
+			//Is a code label, we reserve 2 memory addresses for it, as absolute addressing
+			sectionImage.append(instruction.getOpcode(AddressingMode.ABSOLUTE));
+			section.getFixups().add(new Fixup(sectionImage.getEndAddress(),number,parameterSymbol,2,instruction));
+			sectionImage.append(0);
+			sectionImage.append(0);
+			section.countInstruction(instruction,AddressingMode.ABSOLUTE);
+			return AddressingMode.ABSOLUTE.getSize();
+		}
+		if(NumericLiteralParser.isValue(value)) {
+			return error(diagnostics,DiagnosticCode.NUMBER_TOO_LARGE,statement,sectionName,"The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid, the number is too large for the instruction");
+		}
+		return error(diagnostics,DiagnosticCode.INVALID_PARAMETER,statement,sectionName,"The parameter of the instruction: "+instructionMnemonic+" "+instructionParameter+" is invalid, "+NumericLiteralParser.describeError(value));
+	}
+
+	private static int error(DiagnosticCollector diagnostics, DiagnosticCode code, SourceStatement statement, String sectionName, String message) {
+		diagnostics.error(statement.getFile(),code,sectionName,statement.getLine(),statement.getColumn(),message);
+		return 0;
+	}
+
+	/**
+	 * @return true if the number is valid and fits in an address of the memory
+	 */
+	public boolean isValidAddress(long number) {
+		return NumericLiteralParser.isValue(number) && number <= maximumAddressBusValue;
+	}
+}
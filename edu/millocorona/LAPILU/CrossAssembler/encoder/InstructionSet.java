@@ -0,0 +1,96 @@
+package edu.millocorona.LAPILU.CrossAssembler.encoder;
+
+import java.util.HashMap;
+
+/**
+ * The opcodes of the LAPILU instructions for every addressing mode
+ */
+public class InstructionSet {
+
+	//Must be increased every time an opcode of the table changes, the output files kept by the build cache depend on it
+	public static final int ENCODING_VERSION = 2;
+
+	private static final int NO = InstructionDefinition.NOT_SUPPORTED;
+
+	private static final InstructionDefinition[] INSTRUCTIONS = {
+		//							Mnemonic	Direct	Zero page	Absolute	Implied	Code labels
+		new InstructionDefinition("ADC",		1,		2,			3,			NO,		false),
+		new InstructionDefinition("SUB",		4,		5,			6,			NO,		false),
+		//INC has the opcode of ADC direct, as the assembler always encoded it, the opcode must be the one of the decoder of the CPU
+		new InstructionDefinition("INC",		NO,		NO,			NO,			1,		false),
+		new InstructionDefinition("OR",			8,		9,			10,			NO,		false),
+		new InstructionDefinition("AND",		11,		12,			13,			NO,		false),
+		new InstructionDefinition("NOT",		NO,		NO,			NO,			14,		false),
+		new InstructionDefinition("XOR",		15,		16,			17,			NO,		false),
+		new InstructionDefinition("RTCL",		NO,		NO,			NO,			18,		false),
+		new InstructionDefinition("RTCR",		NO,		NO,			NO,			19,		false),
+		new InstructionDefinition("DEC",		NO,		NO,			NO,			20,		false),
+		new InstructionDefinition("CLCF",		NO,		NO,			NO,			21,		false),
+		new InstructionDefinition("CLZF",		NO,		NO,			NO,			22,		false),
+		new InstructionDefinition("CLNF",		NO,		NO,			NO,			23,		false),
+		new InstructionDefinition("CLOF",		NO,		NO,			NO,			24,		false),
+		new InstructionDefinition("CLIDF",		NO,		NO,			NO,			25,		false),
+		new InstructionDefinition("SCF",		NO,		NO,			NO,			26,		false),
+		new InstructionDefinition("SZF",		NO,		NO,			NO,			27,		false),
+		new InstructionDefinition("SNF",		NO,		NO,			NO,			28,		false),
+		new InstructionDefinition("SOF",		NO,		NO,			NO,			29,		false),
+		new InstructionDefinition("SIDF",		NO,		NO,			NO,			30,		false),
+		new InstructionDefinition("LDA",		31,		32,			33,			NO,		false),
+		new InstructionDefinition("LDX",		34,		35,			36,			NO,		false),
+		new InstructionDefinition("LDY",		37,		38,			39,			NO,		false),
+		new InstructionDefinition("STA",		NO,		40,			41,			NO,		false),
+		new InstructionDefinition("STX",		NO,		42,			43,			NO,		false),
+		new InstructionDefinition("STY",		NO,		44,			45,			NO,		false),
+		new InstructionDefinition("TAX",		NO,		NO,			NO,			46,		false),
+		new InstructionDefinition("TAY",		NO,		NO,			NO,			47,		false),
+		new InstructionDefinition("TXA",		NO,		NO,			NO,			48,		false),
+		new InstructionDefinition("TXY",		NO,		NO,			NO,			49,		false),
+		new InstructionDefinition("TYA",		NO,		NO,			NO,			50,		false),
+		new InstructionDefinition("TYX",		NO,		NO,			NO,			51,		false),
+		new InstructionDefinition("PSHA",		NO,		NO,			NO,			52,		false),
+		new InstructionDefinition("PSHS",		NO,		NO,			NO,			53,		false),
+		new InstructionDefinition("PSHX",		NO,		NO,			NO,			54,		false),
+		new InstructionDefinition("PSHY",		NO,		NO,			NO,			55,		false),
+		new InstructionDefinition("POPA",		NO,		NO,			NO,			56,		false),
+		new InstructionDefinition("POPS",		NO,		NO,			NO,			57,		false),
+		new InstructionDefinition("POPX",		NO,		NO,			NO,			58,		false),
+		new InstructionDefinition("POPY",		NO,		NO,			NO,			59,		false),
+		new InstructionDefinition("NOP",		NO,		NO,			NO,			60,		false),
+		new InstructionDefinition("JMP",		NO,		61,			62,			NO,		true),
+		new InstructionDefinition("JSR",		NO,		NO,			63,			NO,		true),
+		new InstructionDefinition("RETS",		NO,		NO,			NO,			64,		false),
+		new InstructionDefinition("BCC",		NO,		65,			66,			NO,		true),
+		new InstructionDefinition("BCS",		NO,		67,			68,			NO,		true),
+		new InstructionDefinition("BZC",		NO,		69,			70,			NO,		true),
+		new InstructionDefinition("BZS",		NO,		71,			72,			NO,		true),
+		new InstructionDefinition("BNC",		NO,		73,			74,			NO,		true),
+		new InstructionDefinition("BNS",		NO,		75,			76,			NO,		true),
+		new InstructionDefinition("BOC",		NO,		77,			78,			NO,		true),
+		new InstructionDefinition("BOS",		NO,		79,			80,			NO,		true),
+		new InstructionDefinition("RETI",		NO,		NO,			NO,			81,		false)
+	};
+
+	private static final HashMap<String,InstructionDefinition> INSTRUCTIONS_BY_MNEMONIC = new HashMap<String,InstructionDefinition>();
+
+	static {
+		for(int i = 0;i<INSTRUCTIONS.length;i++) {
+			INSTRUCTIONS_BY_MNEMONIC.put(INSTRUCTIONS[i].getMnemonic(),INSTRUCTIONS[i]);
+			INSTRUCTIONS[i].setIndex(i);
+		}
+	}
+
+	/**
+	 * @param mnemonic - the mnemonic in upper case
+	 * @return the definition of the instruction or null if the mnemonic doesn't exist
+	 */
+	public static InstructionDefinition getInstruction(String mnemonic) {
+		return INSTRUCTIONS_BY_MNEMONIC.get(mnemonic);
+	}
+
+	/**
+	 * @return all the instructions, the position of every instruction is its index
+	 */
+	public static InstructionDefinition[] getInstructions() {
+		return INSTRUCTIONS.clone();
+	}
+}
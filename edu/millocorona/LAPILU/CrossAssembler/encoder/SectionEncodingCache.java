@@ -0,0 +1,125 @@
+package edu.millocorona.LAPILU.CrossAssembler.encoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.millocorona.LAPILU.CrossAssembler.linker.EncodedSection;
+import edu.millocorona.LAPILU.CrossAssembler.parser.SourceSection;
+import edu.millocorona.LAPILU.CrossAssembler.parser.SourceStatement;
+import edu.millocorona.LAPILU.CrossAssembler.symbols.SymbolTable;
+
+/**
+ * Keeps the encoded sections so a section that didn't change is not encoded again, only linked.
+ * A section is found by a hash of its text, the values of the constant labels that it uses and the bus configuration, the line
+ * numbers are not part of the hash so editing a section doesn't invalidate the sections below it.
+ * The least recently used sections are removed when the cache is full. It can be shared by many threads.
+ */
+public class SectionEncodingCache {
+	public static final int DEFAULT_MAXIMUM_SECTIONS = 4096;
+
+	private Map<String,EncodedSection> sections;
+	private AtomicLong hits = new AtomicLong();
+	private AtomicLong misses = new AtomicLong();
+
+	public SectionEncodingCache() {
+		this(DEFAULT_MAXIMUM_SECTIONS);
+	}
+
+	/**
+	 * @param maximumSections - the number of sections kept
+	 */
+	public SectionEncodingCache(int maximumSections) {
+		this.sections = Collections.synchronizedMap(new LinkedHashMap<String,EncodedSection>(16,0.75f,true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String,EncodedSection> eldest) {
+				return size() > maximumSections;
+			}
+		});
+	}
+
+	/**
+	 * The purpose of this method is to compute the key of a section, two sections with the same key have the same machine code
+	 * @param section - the section of the source code
+	 * @param symbols - the symbol table of the program, only the constant labels used by the section change the key
+	 * @param dataBusLength - the data bus length of the assembler
+	 * @param addressBusLength - the address bus length of the assembler
+	 * @return the SHA-256 of the section in hexadecimal
+	 */
+	public static String computeKey(SourceSection section, SymbolTable symbols, int dataBusLength, int addressBusLength) {
+		StringBuilder text = new StringBuilder();
+		text.append(dataBusLength).append('\u0000').append(addressBusLength).append('\u0000');
+		text.append(section.getKind()).append('\u0000').append(section.getLocation()).append('\n');
+		for(SourceStatement statement:section.getStatements()) {
+			if(statement.isLabel()) {
+				text.append(':').append(statement.getName()).append('\n');
+			}else {
+				String parameter = statement.getParameter();
+				text.append(statement.getName()).append('\u0000').append(parameter);
+				if(statement.getSymbol() != SymbolTable.NOT_FOUND) {
+					//The value of the constant is part of the key, the \u0001 says that the parameter is not a constant
+					text.append('\u0000');
+					if(symbols.isConstant(statement.getSymbol())) {
+						text.append(symbols.getValue(statement.getSymbol()));
+					}else {
+						text.append('\u0001');
+					}
+				}
+				text.append('\n');
+			}
+		}
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.toString().getBytes(StandardCharsets.UTF_8));
+			StringBuilder key = new StringBuilder(hash.length*2);
+			for(byte b:hash) {
+				key.append(Character.forDigit((b>>>4)&0xF,16)).append(Character.forDigit(b&0xF,16));
+			}
+			return key.toString();
+		} catch (NoSuchAlgorithmException e) {
+			//Every Java platform has SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * @return the encoded section or null if it is not in the cache
+	 */
+	public EncodedSection get(String key) {
+		EncodedSection section = sections.get(key);
+		if(section == null) {
+			misses.incrementAndGet();
+		}else {
+			hits.incrementAndGet();
+		}
+		return section;
+	}
+
+	/**
+	 * @param section - the encoded section, it must not be changed after it is added
+	 */
+	public void put(String key, EncodedSection section) {
+		sections.put(key,section);
+	}
+
+	public int size() {
+		return sections.size();
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public void clear() {
+		sections.clear();
+	}
+}
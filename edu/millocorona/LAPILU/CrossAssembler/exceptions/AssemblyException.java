@@ -1,14 +1,34 @@
 package edu.millocorona.LAPILU.CrossAssembler.exceptions;
 
+import edu.millocorona.LAPILU.CrossAssembler.diagnostics.DiagnosticCollector;
+
 public class AssemblyException extends Exception{
 
 	private static final long serialVersionUID = 3296672970417325524L;
 	private String message;
+	private DiagnosticCollector diagnostics;
 	
 	public AssemblyException (String message) {
+		//The message says everything the user needs, so the stack trace is not filled, it would cost more than the assembly of a small file
+		super(message,null,false,false);
 		this.message = message;
 	}
 	
+	/**
+	 * @param diagnostics - all the problems of the program, the message has one per line
+	 */
+	public AssemblyException (DiagnosticCollector diagnostics) {
+		this(diagnostics.toText().trim());
+		this.diagnostics = diagnostics;
+	}
+	
+	/**
+	 * @return the problems of the program, null if the error is not in the program
+	 */
+	public DiagnosticCollector getDiagnostics() {
+		return diagnostics;
+	}
+	
 	@Override
 	public String toString() {
 		return message;
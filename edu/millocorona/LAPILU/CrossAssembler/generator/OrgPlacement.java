@@ -0,0 +1,13 @@
+package edu.millocorona.LAPILU.CrossAssembler.generator;
+
+/**
+ * Where the generated .org sections are put in the memory after the interrupt vector section
+ */
+public enum OrgPlacement {
+	//One after another
+	PACKED,
+	//With the same space between them until the end of the memory
+	SPREAD,
+	//In a random order with random spaces between them
+	RANDOM
+}
@@ -0,0 +1,460 @@
+package edu.millocorona.LAPILU.CrossAssembler.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+
+import edu.millocorona.LAPILU.CrossAssembler.encoder.AddressingMode;
+import edu.millocorona.LAPILU.CrossAssembler.encoder.InstructionDefinition;
+import edu.millocorona.LAPILU.CrossAssembler.encoder.InstructionSet;
+import edu.millocorona.LAPILU.CrossAssembler.linker.SectionLayout;
+
+/**
+ * Writes valid LAPILU assembly programs of any size to test and benchmark the assembler. Everything is chosen with a Random created
+ * from the seed, so the same settings always give the same program.
+ *
+ * Usage: java edu.millocorona.LAPILU.CrossAssembler.generator.ProgramGenerator [-seed n] [-instructions n] [-constants n] [-labels density]
+ * [-forward ratio] [-orgs n] [-placement packed|spread|random] [-dbl n] [-abl n] [-mix LDA=5,ADC=2,...] [-o output file]
+ */
+public class ProgramGenerator {
+	//The main section has 256 addresses and the interrupt vector section 768, an instruction uses 3 addresses at most
+	private static final int MAXIMUM_MAIN_SECTION_INSTRUCTIONS = 80;
+	private static final int MAXIMUM_INTERRUPT_SECTION_INSTRUCTIONS = 250;
+	//Probability of using a constant label instead of a number when there is one with a valid value
+	private static final double CONSTANT_PARAMETER_PROBABILITY = 0.25;
+	//Probability that an instruction that accepts code labels uses one
+	private static final double CODE_LABEL_PARAMETER_PROBABILITY = 0.8;
+	private static final double COMMENT_PROBABILITY = 0.02;
+
+	private long seed = 1;
+	private int dataBusLength = 8;
+	private int addressBusLength = 16;
+	private int constants = 16;
+	private int instructions = 1000;
+	private double labelDensity = 0.05;
+	private double forwardReferenceRatio = 0.5;
+	private int orgSections = 1;
+	private OrgPlacement orgPlacement = OrgPlacement.PACKED;
+	//The weight of every mnemonic, null to use all the instruction set with the same weight
+	private LinkedHashMap<String,Integer> instructionMix;
+
+	private Random random;
+
+	public static void main(String[] args) throws IOException {
+		ProgramGenerator generator = new ProgramGenerator();
+		String outputFileName = null;
+		for(int i = 0;i+1<args.length;i+=2) {
+			String value = args[i+1];
+			switch(args[i]) {
+				case "-seed":
+					generator.setSeed(Long.parseLong(value));
+					break;
+				case "-instructions":
+					generator.setInstructions(Integer.parseInt(value));
+					break;
+				case "-constants":
+					generator.setConstants(Integer.parseInt(value));
+					break;
+				case "-labels":
+					generator.setLabelDensity(Double.parseDouble(value));
+					break;
+				case "-forward":
+					generator.setForwardReferenceRatio(Double.parseDouble(value));
+					break;
+				case "-orgs":
+					generator.setOrgSections(Integer.parseInt(value));
+					break;
+				case "-placement":
+					generator.setOrgPlacement(OrgPlacement.valueOf(value.toUpperCase()));
+					break;
+				case "-dbl":
+					generator.setDataBusLength(Integer.parseInt(value));
+					break;
+				case "-abl":
+					generator.setAddressBusLength(Integer.parseInt(value));
+					break;
+				case "-mix":
+					generator.setInstructionMix(parseInstructionMix(value));
+					break;
+				case "-o":
+					outputFileName = value;
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown argument "+args[i]);
+			}
+		}
+		try {
+			if(outputFileName == null) {
+				System.out.print(generator.generate());
+			}else {
+				//Some settings are only rejected while the program is written, the output file is created only when the whole program is
+				//generated, an empty or partial file would be assembled by the next build
+				Path outputFile = Paths.get(outputFileName).toAbsolutePath();
+				Path temporaryFile = Files.createTempFile(outputFile.getParent(),outputFile.getFileName().toString(),".tmp");
+				try {
+					try(Writer writer = Files.newBufferedWriter(temporaryFile,StandardCharsets.UTF_8)){
+						generator.generate(writer);
+					}
+					Files.move(temporaryFile,outputFile,StandardCopyOption.REPLACE_EXISTING);
+				}finally {
+					Files.deleteIfExists(temporaryFile);
+				}
+			}
+		}catch(IllegalArgumentException e) {
+			System.err.println("The program cannot be generated: "+e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * @param instructionMix - the weights in the format LDA=5,ADC=2,...
+	 */
+	public static LinkedHashMap<String,Integer> parseInstructionMix(String instructionMix) {
+		LinkedHashMap<String,Integer> weights = new LinkedHashMap<String,Integer>();
+		for(String entry:instructionMix.split(",")) {
+			String[] parts = entry.split("=");
+			weights.put(parts[0].trim().toUpperCase(),parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+		}
+		return weights;
+	}
+
+	public String generate() {
+		StringBuilder output = new StringBuilder();
+		try {
+			generate(output);
+		} catch (IOException e) {
+			//A StringBuilder doesn't throw IOException
+			throw new IllegalStateException(e);
+		}
+		return output.toString();
+	}
+
+	/**
+	 * The purpose of this method is to write a program with the settings of the generator
+	 * @param output - where the program is written
+	 * @throws IllegalArgumentException if the settings are invalid or the program doesn't fit in the memory
+	 */
+	public void generate(Appendable output) throws IOException {
+		if(dataBusLength < 1 || addressBusLength < 11 || addressBusLength > 31 || dataBusLength > 31) {
+			throw new IllegalArgumentException("The address bus must have between 11 and 31 bits and the data bus between 1 and 31 bits");
+		}
+		random = new Random(seed);
+		long maximumDataBusValue = (1L<<dataBusLength)-1;
+		long maximumAddressBusValue = (1L<<addressBusLength)-1;
+		InstructionDefinition[] mnemonics = getMnemonics();
+		int[] cumulativeWeights = getCumulativeWeights(mnemonics);
+
+		//The constants, some of them fit in the data bus and the others only in the address bus
+		ArrayList<String> dataConstants = new ArrayList<String>();
+		ArrayList<String> addressConstants = new ArrayList<String>();
+		ArrayList<String> constantLines = new ArrayList<String>();
+		for(int i = 0;i<constants;i++) {
+			String name = "C"+i;
+			long value;
+			if(i%2 == 0 || maximumAddressBusValue <= maximumDataBusValue) {
+				value = nextValue(0,maximumDataBusValue);
+				dataConstants.add(name);
+			}else {
+				value = nextValue(maximumDataBusValue+1,maximumAddressBusValue);
+				addressConstants.add(name);
+			}
+			constantLines.add("\t"+name+" = "+formatNumber(value));
+		}
+
+		//The instructions of each section, main, interrupt vector and then the org sections
+		int[] sectionInstructions = distributeInstructions();
+		ArrayList<GeneratedSection> sections = new ArrayList<GeneratedSection>();
+		ArrayList<Integer> labelPositions = new ArrayList<Integer>();
+		ArrayList<GeneratedLine> labelReferences = new ArrayList<GeneratedLine>();
+		int position = 0;
+		for(int sectionIndex = 0;sectionIndex<sectionInstructions.length;sectionIndex++) {
+			GeneratedSection section = new GeneratedSection();
+			for(int i = 0;i<sectionInstructions[sectionIndex];i++) {
+				//The program always starts with a label so every code label parameter has a label to use
+				if(labelPositions.isEmpty() || random.nextDouble() < labelDensity) {
+					section.lines.add(new GeneratedLine("L"+labelPositions.size()+":",-1));
+					labelPositions.add(position);
+				}
+				if(random.nextDouble() < COMMENT_PROBABILITY) {
+					section.lines.add(new GeneratedLine("\t// generated comment "+position,-1));
+				}
+				InstructionDefinition instruction = mnemonics[pickWeighted(cumulativeWeights)];
+				String mnemonic = instruction.getMnemonic().toLowerCase();
+				if(instruction.supports(AddressingMode.IMPLIED)) {
+					section.lines.add(new GeneratedLine("\t"+mnemonic,-1));
+					section.size+=AddressingMode.IMPLIED.getSize();
+				}else if(instruction.acceptsCodeLabels() && (random.nextDouble() < CODE_LABEL_PARAMETER_PROBABILITY || !instruction.supports(AddressingMode.ZERO_PAGE))) {
+					GeneratedLine line = new GeneratedLine("\t"+mnemonic+" ",position);
+					section.lines.add(line);
+					labelReferences.add(line);
+					section.size+=AddressingMode.ABSOLUTE.getSize();
+				}else {
+					ArrayList<AddressingMode> modes = new ArrayList<AddressingMode>();
+					for(AddressingMode mode:new AddressingMode[] {AddressingMode.DIRECT,AddressingMode.ZERO_PAGE,AddressingMode.ABSOLUTE}) {
+						if(instruction.supports(mode) && (mode != AddressingMode.ABSOLUTE || maximumAddressBusValue > maximumDataBusValue)) {
+							modes.add(mode);
+						}
+					}
+					AddressingMode mode = modes.get(random.nextInt(modes.size()));
+					ArrayList<String> constantPool = mode == AddressingMode.ABSOLUTE ? addressConstants : dataConstants;
+					String parameter;
+					if(!constantPool.isEmpty() && random.nextDouble() < CONSTANT_PARAMETER_PROBABILITY) {
+						parameter = constantPool.get(random.nextInt(constantPool.size()));
+					}else if(mode == AddressingMode.ABSOLUTE) {
+						parameter = formatNumber(nextValue(maximumDataBusValue+1,maximumAddressBusValue));
+					}else {
+						parameter = formatNumber(nextValue(0,maximumDataBusValue));
+					}
+					section.lines.add(new GeneratedLine("\t"+mnemonic+" "+(mode == AddressingMode.DIRECT ? "#" : "")+parameter,-1));
+					section.size+=mode.getSize();
+				}
+				position++;
+			}
+			sections.add(section);
+		}
+
+		//Now that every label is declared we choose the label of every code label parameter, before or after the instruction
+		for(GeneratedLine line:labelReferences) {
+			int labelsBefore = countLabelsBefore(labelPositions,line.position);
+			int label;
+			if((random.nextDouble() < forwardReferenceRatio && labelsBefore < labelPositions.size()) || labelsBefore == 0) {
+				label = labelsBefore+random.nextInt(labelPositions.size()-labelsBefore);
+			}else {
+				label = random.nextInt(labelsBefore);
+			}
+			line.text+="L"+label;
+		}
+
+		placeOrgSections(sections.subList(2,sections.size()));
+
+		output.append("// Generated by the LAPILU program generator, seed ").append(Long.toString(seed)).append('\n');
+		output.append(".head\n");
+		for(String line:constantLines) {
+			output.append(line).append('\n');
+		}
+		output.append(".endhead\n\n.code\n");
+		for(int i = 0;i<sections.size();i++) {
+			GeneratedSection section = sections.get(i);
+			if(i == 0) {
+				output.append(".main\n");
+			}else if(i == 1) {
+				output.append(".interrupt\n");
+			}else {
+				output.append(".org ").append(formatNumber(section.origin)).append('\n');
+			}
+			for(GeneratedLine line:section.lines) {
+				output.append(line.text).append('\n');
+			}
+			output.append(i == 0 ? ".endmain\n" : i == 1 ? ".endinterrupt\n" : ".endorg\n");
+		}
+		output.append(".endcode\n");
+	}
+
+	private InstructionDefinition[] getMnemonics() {
+		if(instructionMix == null) {
+			return InstructionSet.getInstructions();
+		}
+		ArrayList<InstructionDefinition> mnemonics = new ArrayList<InstructionDefinition>();
+		for(String mnemonic:instructionMix.keySet()) {
+			InstructionDefinition instruction = InstructionSet.getInstruction(mnemonic);
+			if(instruction == null) {
+				throw new IllegalArgumentException("The mnemonic "+mnemonic+" does not exist");
+			}
+			mnemonics.add(instruction);
+		}
+		return mnemonics.toArray(new InstructionDefinition[0]);
+	}
+
+	private int[] getCumulativeWeights(InstructionDefinition[] mnemonics) {
+		int[] cumulativeWeights = new int[mnemonics.length];
+		int total = 0;
+		for(int i = 0;i<mnemonics.length;i++) {
+			total+=instructionMix == null ? 1 : instructionMix.get(mnemonics[i].getMnemonic());
+			cumulativeWeights[i] = total;
+		}
+		if(total <= 0) {
+			throw new IllegalArgumentException("The instruction mix must have at least one mnemonic with a weight bigger than 0");
+		}
+		return cumulativeWeights;
+	}
+
+	private int pickWeighted(int[] cumulativeWeights) {
+		int value = random.nextInt(cumulativeWeights[cumulativeWeights.length-1]);
+		int index = Arrays.binarySearch(cumulativeWeights,value+1);
+		if(index < 0) {
+			index = -index-1;
+		}
+		return index;
+	}
+
+	/**
+	 * @return the number of instructions of the main, interrupt vector and org sections, every org section has at least one
+	 */
+	private int[] distributeInstructions() {
+		if(orgSections < 0 || instructions < orgSections) {
+			throw new IllegalArgumentException("Every org section needs at least one instruction");
+		}
+		int[] sectionInstructions = new int[orgSections+2];
+		int share = orgSections == 0 ? instructions : instructions/(orgSections+2);
+		sectionInstructions[0] = Math.min(MAXIMUM_MAIN_SECTION_INSTRUCTIONS,share);
+		sectionInstructions[1] = Math.min(MAXIMUM_INTERRUPT_SECTION_INSTRUCTIONS,orgSections == 0 ? instructions-sectionInstructions[0] : share);
+		int remaining = instructions-sectionInstructions[0]-sectionInstructions[1];
+		if(orgSections == 0) {
+			if(remaining > 0) {
+				throw new IllegalArgumentException("The instructions don't fit in the main and interrupt vector sections, at least one org section is needed");
+			}
+			return sectionInstructions;
+		}
+		for(int i = 0;i<orgSections;i++) {
+			sectionInstructions[i+2] = remaining/orgSections+(i < remaining%orgSections ? 1 : 0);
+		}
+		return sectionInstructions;
+	}
+
+	private void placeOrgSections(List<GeneratedSection> sections) {
+		long firstAddress = SectionLayout.INTERRUPT_SECTION_END+1;
+		long freeAddresses = (1L<<addressBusLength)-firstAddress;
+		for(GeneratedSection section:sections) {
+			freeAddresses-=section.size;
+		}
+		if(freeAddresses < 0) {
+			throw new IllegalArgumentException("The org sections need "+(-freeAddresses)+" addresses more than the ones of a "+addressBusLength+" bit address bus");
+		}
+		ArrayList<GeneratedSection> memoryOrder = new ArrayList<GeneratedSection>(sections);
+		long[] gaps = new long[sections.size()];
+		if(orgPlacement == OrgPlacement.SPREAD && !sections.isEmpty()) {
+			Arrays.fill(gaps,1,gaps.length,freeAddresses/sections.size());
+		}else if(orgPlacement == OrgPlacement.RANDOM) {
+			Collections.shuffle(memoryOrder,random);
+			//The free addresses are cut in random places, the pieces are the spaces before every section
+			long[] cuts = new long[sections.size()];
+			for(int i = 0;i<cuts.length;i++) {
+				cuts[i] = nextValue(0,freeAddresses);
+			}
+			Arrays.sort(cuts);
+			for(int i = 0;i<cuts.length;i++) {
+				gaps[i] = cuts[i]-(i == 0 ? 0 : cuts[i-1]);
+			}
+		}
+		long address = firstAddress;
+		for(int i = 0;i<memoryOrder.size();i++) {
+			address+=gaps[i];
+			memoryOrder.get(i).origin = address;
+			address+=memoryOrder.get(i).size;
+		}
+	}
+
+	private static int countLabelsBefore(ArrayList<Integer> labelPositions, int position) {
+		//A label declared just before the instruction is before it
+		int index = Collections.binarySearch(labelPositions,position+1);
+		if(index < 0) {
+			return -index-1;
+		}
+		while(index > 0 && labelPositions.get(index-1) == position+1) {
+			index--;
+		}
+		return index;
+	}
+
+	private long nextValue(long minimum, long maximum) {
+		return minimum+(long) (random.nextDouble()*(maximum-minimum+1));
+	}
+
+	/**
+	 * @return the number in hexadecimal, binary or decimal, chosen at random
+	 */
+	private String formatNumber(long value) {
+		switch(random.nextInt(3)) {
+			case 0:
+				return "$"+Long.toHexString(value).toUpperCase();
+			case 1:
+				return "¬"+Long.toBinaryString(value);
+			default:
+				return "%"+value;
+		}
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	public void setDataBusLength(int dataBusLength) {
+		this.dataBusLength = dataBusLength;
+	}
+
+	public void setAddressBusLength(int addressBusLength) {
+		this.addressBusLength = addressBusLength;
+	}
+
+	/**
+	 * @param constants - the number of constant labels in the .head section
+	 */
+	public void setConstants(int constants) {
+		this.constants = constants;
+	}
+
+	/**
+	 * @param instructions - the number of instructions of the whole program
+	 */
+	public void setInstructions(int instructions) {
+		this.instructions = instructions;
+	}
+
+	/**
+	 * @param labelDensity - the probability that an instruction has a code label before it, from 0 to 1
+	 */
+	public void setLabelDensity(double labelDensity) {
+		this.labelDensity = labelDensity;
+	}
+
+	/**
+	 * @param forwardReferenceRatio - the part of the code label parameters that use a label declared after the instruction, from 0 to 1
+	 */
+	public void setForwardReferenceRatio(double forwardReferenceRatio) {
+		this.forwardReferenceRatio = forwardReferenceRatio;
+	}
+
+	public void setOrgSections(int orgSections) {
+		this.orgSections = orgSections;
+	}
+
+	public void setOrgPlacement(OrgPlacement orgPlacement) {
+		this.orgPlacement = orgPlacement;
+	}
+
+	/**
+	 * @param instructionMix - the weight of every mnemonic, the mnemonics that are not in the map are not used, null to use all the
+	 * instruction set with the same weight
+	 */
+	public void setInstructionMix(LinkedHashMap<String,Integer> instructionMix) {
+		this.instructionMix = instructionMix;
+	}
+
+	private static class GeneratedSection {
+		private ArrayList<GeneratedLine> lines = new ArrayList<GeneratedLine>();
+		//Number of memory addresses used by the section
+		private long size;
+		private long origin;
+	}
+
+	private static class GeneratedLine {
+		private String text;
+		//The position of the instruction in the program, only used by the code label parameters
+		private int position;
+
+		public GeneratedLine(String text, int position) {
+			this.text = text;
+			this.position = position;
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package edu.millocorona.LAPILU.CrossAssembler.include;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the files given to .include already read by the lexer, so a header included by every program of a batch or of a server is read
+ * once. A file is found by its path, if its modification time and size didn't change it is used without reading it, if they changed it is
+ * read and compared by its SHA-256, a file saved without changes is not read by the lexer again.
+ * The least recently used files are removed when the cache is full. It can be shared by many threads.
+ */
+public class IncludeCache {
+	public static final int DEFAULT_MAXIMUM_FILES = 1024;
+
+	private Map<String,IncludedFile> files;
+	private AtomicLong hits = new AtomicLong();
+	private AtomicLong misses = new AtomicLong();
+
+	public IncludeCache() {
+		this(DEFAULT_MAXIMUM_FILES);
+	}
+
+	/**
+	 * @param maximumFiles - the number of files kept
+	 */
+	public IncludeCache(int maximumFiles) {
+		this.files = Collections.synchronizedMap(new LinkedHashMap<String,IncludedFile>(16,0.75f,true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String,IncludedFile> eldest) {
+				return size() > maximumFiles;
+			}
+		});
+	}
+
+	/**
+	 * The purpose of this method is to give the tokens of an included file, from the cache if the file didn't change
+	 * @param file - the file to include
+	 * @param insideHeadSection - true if the file is included in the .head section, the same file has other tokens in the .code section
+	 * @return the file read by the lexer
+	 * @throws IOException if the file cannot be read
+	 */
+	public IncludedFile get(Path file, boolean insideHeadSection) throws IOException {
+		Path path = file.toAbsolutePath().normalize();
+		String key = (insideHeadSection ? "head\u0000" : "code\u0000")+path;
+		//The attributes are read before the bytes, if the file changes in the middle the next time it is read again
+		BasicFileAttributes attributes = Files.readAttributes(path,BasicFileAttributes.class);
+		IncludedFile cachedFile = files.get(key);
+		if(cachedFile != null && cachedFile.getLastModifiedTime().equals(attributes.lastModifiedTime()) && cachedFile.getSize() == attributes.size()) {
+			hits.incrementAndGet();
+			return cachedFile;
+		}
+		byte[] source = Files.readAllBytes(path);
+		byte[] hash = computeHash(source);
+		IncludedFile includedFile;
+		if(cachedFile != null && Arrays.equals(cachedFile.getHash(),hash)) {
+			hits.incrementAndGet();
+			includedFile = cachedFile.withLastModifiedTime(attributes.lastModifiedTime());
+		}else {
+			misses.incrementAndGet();
+			includedFile = IncludedFile.read(path,attributes.lastModifiedTime(),source,hash,insideHeadSection);
+		}
+		files.put(key,includedFile);
+		return includedFile;
+	}
+
+	private static byte[] computeHash(byte[] source) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(source);
+		} catch (NoSuchAlgorithmException e) {
+			//Every Java platform has SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public int size() {
+		return files.size();
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+}
@@ -0,0 +1,126 @@
+package edu.millocorona.LAPILU.CrossAssembler.include;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.millocorona.LAPILU.CrossAssembler.lexer.Lexer;
+import edu.millocorona.LAPILU.CrossAssembler.lexer.Token;
+import edu.millocorona.LAPILU.CrossAssembler.lexer.TokenSource;
+import edu.millocorona.LAPILU.CrossAssembler.lexer.TokenType;
+import edu.millocorona.LAPILU.CrossAssembler.symbols.SymbolTable;
+
+/**
+ * A file given to an .include directive, already read by the lexer. The tokens don't depend on the program that includes the file, the
+ * names are interned again in the symbol table of every program when the tokens are replayed, so the same file can be used by many
+ * programs at the same time
+ */
+public class IncludedFile {
+	private Path path;
+	private FileTime lastModifiedTime;
+	private long size;
+	private byte[] hash;
+	private List<Token> tokens;
+
+	private IncludedFile(Path path, FileTime lastModifiedTime, long size, byte[] hash, List<Token> tokens) {
+		this.path = path;
+		this.lastModifiedTime = lastModifiedTime;
+		this.size = size;
+		this.hash = hash;
+		this.tokens = tokens;
+	}
+
+	/**
+	 * The purpose of this method is to read all the tokens of a file
+	 * @param source - the bytes of the file, encoded in UTF-8
+	 * @param insideHeadSection - true if the file is included in the .head section
+	 */
+	static IncludedFile read(Path path, FileTime lastModifiedTime, byte[] source, byte[] hash, boolean insideHeadSection) throws IOException {
+		ArrayList<Token> tokens = new ArrayList<Token>();
+		try(Reader reader = new InputStreamReader(new ByteArrayInputStream(source),StandardCharsets.UTF_8)){
+			//The symbols of this table are not used, the ids only tell which tokens are names
+			Lexer lexer = new Lexer(reader,new SymbolTable());
+			lexer.setInsideHeadSection(insideHeadSection);
+			Token token;
+			do {
+				token = lexer.nextToken();
+				tokens.add(token);
+			}while(token.getType() != TokenType.END_OF_FILE);
+		}
+		tokens.trimToSize();
+		return new IncludedFile(path,lastModifiedTime,source.length,hash,tokens);
+	}
+
+	/**
+	 * @return the same file with another modification time, when the file was saved without changes
+	 */
+	IncludedFile withLastModifiedTime(FileTime lastModifiedTime) {
+		return new IncludedFile(path,lastModifiedTime,size,hash,tokens);
+	}
+
+	/**
+	 * The purpose of this method is to give the tokens of the file to the parser of a program
+	 * @param symbols - the symbol table of the program, the names of the file are interned in it
+	 */
+	public TokenSource open(SymbolTable symbols) {
+		return new TokenSource() {
+			private int position;
+
+			@Override
+			public Token nextToken() {
+				Token token = tokens.get(position);
+				if(position < tokens.size()-1) {
+					position++;
+				}
+				if(token.getSymbol() == SymbolTable.NOT_FOUND) {
+					return token;
+				}
+				String text = token.getText();
+				int symbol;
+				if(token.getType() == TokenType.OPERAND) {
+					//The # of a direct parameter is not part of the name
+					symbol = symbols.intern(text,text.charAt(0) == '#' ? 1 : 0);
+					if(text.charAt(0) != '#') {
+						text = symbols.getName(symbol);
+					}
+				}else {
+					symbol = symbols.intern(text);
+					text = symbols.getName(symbol);
+				}
+				return new Token(token.getType(),text,symbol,token.getLine(),token.getColumn());
+			}
+		};
+	}
+
+	/**
+	 * @return the absolute path of the file
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	public FileTime getLastModifiedTime() {
+		return lastModifiedTime;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * @return the SHA-256 of the bytes of the file
+	 */
+	public byte[] getHash() {
+		return hash;
+	}
+
+	public int getTokenCount() {
+		return tokens.size();
+	}
+}
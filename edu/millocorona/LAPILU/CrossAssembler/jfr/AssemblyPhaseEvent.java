@@ -0,0 +1,33 @@
+package edu.millocorona.LAPILU.CrossAssembler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a phase of an assembly: parse, encode or link. The duration of the event is the duration of the phase
+ */
+@Name("edu.millocorona.LAPILU.CrossAssembler.AssemblyPhase")
+@Label("Assembly Phase")
+@Category("LAPILU Cross Assembler")
+@Description("A phase of the assembly of a LAPILU program")
+@StackTrace(false)
+public class AssemblyPhaseEvent extends jdk.jfr.Event {
+
+	@Label("Phase")
+	private String phase;
+
+	@Label("Data Bus Length")
+	private int dataBusLength;
+
+	@Label("Address Bus Length")
+	private int addressBusLength;
+
+	public AssemblyPhaseEvent(String phase, int dataBusLength, int addressBusLength) {
+		this.phase = phase;
+		this.dataBusLength = dataBusLength;
+		this.addressBusLength = addressBusLength;
+	}
+}
@@ -0,0 +1,32 @@
+package edu.millocorona.LAPILU.CrossAssembler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of the writing of an output file
+ */
+@Name("edu.millocorona.LAPILU.CrossAssembler.OutputFile")
+@Label("Output File")
+@Category("LAPILU Cross Assembler")
+@Description("The writing of an assembled program in an output file format")
+@StackTrace(false)
+public class OutputFileEvent extends jdk.jfr.Event {
+
+	@Label("Format")
+	public String format;
+
+	@Label("File")
+	public String file;
+
+	@Label("Words")
+	public int words;
+
+	@Label("Size")
+	@DataAmount
+	public long size;
+}
@@ -0,0 +1,38 @@
+package edu.millocorona.LAPILU.CrossAssembler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of the encoding of one section, it is emitted by the thread that encodes it, so the sections encoded in
+ * parallel are seen in their fork join workers
+ */
+@Name("edu.millocorona.LAPILU.CrossAssembler.SectionEncoding")
+@Label("Section Encoding")
+@Category("LAPILU Cross Assembler")
+@Description("The encoding of a .main, .interrupt or .org section")
+@StackTrace(false)
+public class SectionEncodingEvent extends jdk.jfr.Event {
+
+	@Label("Section Kind")
+	public String kind;
+
+	@Label("Section")
+	public String description;
+
+	@Label("Start Address")
+	public int startAddress;
+
+	@Label("Words")
+	public int words;
+
+	@Label("Instructions")
+	public int instructions;
+
+	@Label("From Cache")
+	@Description("True if the section was taken from the section encoding cache")
+	public boolean fromCache;
+}
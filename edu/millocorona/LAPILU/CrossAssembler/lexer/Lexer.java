@@ -0,0 +1,226 @@
+package edu.millocorona.LAPILU.CrossAssembler.lexer;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import edu.millocorona.LAPILU.CrossAssembler.symbols.SymbolTable;
+import edu.millocorona.LAPILU.CrossAssembler.util.NumericLiteralParser;
+
+/**
+ * Reads LAPILU assembly source code only once, character by character, and converts it to a stream of tokens.
+ * The comments and the empty lines are skipped and the text of every token is converted to upper case here, so the source
+ * never needs to be copied as a whole. The names of the labels, the constants and the operands are interned in the symbol table
+ * while they are read, so the tokens of the same name share the String of the table.
+ * The texts between double quotes are kept as they are written, they are the names of the included files.
+ */
+public class Lexer implements TokenSource {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private Reader reader;
+	private char[] buffer = new char[BUFFER_SIZE];
+	private int bufferPosition;
+	private int bufferLimit;
+
+	private int line = 1;
+	private int column = 1;
+	//True when the next word is the first one of the statement (a label does not count as the statement)
+	private boolean expectingFirstWord = true;
+	private boolean lineHasTokens;
+	private boolean insideHeadSection;
+	private StringBuilder wordBuilder = new StringBuilder();
+	private SymbolTable symbols;
+
+	public Lexer(Reader reader) {
+		this(reader,new SymbolTable());
+	}
+
+	/**
+	 * @param symbols - where the names are interned
+	 */
+	public Lexer(Reader reader, SymbolTable symbols) {
+		this.reader = reader;
+		this.symbols = symbols;
+	}
+
+	public SymbolTable getSymbols() {
+		return symbols;
+	}
+
+	/**
+	 * @param insideHeadSection - true if the source starts inside the .head section, like a file included there, then its names are constants
+	 */
+	public void setInsideHeadSection(boolean insideHeadSection) {
+		this.insideHeadSection = insideHeadSection;
+	}
+
+	/**
+	 * The purpose of this method is to read the next token of the source code
+	 * @return the next token, after the last line an END_OF_FILE token is returned every time
+	 * @throws IOException
+	 */
+	@Override
+	public Token nextToken() throws IOException {
+		while(true) {
+			int character = peekCharacter();
+			if(character == -1) {
+				if(lineHasTokens) {
+					return endLine();
+				}
+				return new Token(TokenType.END_OF_FILE,"",line,column);
+			}else if(character == '\n') {
+				readCharacter();
+				Token endOfLineToken = lineHasTokens ? endLine() : null;
+				line++;
+				column = 1;
+				expectingFirstWord = true;
+				if(endOfLineToken != null) {
+					return endOfLineToken;
+				}
+			}else if(Character.isWhitespace(character)) {
+				readCharacter();
+			}else if(character == '/' && isCommentStart()) {
+				skipComment();
+			}else if(character == '"') {
+				return readString();
+			}else if(character == '=') {
+				int tokenColumn = column;
+				readCharacter();
+				lineHasTokens = true;
+				expectingFirstWord = false;
+				return new Token(TokenType.EQUALS,"=",line,tokenColumn);
+			}else {
+				return readWord();
+			}
+		}
+	}
+
+	private Token endLine() {
+		lineHasTokens = false;
+		expectingFirstWord = true;
+		return new Token(TokenType.END_OF_LINE,"",line,column);
+	}
+
+	private Token readWord() throws IOException {
+		int tokenColumn = column;
+		wordBuilder.setLength(0);
+		int character = peekCharacter();
+		while(character != -1 && !Character.isWhitespace(character) && character != '=' && !(character == '/' && isCommentStart())) {
+			wordBuilder.append(Character.toUpperCase((char) readCharacter()));
+			character = peekCharacter();
+		}
+		lineHasTokens = true;
+		TokenType type;
+		String text;
+		int symbol = SymbolTable.NOT_FOUND;
+		if(expectingFirstWord) {
+			if(wordBuilder.charAt(0) == '.') {
+				type = TokenType.DIRECTIVE;
+				text = wordBuilder.toString();
+				if(".HEAD".equals(text)) {
+					insideHeadSection = true;
+				}else if(".ENDHEAD".equals(text)) {
+					insideHeadSection = false;
+				}
+				expectingFirstWord = false;
+			}else if(insideHeadSection) {
+				type = TokenType.CONSTANT;
+				symbol = symbols.intern(wordBuilder.toString());
+				text = symbols.getName(symbol);
+				expectingFirstWord = false;
+			}else if(wordBuilder.charAt(wordBuilder.length()-1) == ':') {
+				//A label can be followed by an instruction in the same line
+				type = TokenType.LABEL;
+				symbol = symbols.intern(wordBuilder.substring(0,wordBuilder.length()-1));
+				text = symbols.getName(symbol);
+			}else {
+				type = TokenType.MNEMONIC;
+				text = wordBuilder.toString();
+				expectingFirstWord = false;
+			}
+		}else {
+			type = TokenType.OPERAND;
+			text = wordBuilder.toString();
+			int nameStart = text.charAt(0) == '#' ? 1 : 0;
+			if(nameStart < text.length() && !isNumberPrefix(text.charAt(nameStart))) {
+				//A constant or a code label, the encoder and the linker find it by its id
+				symbol = symbols.intern(text,nameStart);
+				if(nameStart == 0) {
+					text = symbols.getName(symbol);
+				}
+			}
+		}
+		return new Token(type,text,symbol,line,tokenColumn);
+	}
+
+	/**
+	 * Reads a text between double quotes without changing its case, if it is not closed it ends with the line
+	 */
+	private Token readString() throws IOException {
+		int tokenColumn = column;
+		wordBuilder.setLength(0);
+		wordBuilder.append((char) readCharacter());
+		int character = peekCharacter();
+		while(character != -1 && character != '\n' && character != '\r') {
+			wordBuilder.append((char) readCharacter());
+			if(character == '"') {
+				break;
+			}
+			character = peekCharacter();
+		}
+		lineHasTokens = true;
+		expectingFirstWord = false;
+		return new Token(TokenType.STRING,wordBuilder.toString(),line,tokenColumn);
+	}
+
+	private static boolean isNumberPrefix(char character) {
+		return character == NumericLiteralParser.HEXADECIMAL_PREFIX || character == NumericLiteralParser.BINARY_PREFIX || character == NumericLiteralParser.DECIMAL_PREFIX;
+	}
+
+	/**
+	 * Must be called when the next character is a /, it tells if it is followed by another /
+	 */
+	private boolean isCommentStart() throws IOException {
+		if(bufferPosition+1 >= bufferLimit) {
+			//We need the two characters in the buffer
+			System.arraycopy(buffer,bufferPosition,buffer,0,bufferLimit-bufferPosition);
+			bufferLimit -= bufferPosition;
+			bufferPosition = 0;
+			int read = reader.read(buffer,bufferLimit,buffer.length-bufferLimit);
+			if(read > 0) {
+				bufferLimit += read;
+			}
+		}
+		return bufferPosition+1 < bufferLimit && buffer[bufferPosition+1] == '/';
+	}
+
+	private void skipComment() throws IOException {
+		int character = peekCharacter();
+		while(character != -1 && character != '\n') {
+			readCharacter();
+			character = peekCharacter();
+		}
+	}
+
+	private int peekCharacter() throws IOException {
+		if(bufferPosition >= bufferLimit) {
+			bufferPosition = 0;
+			bufferLimit = 0;
+			int read = reader.read(buffer,0,buffer.length);
+			if(read <= 0) {
+				return -1;
+			}
+			bufferLimit = read;
+		}
+		return buffer[bufferPosition];
+	}
+
+	private int readCharacter() throws IOException {
+		int character = peekCharacter();
+		if(character != -1) {
+			bufferPosition++;
+			column++;
+		}
+		return character;
+	}
+}
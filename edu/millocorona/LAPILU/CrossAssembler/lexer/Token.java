@@ -0,0 +1,55 @@
+package edu.millocorona.LAPILU.CrossAssembler.lexer;
+
+import edu.millocorona.LAPILU.CrossAssembler.symbols.SymbolTable;
+
+public class Token {
+	private TokenType type;
+	private String text;
+	private int line;
+	private int column;
+	private int symbol;
+
+	public Token(TokenType type, String text, int line, int column) {
+		this(type,text,SymbolTable.NOT_FOUND,line,column);
+	}
+
+	/**
+	 * @param symbol - the id of the name of the token in the symbol table of the lexer
+	 */
+	public Token(TokenType type, String text, int symbol, int line, int column) {
+		this.type = type;
+		this.text = text;
+		this.symbol = symbol;
+		this.line = line;
+		this.column = column;
+	}
+
+	public TokenType getType() {
+		return type;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * @return the id in the symbol table of the name of a label, a constant or an operand that is not a number, without the #,
+	 * SymbolTable.NOT_FOUND for the other tokens
+	 */
+	public int getSymbol() {
+		return symbol;
+	}
+
+	public int getLine() {
+		return line;
+	}
+
+	public int getColumn() {
+		return column;
+	}
+
+	@Override
+	public String toString() {
+		return type+" "+text+" at line "+line+" column "+column;
+	}
+}
@@ -0,0 +1,14 @@
+package edu.millocorona.LAPILU.CrossAssembler.lexer;
+
+import java.io.IOException;
+
+/**
+ * Gives the tokens of a source file, read by a Lexer or replayed from the tokens of an included file read before
+ */
+public interface TokenSource {
+
+	/**
+	 * @return the next token, after the last line an END_OF_FILE token is returned every time
+	 */
+	Token nextToken() throws IOException;
+}
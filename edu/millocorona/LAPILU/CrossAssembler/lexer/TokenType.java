@@ -0,0 +1,13 @@
+package edu.millocorona.LAPILU.CrossAssembler.lexer;
+
+public enum TokenType {
+	DIRECTIVE,		//.HEAD, .CODE, .MAIN, .ORG ...
+	CONSTANT,		//The name of a constant label declared in the .head section
+	EQUALS,			//The = between a constant label and its value
+	LABEL,			//A code label declaration, the : is not part of the token text
+	MNEMONIC,		//The mnemonic of an instruction
+	OPERAND,		//The parameter of an instruction or directive
+	STRING,			//A text between double quotes, like the file of an .include, the quotes are part of the token text and the case is kept
+	END_OF_LINE,
+	END_OF_FILE
+}
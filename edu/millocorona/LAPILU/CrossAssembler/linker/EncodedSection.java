@@ -0,0 +1,147 @@
+package edu.millocorona.LAPILU.CrossAssembler.linker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import edu.millocorona.LAPILU.CrossAssembler.encoder.AddressingMode;
+import edu.millocorona.LAPILU.CrossAssembler.encoder.InstructionDefinition;
+import edu.millocorona.LAPILU.CrossAssembler.encoder.InstructionSet;
+import edu.millocorona.LAPILU.CrossAssembler.memory.MemoryImage;
+import edu.millocorona.LAPILU.CrossAssembler.parser.SectionKind;
+import edu.millocorona.LAPILU.CrossAssembler.symbols.SymbolTable;
+
+/**
+ * The machine code of a section, the code labels declared in it and the code label references that it still needs.
+ * Once encoded it is only read, so the same section can be linked in many programs.
+ */
+public class EncodedSection {
+	private SectionKind kind;
+	private String description;
+	private MemoryImage image;
+	private SymbolTable symbols;
+	private ArrayList<Fixup> fixups = new ArrayList<Fixup>();
+	//The code labels declared in the section, in the order they are declared, the addresses are not boxed
+	private ArrayList<String> codeLabelNames = new ArrayList<String>();
+	private int[] codeLabelSymbols = new int[8];
+	private int[] codeLabelAddresses = new int[8];
+	//The instructions encoded by instruction index and addressing mode, counted by the encoder because the machine code cannot be decoded again
+	private boolean tooLarge;
+	private int[] instructionCounts = new int[InstructionSet.getInstructions().length*AddressingMode.values().length];
+
+	/**
+	 * @param kind - the kind of the section
+	 * @param description - how the section is called in the error messages
+	 * @param dataBusLength - the length of the words of the section
+	 * @param origin - the address of the first word of the section
+	 * @param symbols - the symbol table of the program of the section, the ids of the code labels and the fixups are from it
+	 */
+	public EncodedSection(SectionKind kind, String description, int dataBusLength, int origin, SymbolTable symbols) {
+		this.kind = kind;
+		this.description = description;
+		this.image = new MemoryImage(dataBusLength,origin);
+		this.symbols = symbols;
+	}
+
+	private EncodedSection(EncodedSection section, String description) {
+		this.kind = section.kind;
+		this.description = description;
+		this.image = section.image;
+		this.symbols = section.symbols;
+		this.fixups = section.fixups;
+		this.codeLabelNames = section.codeLabelNames;
+		this.codeLabelSymbols = section.codeLabelSymbols;
+		this.codeLabelAddresses = section.codeLabelAddresses;
+		this.instructionCounts = section.instructionCounts;
+		this.tooLarge = section.tooLarge;
+	}
+
+	/**
+	 * @return the same section with another description, the machine code is shared
+	 */
+	public EncodedSection withDescription(String description) {
+		return new EncodedSection(this,description);
+	}
+
+	public SectionKind getKind() {
+		return kind;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public MemoryImage getImage() {
+		return image;
+	}
+
+	public ArrayList<Fixup> getFixups() {
+		return fixups;
+	}
+
+	/**
+	 * @return true if the encoder reported that the section goes after the last address it can use, the layout doesn't report it again
+	 */
+	public boolean isTooLarge() {
+		return tooLarge;
+	}
+
+	public void setTooLarge(boolean tooLarge) {
+		this.tooLarge = tooLarge;
+	}
+
+	/**
+	 * @return the symbol table of the program that was encoded, a section taken from the cache can be from another program
+	 */
+	public SymbolTable getSymbols() {
+		return symbols;
+	}
+
+	/**
+	 * @param symbol - the id of the label in the symbol table of the section
+	 */
+	public void addCodeLabel(String labelName, int symbol, int address) {
+		if(codeLabelNames.size() == codeLabelAddresses.length) {
+			codeLabelSymbols = Arrays.copyOf(codeLabelSymbols,codeLabelSymbols.length*2);
+			codeLabelAddresses = Arrays.copyOf(codeLabelAddresses,codeLabelAddresses.length*2);
+		}
+		codeLabelSymbols[codeLabelNames.size()] = symbol;
+		codeLabelAddresses[codeLabelNames.size()] = address;
+		codeLabelNames.add(labelName);
+	}
+
+	/**
+	 * @return the number of code labels declared in the section
+	 */
+	public int getCodeLabelCount() {
+		return codeLabelNames.size();
+	}
+
+	/**
+	 * @param index - the position of the label in the order they are declared
+	 */
+	public String getCodeLabelName(int index) {
+		return codeLabelNames.get(index);
+	}
+
+	public int getCodeLabelSymbol(int index) {
+		return codeLabelSymbols[index];
+	}
+
+	public int getCodeLabelAddress(int index) {
+		return codeLabelAddresses[index];
+	}
+
+	/**
+	 * The purpose of this method is to count an instruction written in the section
+	 */
+	public void countInstruction(InstructionDefinition instruction, AddressingMode addressingMode) {
+		instructionCounts[instruction.getIndex()*AddressingMode.values().length+addressingMode.ordinal()]++;
+	}
+
+	/**
+	 * @return the number of instructions of the section with the mnemonic and the addressing mode
+	 */
+	public int getInstructionCount(InstructionDefinition instruction, AddressingMode addressingMode) {
+		return instructionCounts[instruction.getIndex()*AddressingMode.values().length+addressingMode.ordinal()];
+	}
+}
@@ -0,0 +1,49 @@
+package edu.millocorona.LAPILU.CrossAssembler.linker;
+
+import edu.millocorona.LAPILU.CrossAssembler.encoder.InstructionDefinition;
+
+/**
+ * A place of the machine code reserved for the address of a code label, it is written when all the sections are placed
+ */
+public class Fixup {
+	private int address;
+	private String labelName;
+	private int symbol;
+	private int width;
+	private InstructionDefinition instruction;
+
+	/**
+	 * @param address - the address of the first word reserved for the label
+	 * @param labelName - the name of the code label
+	 * @param symbol - the id of the code label in the symbol table of the section
+	 * @param width - the number of words reserved, the address of the label is written little endian
+	 * @param instruction - the instruction whose parameter is the code label
+	 */
+	public Fixup(int address, String labelName, int symbol, int width, InstructionDefinition instruction) {
+		this.address = address;
+		this.labelName = labelName;
+		this.symbol = symbol;
+		this.width = width;
+		this.instruction = instruction;
+	}
+
+	public int getAddress() {
+		return address;
+	}
+
+	public String getLabelName() {
+		return labelName;
+	}
+
+	public int getSymbol() {
+		return symbol;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public InstructionDefinition getInstruction() {
+		return instruction;
+	}
+}
@@ -0,0 +1,69 @@
+package edu.millocorona.LAPILU.CrossAssembler.linker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import edu.millocorona.LAPILU.CrossAssembler.memory.MemoryImage;
+import edu.millocorona.LAPILU.CrossAssembler.symbols.SymbolTable;
+
+/**
+ * Puts all the sections in a single memory image and writes the addresses of the code labels
+ */
+public class Linker {
+	private int dataBusLength;
+	private int addressBusLength;
+
+	public Linker(int dataBusLength, int addressBusLength) {
+		this.dataBusLength = dataBusLength;
+		this.addressBusLength = addressBusLength;
+	}
+
+	/**
+	 * The purpose of this method is to create the memory image of the whole program, from address 0 to the end of the last section,
+	 * the spaces between sections stay with 0
+	 * @param sections - the sections of the program, they must not overlap
+	 * @param symbols - the symbol table of the program
+	 * @param codeLabelAddresses - the address of every code label by its symbol id, -1 for the symbols that are not code labels,
+	 * every code label used by the sections must be there, the assembler reports the missing ones before linking
+	 * @return the memory image of the program
+	 */
+	public MemoryImage link(List<EncodedSection> sections, SymbolTable symbols, int[] codeLabelAddresses) {
+		int endOfLastSection = 0;
+		for(EncodedSection section:sections) {
+			endOfLastSection = Math.max(endOfLastSection,section.getImage().getEndAddress());
+		}
+		MemoryImage memoryImage = new MemoryImage(dataBusLength,0,endOfLastSection);
+		memoryImage.setMemorySize(1L<<addressBusLength);
+		for(EncodedSection section:sections) {
+			memoryImage.copy(section.getImage());
+		}
+		//The addresses of the sections are the only ones with code, the sparse formats only write them
+		ArrayList<EncodedSection> sectionsByAddress = new ArrayList<EncodedSection>(sections);
+		Collections.sort(sectionsByAddress,new Comparator<EncodedSection>() {
+			@Override
+			public int compare(EncodedSection section1, EncodedSection section2) {
+				return Integer.compare(section1.getImage().getOrigin(),section2.getImage().getOrigin());
+			}
+		});
+		for(EncodedSection section:sectionsByAddress) {
+			memoryImage.addUsedRange(section.getImage().getOrigin(),section.getImage().getEndAddress());
+		}
+		//Now that every section is in its place we write the address of the code labels, only the fixups are visited
+		for(EncodedSection section:sections) {
+			for(Fixup fixup:section.getFixups()) {
+				int symbol = section.getSymbols() == symbols ? fixup.getSymbol() : symbols.find(fixup.getLabelName());
+				if(symbol == SymbolTable.NOT_FOUND || codeLabelAddresses[symbol] < 0) {
+					throw new IllegalArgumentException("The code label: "+fixup.getLabelName()+" dosen't exists");
+				}
+				int remainingAddress = codeLabelAddresses[symbol];
+				for(int i = 0;i<fixup.getWidth();i++) {
+					memoryImage.set(fixup.getAddress()+i,remainingAddress);//Little endian, the image keeps only the bits of the data bus
+					remainingAddress >>>= dataBusLength;
+				}
+			}
+		}
+		return memoryImage;
+	}
+}
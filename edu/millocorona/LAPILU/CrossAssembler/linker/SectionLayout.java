@@ -0,0 +1,118 @@
+package edu.millocorona.LAPILU.CrossAssembler.linker;
+
+import java.util.Arrays;
+import java.util.List;
+
+import edu.millocorona.LAPILU.CrossAssembler.diagnostics.DiagnosticCode;
+import edu.millocorona.LAPILU.CrossAssembler.diagnostics.DiagnosticCollector;
+import edu.millocorona.LAPILU.CrossAssembler.parser.SectionKind;
+import edu.millocorona.LAPILU.CrossAssembler.parser.SourceSection;
+
+/**
+ * Validates that the sections of a program fit in the memory and don't overlap between them or with the memory reserved for
+ * the .main and .interrupt sections
+ */
+public class SectionLayout {
+	public static final int MAIN_SECTION_START = 0;
+	public static final int MAIN_SECTION_END = 255;
+	public static final int INTERRUPT_SECTION_START = 256;
+	public static final int INTERRUPT_SECTION_END = 1023;
+
+	private int addressBusLength;
+
+	public SectionLayout(int addressBusLength) {
+		this.addressBusLength = addressBusLength;
+	}
+
+	/**
+	 * The purpose of this method is to find all the conflicts between the sections, the intervals are sorted once by their start address and
+	 * then visited in a single sweep, keeping only the intervals that are still open
+	 * @param sourceSections - the parsed sections, the conflicts are reported in the line where they are declared
+	 * @param sections - the sections of the program, in the same order as sourceSections
+	 * @param diagnostics - where every conflict found is reported
+	 */
+	public void checkSections(List<SourceSection> sourceSections, List<EncodedSection> sections, DiagnosticCollector diagnostics) {
+		long memorySize = 1L<<addressBusLength;
+		//The reserved regions of .main and .interrupt are the first intervals, the sections go after them
+		int intervalCount = sections.size()+2;
+		int[] starts = new int[intervalCount];
+		int[] ends = new int[intervalCount];//Inclusive
+		String[] descriptions = new String[intervalCount];
+		SourceSection[] intervalSections = new SourceSection[intervalCount];
+		starts[0] = MAIN_SECTION_START;
+		ends[0] = MAIN_SECTION_END;
+		descriptions[0] = "the memory reserved for the .main section "+formatRange(MAIN_SECTION_START,MAIN_SECTION_END);
+		starts[1] = INTERRUPT_SECTION_START;
+		ends[1] = INTERRUPT_SECTION_END;
+		descriptions[1] = "the memory reserved for the .interrupt section "+formatRange(INTERRUPT_SECTION_START,INTERRUPT_SECTION_END);
+		int sectionIntervalCount = 0;
+		for(int i = 0;i<sections.size();i++) {
+			EncodedSection section = sections.get(i);
+			SourceSection sourceSection = sourceSections.get(i);
+			//An empty section doesn't use any address, the parser already warns about it
+			if(section.getImage().getSize() == 0) {
+				continue;
+			}
+			int start = section.getImage().getOrigin();
+			int end = section.getImage().getEndAddress()-1;
+			String description = "the "+section.getDescription()+" "+formatRange(start,end);
+			if(end >= memorySize && !section.isTooLarge()) {
+				diagnostics.error(sourceSection.getFile(),DiagnosticCode.SECTION_OUTSIDE_MEMORY,null,sourceSection.getLine(),0,capitalize(description)+" goes outside of the memory, the last address is "+formatAddress((int) (memorySize-1)));
+			}
+			//The .main and .interrupt sections can only conflict with the other sections in the addresses after their reserved memory
+			if(section.getKind() == SectionKind.MAIN || section.getKind() == SectionKind.INTERRUPT) {
+				if(section.isTooLarge()) {
+					continue;//The encoder already reported that it goes after its reserved memory
+				}
+				int reservedEnd = section.getKind() == SectionKind.MAIN ? MAIN_SECTION_END : INTERRUPT_SECTION_END;
+				if(section.getImage().getEndAddress()-1 <= reservedEnd) {
+					continue;
+				}
+				start = reservedEnd+1;
+			}
+			starts[2+sectionIntervalCount] = start;
+			ends[2+sectionIntervalCount] = end;
+			descriptions[2+sectionIntervalCount] = description;
+			intervalSections[2+sectionIntervalCount] = sourceSection;
+			sectionIntervalCount++;
+		}
+		intervalCount = 2+sectionIntervalCount;
+		//We sort the start address and the index of each interval together, so no comparator is needed
+		long[] sortedIntervals = new long[intervalCount];
+		for(int i = 0;i<intervalCount;i++) {
+			sortedIntervals[i] = ((long) starts[i]<<32) | i;
+		}
+		Arrays.sort(sortedIntervals);
+		int[] openIntervals = new int[intervalCount];
+		int openIntervalCount = 0;
+		for(long sortedInterval:sortedIntervals) {
+			int current = (int) sortedInterval;
+			int openIntervalsKept = 0;
+			for(int i = 0;i<openIntervalCount;i++) {
+				int open = openIntervals[i];
+				if(ends[open] >= starts[current]) {
+					if(current >= 2 || open >= 2) {
+						//The reserved memory is not declared in the file, the error goes in the section that is
+						SourceSection reportedSection = current >= 2 ? intervalSections[current] : intervalSections[open];
+						diagnostics.error(reportedSection.getFile(),DiagnosticCode.SECTION_OVERLAP,null,reportedSection.getLine(),0,capitalize(descriptions[current])+" overlaps with "+descriptions[open]);
+					}
+					openIntervals[openIntervalsKept++] = open;
+				}
+			}
+			openIntervals[openIntervalsKept++] = current;
+			openIntervalCount = openIntervalsKept;
+		}
+	}
+
+	private static String formatRange(int start, int end) {
+		return "("+formatAddress(start)+" - "+formatAddress(end)+")";
+	}
+
+	private static String formatAddress(int address) {
+		return String.format("$%04X",address);
+	}
+
+	private static String capitalize(String text) {
+		return Character.toUpperCase(text.charAt(0))+text.substring(1);
+	}
+}
@@ -0,0 +1,210 @@
+package edu.millocorona.LAPILU.CrossAssembler.memory;
+
+import java.util.Arrays;
+
+/**
+ * The content of a memory region, one word of the data bus size per address, stored in a primitive array.
+ * The region starts at the origin address and grows when a word is written after its end.
+ * The image can also know which addresses hold code, so the formats that support it can skip the empty spaces between sections.
+ */
+public class MemoryImage {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private int dataBusLength;
+	private int wordMask;
+	private int origin;
+	private int[] words;
+	private int size;
+	//Pairs of start (inclusive) and end (exclusive) addresses of the ranges that hold code, sorted by address
+	private int[] usedRanges = new int[0];
+	private int usedRangeCount;
+	//The number of words of the memory where the image is loaded, 0 if it is not known
+	private long memorySize;
+
+	public MemoryImage(int dataBusLength, int origin) {
+		this(dataBusLength,origin,INITIAL_CAPACITY);
+	}
+
+	public MemoryImage(int dataBusLength, int origin, int capacity) {
+		this.dataBusLength = dataBusLength;
+		this.wordMask = dataBusLength >= 32 ? -1 : (1<<dataBusLength)-1;
+		this.origin = origin;
+		this.words = new int[Math.max(capacity,1)];
+	}
+
+	public int getDataBusLength() {
+		return dataBusLength;
+	}
+
+	/**
+	 * @return the number of words of the memory where the image is loaded, 1 shifted by the address bus length, or 0 if it is not known
+	 */
+	public long getMemorySize() {
+		return memorySize;
+	}
+
+	/**
+	 * @param memorySize - the number of words of the memory where the image is loaded, the formats that describe the whole memory use it
+	 */
+	public void setMemorySize(long memorySize) {
+		this.memorySize = memorySize;
+	}
+
+	/**
+	 * @return the address of the first word of the image
+	 */
+	public int getOrigin() {
+		return origin;
+	}
+
+	/**
+	 * @return the number of words of the image
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @return the address after the last word of the image
+	 */
+	public int getEndAddress() {
+		return origin+size;
+	}
+
+	public int get(int address) {
+		int index = address-origin;
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("The address "+address+" is outside of the memory image");
+		}
+		return words[index];
+	}
+
+	/**
+	 * Writes a word, if the address is after the end of the image the image grows and the words in between are 0
+	 */
+	public void set(int address, int word) {
+		int index = address-origin;
+		if(index < 0) {
+			throw new IndexOutOfBoundsException("The address "+address+" is before the origin of the memory image");
+		}
+		ensureSize(index+1);
+		words[index] = word & wordMask;
+	}
+
+	/**
+	 * Writes a word at the end of the image
+	 */
+	public void append(int word) {
+		ensureSize(size+1);
+		words[size-1] = word & wordMask;
+	}
+
+	/**
+	 * Writes the same word from the address fromAddress (inclusive) to the address toAddress (exclusive)
+	 */
+	public void fill(int fromAddress, int toAddress, int word) {
+		if(fromAddress >= toAddress) {
+			return;
+		}
+		if(fromAddress < origin) {
+			throw new IndexOutOfBoundsException("The address "+fromAddress+" is before the origin of the memory image");
+		}
+		ensureSize(toAddress-origin);
+		Arrays.fill(words,fromAddress-origin,toAddress-origin,word & wordMask);
+	}
+
+	/**
+	 * Writes all the words of the other image in this one, in the same addresses
+	 */
+	public void copy(MemoryImage source) {
+		if(source.size == 0) {
+			return;
+		}
+		int index = source.origin-origin;
+		if(index < 0) {
+			throw new IndexOutOfBoundsException("The address "+source.origin+" is before the origin of the memory image");
+		}
+		ensureSize(index+source.size);
+		System.arraycopy(source.words,0,words,index,source.size);
+	}
+
+	/**
+	 * Marks the addresses from fromAddress (inclusive) to toAddress (exclusive) as addresses that hold code, the ranges must be marked
+	 * in order of their first address, a range that starts inside the previous one or where it ends is joined with it
+	 */
+	public void addUsedRange(int fromAddress, int toAddress) {
+		if(fromAddress >= toAddress) {
+			return;
+		}
+		if(usedRangeCount > 0) {
+			int lastEnd = usedRanges[usedRangeCount*2-1];
+			if(fromAddress < usedRanges[usedRangeCount*2-2]) {
+				throw new IllegalArgumentException("The used ranges must be added in order of their first address");
+			}else if(fromAddress <= lastEnd) {
+				usedRanges[usedRangeCount*2-1] = Math.max(lastEnd,toAddress);
+				return;
+			}
+		}
+		if(usedRangeCount*2 == usedRanges.length) {
+			usedRanges = Arrays.copyOf(usedRanges,Math.max(8,usedRanges.length*2));
+		}
+		usedRanges[usedRangeCount*2] = fromAddress;
+		usedRanges[usedRangeCount*2+1] = toAddress;
+		usedRangeCount++;
+	}
+
+	/**
+	 * @return the number of ranges that hold code, if no range was marked the whole image is one range
+	 */
+	public int getUsedRangeCount() {
+		if(usedRangeCount == 0) {
+			return size == 0 ? 0 : 1;
+		}
+		return usedRangeCount;
+	}
+
+	/**
+	 * @return the first address of a range that holds code
+	 */
+	public int getUsedRangeStart(int range) {
+		return usedRangeCount == 0 ? origin : usedRanges[range*2];
+	}
+
+	/**
+	 * @return the address after the last address of a range that holds code
+	 */
+	public int getUsedRangeEnd(int range) {
+		return usedRangeCount == 0 ? getEndAddress() : usedRanges[range*2+1];
+	}
+
+	/**
+	 * @return the word as a string of 0 and 1 of the data bus length, the most significant bit first
+	 */
+	public String getWordAsBinaryString(int address) {
+		int word = get(address);
+		char[] bits = new char[dataBusLength];
+		for(int i = 0;i<dataBusLength;i++) {
+			bits[dataBusLength-1-i] = ((word>>>i) & 1) == 1 ? '1' : '0';
+		}
+		return new String(bits);
+	}
+
+	/**
+	 * @return true if the other image has the same bus length, addresses, words and ranges with code, so its output files are the same
+	 */
+	public boolean contentEquals(MemoryImage other) {
+		return dataBusLength == other.dataBusLength && origin == other.origin && size == other.size && usedRangeCount == other.usedRangeCount
+				&& Arrays.equals(words,0,size,other.words,0,size) && Arrays.equals(usedRanges,0,usedRangeCount*2,other.usedRanges,0,usedRangeCount*2);
+	}
+
+	private void ensureSize(int newSize) {
+		if(newSize > words.length) {
+			int newCapacity = Math.max(newSize,words.length*2);
+			words = Arrays.copyOf(words,newCapacity);
+		}
+		if(newSize > size) {
+			size = newSize;
+		}
+	}
+}
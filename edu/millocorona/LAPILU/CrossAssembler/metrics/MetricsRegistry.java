@@ -0,0 +1,120 @@
+package edu.millocorona.LAPILU.CrossAssembler.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import edu.millocorona.LAPILU.CrossAssembler.util.Json;
+
+/**
+ * Counters with labels that are added while programs are assembled, they can be written as JSON or in the Prometheus text format.
+ * The same registry can be used by many assemblies at the same time, the counters of all of them are added.
+ */
+public class MetricsRegistry {
+	private LinkedHashMap<String,Counter> counters = new LinkedHashMap<String,Counter>();
+
+	/**
+	 * The purpose of this method is to add a value to a counter, the counter is created the first time it is used
+	 * @param name - the name of the counter, like lapilu_instructions_total
+	 * @param help - what the counter counts
+	 * @param value - the value added
+	 * @param labels - the names and values of the labels, alternated, like "mnemonic","LDA","mode","ZERO_PAGE"
+	 */
+	public synchronized void add(String name, String help, long value, String... labels) {
+		Counter counter = counters.get(name);
+		if(counter == null) {
+			counter = new Counter(help);
+			counters.put(name,counter);
+		}
+		//The labels are joined with a character that cannot be in the source code, the series are written sorted by it
+		String seriesKey = String.join("\u0000",labels);
+		Series series = counter.series.get(seriesKey);
+		if(series == null) {
+			series = new Series(labels.clone());
+			counter.series.put(seriesKey,series);
+		}
+		series.value+=value;
+	}
+
+	/**
+	 * @return the value of a counter, 0 if it doesn't exist
+	 */
+	public synchronized long get(String name, String... labels) {
+		Counter counter = counters.get(name);
+		if(counter == null) {
+			return 0;
+		}
+		Series series = counter.series.get(String.join("\u0000",labels));
+		return series == null ? 0 : series.value;
+	}
+
+	public synchronized String toJson() {
+		StringBuilder json = new StringBuilder("{");
+		boolean firstCounter = true;
+		for(Map.Entry<String,Counter> counter:counters.entrySet()) {
+			if(!firstCounter) {
+				json.append(',');
+			}
+			firstCounter = false;
+			json.append(Json.quote(counter.getKey())).append(":{\"help\":").append(Json.quote(counter.getValue().help)).append(",\"series\":[");
+			boolean firstSeries = true;
+			for(Series series:counter.getValue().series.values()) {
+				if(!firstSeries) {
+					json.append(',');
+				}
+				firstSeries = false;
+				json.append("{\"labels\":{");
+				for(int i = 0;i+1<series.labels.length;i+=2) {
+					if(i > 0) {
+						json.append(',');
+					}
+					json.append(Json.quote(series.labels[i])).append(':').append(Json.quote(series.labels[i+1]));
+				}
+				json.append("},\"value\":").append(series.value).append('}');
+			}
+			json.append("]}");
+		}
+		return json.append('}').toString();
+	}
+
+	public synchronized String toPrometheusText() {
+		StringBuilder text = new StringBuilder();
+		for(Map.Entry<String,Counter> counter:counters.entrySet()) {
+			text.append("# HELP ").append(counter.getKey()).append(' ').append(counter.getValue().help.replace("\\","\\\\").replace("\n","\\n")).append('\n');
+			text.append("# TYPE ").append(counter.getKey()).append(" counter\n");
+			for(Series series:counter.getValue().series.values()) {
+				text.append(counter.getKey());
+				if(series.labels.length > 0) {
+					text.append('{');
+					for(int i = 0;i+1<series.labels.length;i+=2) {
+						if(i > 0) {
+							text.append(',');
+						}
+						text.append(series.labels[i]).append("=\"").append(series.labels[i+1].replace("\\","\\\\").replace("\"","\\\"").replace("\n","\\n")).append('"');
+					}
+					text.append('}');
+				}
+				text.append(' ').append(series.value).append('\n');
+			}
+		}
+		return text.toString();
+	}
+
+	private static class Counter {
+		private String help;
+		private TreeMap<String,Series> series = new TreeMap<String,Series>();
+
+		private Counter(String help) {
+			this.help = help;
+		}
+	}
+
+	private static class Series {
+		private String[] labels;
+		private long value;
+
+		private Series(String[] labels) {
+			this.labels = labels;
+		}
+	}
+}
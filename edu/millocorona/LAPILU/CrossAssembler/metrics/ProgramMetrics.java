@@ -0,0 +1,122 @@
+package edu.millocorona.LAPILU.CrossAssembler.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.millocorona.LAPILU.CrossAssembler.encoder.AddressingMode;
+import edu.millocorona.LAPILU.CrossAssembler.encoder.InstructionDefinition;
+import edu.millocorona.LAPILU.CrossAssembler.encoder.InstructionSet;
+import edu.millocorona.LAPILU.CrossAssembler.linker.EncodedSection;
+import edu.millocorona.LAPILU.CrossAssembler.linker.Fixup;
+import edu.millocorona.LAPILU.CrossAssembler.memory.MemoryImage;
+import edu.millocorona.LAPILU.CrossAssembler.parser.SourceProgram;
+import edu.millocorona.LAPILU.CrossAssembler.parser.SourceSection;
+import edu.millocorona.LAPILU.CrossAssembler.parser.SourceStatement;
+import edu.millocorona.LAPILU.CrossAssembler.symbols.SymbolTable;
+
+/**
+ * Counts what a linked program has inside: the instructions by mnemonic and addressing mode, the words of the sections, the constant
+ * labels replaced, the code labels used before they are declared and the words of 0 that the linker puts between the sections.
+ * The instructions are counted by the encoder in the encoded sections, the rest is read from the source and the linked image after the assembly.
+ */
+public class ProgramMetrics {
+
+	public static final String ASSEMBLIES = "lapilu_assemblies_total";
+	public static final String INSTRUCTIONS = "lapilu_instructions_total";
+	public static final String ZERO_PAGE_CANDIDATES = "lapilu_absolute_zero_page_candidates_total";
+	public static final String SECTIONS = "lapilu_sections_total";
+	public static final String SECTION_WORDS = "lapilu_section_words_total";
+	public static final String CONSTANT_SUBSTITUTIONS = "lapilu_constant_label_substitutions_total";
+	public static final String CODE_LABEL_REFERENCES = "lapilu_code_label_references_total";
+	public static final String ZERO_FILL_WORDS = "lapilu_zero_fill_words_total";
+	public static final String IMAGE_WORDS = "lapilu_image_words_total";
+
+	/**
+	 * The purpose of this method is to add the counts of an assembled program to the registry
+	 * @param registry - where the counts are added
+	 * @param program - the parsed program
+	 * @param sections - the encoded sections of the program
+	 * @param linkedImage - the memory image of the whole program, with the addresses of the code labels
+	 */
+	public static void record(MetricsRegistry registry, SourceProgram program, List<EncodedSection> sections, MemoryImage linkedImage) {
+		registry.add(ASSEMBLIES,"Programs assembled",1);
+		long maximumDataBusValue = (1L<<linkedImage.getDataBusLength())-1;
+		long sectionWords = 0;
+		InstructionDefinition[] instructions = InstructionSet.getInstructions();
+		AddressingMode[] addressingModes = AddressingMode.values();
+		for(EncodedSection section:sections) {
+			MemoryImage sectionImage = section.getImage();
+			String kind = section.getKind().name();
+			registry.add(SECTIONS,"Sections encoded by kind",1,"kind",kind);
+			registry.add(SECTION_WORDS,"Words of machine code in the sections by kind",sectionImage.getSize(),"kind",kind);
+			sectionWords+=sectionImage.getSize();
+			//The encoder counts the instructions, the machine code cannot be decoded again because some instructions share an opcode
+			for(InstructionDefinition instruction:instructions) {
+				for(AddressingMode addressingMode:addressingModes) {
+					int count = section.getInstructionCount(instruction,addressingMode);
+					if(count > 0) {
+						registry.add(INSTRUCTIONS,"Instructions by mnemonic and addressing mode",count,"mnemonic",instruction.getMnemonic(),"mode",addressingMode.name());
+					}
+				}
+			}
+			//An absolute address that fits in the zero page can only be a code label, its address is read from the words of the fixup
+			for(Fixup fixup:section.getFixups()) {
+				if(fixup.getInstruction().supports(AddressingMode.ZERO_PAGE)) {
+					long operand = linkedImage.get(fixup.getAddress())|((long) linkedImage.get(fixup.getAddress()+1)<<linkedImage.getDataBusLength());
+					if(operand <= maximumDataBusValue) {
+						//The instruction would be a word shorter with its zero page opcode
+						registry.add(ZERO_PAGE_CANDIDATES,"Absolute instructions whose address fits in the zero page",1,"mnemonic",fixup.getInstruction().getMnemonic());
+					}
+				}
+			}
+		}
+		registry.add(IMAGE_WORDS,"Words of the linked memory images",linkedImage.getSize());
+		registry.add(ZERO_FILL_WORDS,"Words of 0 added by the linker between the sections",linkedImage.getSize()-sectionWords);
+		recordLabelUses(registry,program);
+	}
+
+	private static void recordLabelUses(MetricsRegistry registry, SourceProgram program) {
+		ArrayList<SourceSection> sourceSections = new ArrayList<SourceSection>();
+		sourceSections.add(program.getMainSection());
+		if(program.getInterruptSection() != null) {
+			sourceSections.add(program.getInterruptSection());
+		}
+		sourceSections.addAll(program.getOrgSections());
+		//The position where every code label is declared by symbol id, in the order the parser read the statements, so a label of an
+		//included file is before the statements after the .include and after the ones before it
+		SymbolTable symbols = program.getSymbols();
+		int[] codeLabelIndexes = new int[symbols.size()];
+		Arrays.fill(codeLabelIndexes,-1);
+		for(SourceSection section:sourceSections) {
+			for(SourceStatement statement:section.getStatements()) {
+				if(statement.isLabel()) {
+					codeLabelIndexes[statement.getSymbol()] = statement.getIndex();
+				}
+			}
+		}
+		long constantSubstitutions = 0;
+		long forwardReferences = 0;
+		long backwardReferences = 0;
+		for(SourceSection section:sourceSections) {
+			for(SourceStatement statement:section.getStatements()) {
+				int symbol = statement.getSymbol();
+				if(statement.isLabel() || symbol == SymbolTable.NOT_FOUND) {
+					continue;
+				}
+				if(symbols.isConstant(symbol)) {
+					constantSubstitutions++;
+				}else if(codeLabelIndexes[symbol] != -1) {
+					if(codeLabelIndexes[symbol] > statement.getIndex()) {
+						forwardReferences++;
+					}else {
+						backwardReferences++;
+					}
+				}
+			}
+		}
+		registry.add(CONSTANT_SUBSTITUTIONS,"Instruction parameters replaced by the value of a constant label",constantSubstitutions);
+		registry.add(CODE_LABEL_REFERENCES,"Uses of code labels, forward if the label is declared after the instruction",forwardReferences,"direction","forward");
+		registry.add(CODE_LABEL_REFERENCES,"Uses of code labels, forward if the label is declared after the instruction",backwardReferences,"direction","backward");
+	}
+}
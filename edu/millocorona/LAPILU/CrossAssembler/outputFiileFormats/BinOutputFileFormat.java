@@ -1,44 +1,92 @@
 package edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.BitSet;
-import java.util.LinkedList;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 
-import edu.millocorona.LAPILU.CrossAssembler.exceptions.AssemblyException;
+import edu.millocorona.LAPILU.CrossAssembler.memory.MemoryImage;
 
+/**
+ * Writes every word of the memory image in the smallest number of bytes that can hold the data bus (1 byte for an 8 bit data bus,
+ * 2 bytes for 9 to 16 bits...), the bytes of a word are little endian, like the addresses in the machine code, and the unused
+ * high bits are 0. The words are written in order from the first address of the image.
+ */
 public class BinOutputFileFormat implements OutputFileFormat{
 
+	//Size of the buffer used to write to the channel
+	private static final int CHUNK_SIZE = 64*1024;
+	//Bigger files are written through a memory mapped buffer when the output is a file
+	private static final long MAPPED_WRITE_THRESHOLD = 1024*1024;
+
+	@Override
+	public String getName() {
+		return "bin";
+	}
+
+	@Override
+	public String getFileExtension() {
+		return ".bin";
+	}
+
 	@Override
-	public void outputFormatedFile(String outputFileName,LinkedList<String> binaryMachineCodeStrings) throws AssemblyException,IOException {
-		if(!outputFileName.endsWith(".bin")) {
-			outputFileName+=".bin";	
+	public String getDescription() {
+		return "Simple binary file";
+	}
+
+	@Override
+	public void outputFormatedImage(MemoryImage memoryImage, WritableByteChannel outputChannel) throws IOException {
+		int bytesPerWord = (memoryImage.getDataBusLength()+7)/8;
+		long totalBytes = (long) memoryImage.getSize()*bytesPerWord;
+		if(outputChannel instanceof FileChannel && totalBytes >= MAPPED_WRITE_THRESHOLD) {
+			FileChannel fileChannel = (FileChannel) outputChannel;
+			long position = fileChannel.position();
+			MappedByteBuffer mappedBuffer = fileChannel.map(FileChannel.MapMode.READ_WRITE,position,totalBytes);
+			mappedBuffer.order(ByteOrder.LITTLE_ENDIAN);
+			putWords(memoryImage,memoryImage.getOrigin(),memoryImage.getEndAddress(),bytesPerWord,mappedBuffer);
+			mappedBuffer.force();
+			fileChannel.position(position+totalBytes);
+			return;
 		}
-		File outputFile = new File(outputFileName);
-		if(outputFile.getParentFile().exists()) {
-			outputFile.createNewFile();
-			StringBuilder binaryMachineCodeStringBuilder = new StringBuilder();
-			for(String binaryMachineCodeString:binaryMachineCodeStrings) {
-				binaryMachineCodeStringBuilder.append(binaryMachineCodeString);
-			}
-			String binaryMachineCode = binaryMachineCodeStringBuilder.toString();
-			BitSet bitSet = new BitSet(binaryMachineCode.length());
-			int bitcounter = 0;
-			for(char bitAsChar : binaryMachineCode.toCharArray()) {
-			    if(bitAsChar == '1') {
-			        bitSet.set(bitcounter);
-			    }
-			    bitcounter++;
+		int wordsPerChunk = Math.max(1,CHUNK_SIZE/bytesPerWord);
+		ByteBuffer buffer = ByteBuffer.allocateDirect((int) Math.min(totalBytes,(long) wordsPerChunk*bytesPerWord)).order(ByteOrder.LITTLE_ENDIAN);
+		for(int address = memoryImage.getOrigin();address<memoryImage.getEndAddress();address+=wordsPerChunk) {
+			buffer.clear();
+			putWords(memoryImage,address,Math.min(address+wordsPerChunk,memoryImage.getEndAddress()),bytesPerWord,buffer);
+			buffer.flip();
+			while(buffer.hasRemaining()) {
+				outputChannel.write(buffer);
 			}
-			FileOutputStream fileOutputStream = new FileOutputStream(outputFileName);
-			fileOutputStream.write(bitSet.toByteArray());
-			fileOutputStream.close();
-		}else {
-			throw new AssemblyException("The directory: "+outputFile.getParentFile().getAbsolutePath()+" does not exist");
 		}
-		
-		
+	}
+
+	private static void putWords(MemoryImage memoryImage, int fromAddress, int toAddress, int bytesPerWord, ByteBuffer buffer) {
+		switch(bytesPerWord) {
+			case 1:
+				for(int address = fromAddress;address<toAddress;address++) {
+					buffer.put((byte) memoryImage.get(address));
+				}
+				break;
+			case 2:
+				for(int address = fromAddress;address<toAddress;address++) {
+					buffer.putShort((short) memoryImage.get(address));
+				}
+				break;
+			case 4:
+				for(int address = fromAddress;address<toAddress;address++) {
+					buffer.putInt(memoryImage.get(address));
+				}
+				break;
+			default:
+				for(int address = fromAddress;address<toAddress;address++) {
+					int word = memoryImage.get(address);
+					for(int i = 0;i<bytesPerWord;i++) {
+						buffer.put((byte) (word>>>(8*i)));
+					}
+				}
+		}
 	}
 
 }
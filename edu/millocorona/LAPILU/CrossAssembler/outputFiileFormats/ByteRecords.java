@@ -0,0 +1,52 @@
+package edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats;
+
+import edu.millocorona.LAPILU.CrossAssembler.memory.MemoryImage;
+
+/**
+ * Helpers for the formats made of records of bytes, like Intel HEX and Motorola S-record.
+ * Every word is stored in the smallest number of bytes that can hold the data bus, little endian like in the bin format, so the
+ * address of a byte is the address of its word multiplied by the bytes per word.
+ */
+class ByteRecords {
+	//Data bytes in each record, the usual value for both formats
+	static final int BYTES_PER_RECORD = 16;
+
+	private static final char[] HEXADECIMAL_DIGITS = "0123456789ABCDEF".toCharArray();
+
+	static int getBytesPerWord(MemoryImage memoryImage) {
+		return (memoryImage.getDataBusLength()+7)/8;
+	}
+
+	/**
+	 * Copies the bytes from the byte address to the array
+	 * @return the sum of the bytes, for the checksums
+	 */
+	static int getBytes(MemoryImage memoryImage, long byteAddress, int bytesPerWord, byte[] bytes, int count) {
+		int sum = 0;
+		for(int i = 0;i<count;i++) {
+			long address = byteAddress+i;
+			int word = memoryImage.get((int) (address/bytesPerWord));
+			bytes[i] = (byte) (word>>>(8*(address%bytesPerWord)));
+			sum+=bytes[i] & 0xFF;
+		}
+		return sum;
+	}
+
+	static void appendHexadecimalByte(StringBuilder record, int value) {
+		record.append(HEXADECIMAL_DIGITS[(value>>>4) & 0xF]).append(HEXADECIMAL_DIGITS[value & 0xF]);
+	}
+
+	/**
+	 * Appends the bytes of the value, the most significant first
+	 * @return the sum of the bytes, for the checksums
+	 */
+	static int appendHexadecimalValue(StringBuilder record, long value, int bytes) {
+		int sum = 0;
+		for(int i = bytes-1;i>=0;i--) {
+			int b = (int) (value>>>(8*i)) & 0xFF;
+			appendHexadecimalByte(record,b);
+			sum+=b;
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,78 @@
+package edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.channels.WritableByteChannel;
+
+import edu.millocorona.LAPILU.CrossAssembler.memory.MemoryImage;
+
+/**
+ * Writes only the addresses that hold code as Intel HEX data records, the empty spaces between sections are not written.
+ * When the byte addresses don't fit in 16 bits an extended linear address record gives the upper 16 bits.
+ */
+public class IntelHexOutputFileFormat implements OutputFileFormat{
+
+	private static final int DATA_RECORD = 0x00;
+	private static final int END_OF_FILE_RECORD = 0x01;
+	private static final int EXTENDED_LINEAR_ADDRESS_RECORD = 0x04;
+
+	@Override
+	public String getName() {
+		return "ihex";
+	}
+
+	@Override
+	public String getFileExtension() {
+		return ".hex";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Intel HEX file, only the addresses with code";
+	}
+
+	@Override
+	public void outputFormatedImage(MemoryImage memoryImage, WritableByteChannel outputChannel) throws IOException {
+		int bytesPerWord = ByteRecords.getBytesPerWord(memoryImage);
+		int ranges = memoryImage.getUsedRangeCount();
+		if(ranges > 0 && (long) memoryImage.getUsedRangeEnd(ranges-1)*bytesPerWord > 0x100000000L) {
+			throw new IOException("The program uses byte addresses bigger than 32 bits, they cannot be written in an Intel HEX file");
+		}
+		PrintWriter writer = TextOutput.open(outputChannel);
+		StringBuilder record = new StringBuilder();
+		byte[] data = new byte[ByteRecords.BYTES_PER_RECORD];
+		long upperAddress = 0;
+		for(int range = 0;range<ranges;range++) {
+			long endAddress = (long) memoryImage.getUsedRangeEnd(range)*bytesPerWord;
+			long address = (long) memoryImage.getUsedRangeStart(range)*bytesPerWord;
+			while(address < endAddress) {
+				if(address>>>16 != upperAddress) {
+					upperAddress = address>>>16;
+					writeRecord(writer,record,EXTENDED_LINEAR_ADDRESS_RECORD,0,new byte[] {(byte) (upperAddress>>>8),(byte) upperAddress},2);
+				}
+				//A record cannot cross the end of the 64 KB segment of its upper address
+				int count = (int) Math.min(Math.min(ByteRecords.BYTES_PER_RECORD,endAddress-address),0x10000-(address & 0xFFFF));
+				ByteRecords.getBytes(memoryImage,address,bytesPerWord,data,count);
+				writeRecord(writer,record,DATA_RECORD,(int) (address & 0xFFFF),data,count);
+				address+=count;
+			}
+		}
+		writeRecord(writer,record,END_OF_FILE_RECORD,0,data,0);
+		TextOutput.finish(writer);
+	}
+
+	private static void writeRecord(PrintWriter writer, StringBuilder record, int recordType, int address, byte[] data, int count) {
+		record.setLength(0);
+		record.append(':');
+		ByteRecords.appendHexadecimalByte(record,count);
+		int sum = count+ByteRecords.appendHexadecimalValue(record,address,2);
+		ByteRecords.appendHexadecimalByte(record,recordType);
+		sum+=recordType;
+		for(int i = 0;i<count;i++) {
+			ByteRecords.appendHexadecimalByte(record,data[i]);
+			sum+=data[i] & 0xFF;
+		}
+		ByteRecords.appendHexadecimalByte(record,-sum);//Two's complement of the sum
+		writer.println(record);
+	}
+}
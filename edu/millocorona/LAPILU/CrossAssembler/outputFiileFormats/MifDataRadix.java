@@ -0,0 +1,38 @@
+package edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats;
+
+/**
+ * The radix of the words in a memory initialization file
+ */
+public enum MifDataRadix {
+	BIN,
+	HEX,
+	UNS;
+
+	/**
+	 * @return the word in this radix, the binary and hexadecimal words have all the digits of the data bus
+	 */
+	public String format(int word, int dataBusLength) {
+		String digits;
+		int length;
+		switch(this) {
+			case BIN:
+				digits = Integer.toBinaryString(word);
+				length = dataBusLength;
+				break;
+			case HEX:
+				digits = Integer.toHexString(word).toUpperCase();
+				length = (dataBusLength+3)/4;
+				break;
+			default:
+				return Integer.toUnsignedString(word);
+		}
+		if(digits.length() >= length) {
+			return digits;
+		}
+		StringBuilder padded = new StringBuilder(length);
+		for(int i = digits.length();i<length;i++) {
+			padded.append('0');
+		}
+		return padded.append(digits).toString();
+	}
+}
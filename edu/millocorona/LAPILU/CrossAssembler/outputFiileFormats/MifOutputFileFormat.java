@@ -1,29 +1,97 @@
 package edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.LinkedList;
+import java.nio.channels.WritableByteChannel;
 
-import edu.millocorona.LAPILU.CrossAssembler.exceptions.AssemblyException;
+import edu.millocorona.LAPILU.CrossAssembler.memory.MemoryImage;
 
+/**
+ * Writes a memory initialization file like the ones read by Quartus: a header with the WIDTH of the words, the DEPTH of the memory
+ * (all the addresses of the address bus) and the radixes, and a CONTENT section where every run of equal words is a single
+ * [start..end] : value; line, so the spaces between sections and the memory after the program use one line.
+ */
 public class MifOutputFileFormat implements OutputFileFormat{
+
+	private MifDataRadix dataRadix;
+
+	public MifOutputFileFormat() {
+		this(MifDataRadix.BIN);
+	}
+
+	/**
+	 * @param dataRadix - the radix of the words
+	 */
+	public MifOutputFileFormat(MifDataRadix dataRadix) {
+		this.dataRadix = dataRadix;
+	}
+
 	@Override
-	public void outputFormatedFile(String outputFileName,LinkedList<String> binaryMachineCodeStrings) throws AssemblyException,IOException {
-		if(!outputFileName.endsWith(".mif")) {
-			outputFileName+=".mif";	
-		}
-		File outputFile = new File(outputFileName);
-		if(outputFile.getParentFile().exists()) {
-			outputFile.createNewFile();
-			PrintWriter writer = new PrintWriter(outputFile, "UTF-8");
-			for(String binaryMachineCodeString:binaryMachineCodeStrings) {
-				writer.println(binaryMachineCodeString);
+	public String getName() {
+		return "mif";
+	}
+
+	@Override
+	public String getFileExtension() {
+		return ".mif";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Memory initialization file";
+	}
+
+	@Override
+	public void outputFormatedImage(MemoryImage memoryImage, WritableByteChannel outputChannel) throws IOException {
+		PrintWriter writer = TextOutput.open(outputChannel);
+		int dataBusLength = memoryImage.getDataBusLength();
+		writer.println("WIDTH="+dataBusLength+";");
+		//Quartus checks the DEPTH against the memory that it initializes, an image without the size of the memory only has its own words
+		long depth = memoryImage.getMemorySize() > 0 ? memoryImage.getMemorySize() : Math.max(1,memoryImage.getEndAddress());
+		writer.println("DEPTH="+depth+";");
+		writer.println();
+		writer.println("ADDRESS_RADIX=HEX;");
+		writer.println("DATA_RADIX="+dataRadix+";");
+		writer.println();
+		writer.println("CONTENT BEGIN");
+		int endAddress = memoryImage.getEndAddress();
+		long address = memoryImage.getOrigin();
+		while(address < depth) {
+			int word = 0;
+			long runEnd = depth;//The addresses after the image are 0
+			if(address < endAddress) {
+				word = memoryImage.get((int) address);
+				runEnd = address+1;
+				while(runEnd < endAddress && memoryImage.get((int) runEnd) == word) {
+					runEnd++;
+				}
+				if(runEnd == endAddress && word == 0) {
+					runEnd = depth;
+				}
+			}
+			if(runEnd-address == 1) {
+				writer.println("\t"+Long.toHexString(address).toUpperCase()+" : "+dataRadix.format(word,dataBusLength)+";");
+			}else {
+				writer.println("\t["+Long.toHexString(address).toUpperCase()+".."+Long.toHexString(runEnd-1).toUpperCase()+"] : "+dataRadix.format(word,dataBusLength)+";");
 			}
-			writer.close();
-		}else {
-			throw new AssemblyException("The directory: "+outputFile.getParentFile().getAbsolutePath()+" does not exist");
+			address = runEnd;
 		}
+		writer.println("END;");
+		TextOutput.finish(writer);
+	}
+
+	@Override
+	public int getFormatVersion() {
+		//2: the DEPTH is the size of the memory and the addresses after the program are written as 0
+		return 2;
+	}
+
+	@Override
+	public String getOptions() {
+		return "DATA_RADIX="+dataRadix;
 	}
 
+	public MifDataRadix getDataRadix() {
+		return dataRadix;
+	}
 }
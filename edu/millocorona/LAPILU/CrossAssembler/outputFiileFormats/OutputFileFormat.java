@@ -1,12 +1,73 @@
 package edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.LinkedList;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 
 import edu.millocorona.LAPILU.CrossAssembler.exceptions.AssemblyException;
+import edu.millocorona.LAPILU.CrossAssembler.memory.MemoryImage;
 
+/**
+ * A format in which the assembled program can be written. The implementations are found with a ServiceLoader, so to add a format
+ * its class must be listed in META-INF/services/edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats.OutputFileFormat
+ */
 public interface OutputFileFormat {
-	
-	public void outputFormatedFile(String outputFileName,LinkedList<String> binaryMachineCodeStrings) throws AssemblyException,IOException;
-	
+
+	/**
+	 * @return the name used to select the format in the command line, for example bin
+	 */
+	public String getName();
+
+	/**
+	 * @return the extension of the files of this format, with the dot
+	 */
+	public String getFileExtension();
+
+	/**
+	 * @return a short description of the format for the help
+	 */
+	public String getDescription();
+
+	/**
+	 * @return the version of the files written by the format, it must be increased every time the output of the format changes, it is part of
+	 * the key of the build cache so the files written before are not used
+	 */
+	public default int getFormatVersion() {
+		return 1;
+	}
+
+	/**
+	 * @return the options of the format that change its output, empty if it has none, they are part of the key of the build cache
+	 */
+	public default String getOptions() {
+		return "";
+	}
+
+	/**
+	 * The purpose of this method is to write the memory image in this format, word by word, so the output can be a file, a pipe, a socket
+	 * or a memory buffer. The channel is not closed.
+	 * @param memoryImage - the assembled program
+	 * @param outputChannel - where the formatted program is written
+	 * @throws IOException
+	 */
+	public void outputFormatedImage(MemoryImage memoryImage, WritableByteChannel outputChannel) throws IOException;
+
+	/**
+	 * Writes the memory image in a file, the extension of the format is added to the file name if it doesn't have it
+	 */
+	public default void outputFormatedFile(String outputFileName,MemoryImage memoryImage) throws AssemblyException,IOException {
+		if(!outputFileName.endsWith(getFileExtension())) {
+			outputFileName+=getFileExtension();
+		}
+		File outputFile = new File(outputFileName).getAbsoluteFile();
+		if(outputFile.getParentFile().exists()) {
+			try(FileChannel outputChannel = FileChannel.open(outputFile.toPath(),StandardOpenOption.CREATE,StandardOpenOption.TRUNCATE_EXISTING,StandardOpenOption.READ,StandardOpenOption.WRITE)){
+				outputFormatedImage(memoryImage,outputChannel);
+			}
+		}else {
+			throw new AssemblyException("The directory: "+outputFile.getParentFile().getAbsolutePath()+" does not exist");
+		}
+	}
 }
@@ -0,0 +1,36 @@
+package edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Finds the available output file formats with a ServiceLoader, they are loaded only once
+ */
+public class OutputFileFormatRegistry {
+
+	private static LinkedHashMap<String,OutputFileFormat> formats;
+
+	private static synchronized LinkedHashMap<String,OutputFileFormat> getFormatsByName() {
+		if(formats == null) {
+			formats = new LinkedHashMap<String,OutputFileFormat>();
+			for(OutputFileFormat format:ServiceLoader.load(OutputFileFormat.class)) {
+				formats.putIfAbsent(format.getName(),format);
+			}
+		}
+		return formats;
+	}
+
+	/**
+	 * @param name - the name of the format, for example bin
+	 * @return the format or null if it doesn't exist
+	 */
+	public static OutputFileFormat getFormat(String name) {
+		return getFormatsByName().get(name);
+	}
+
+	public static List<OutputFileFormat> getFormats() {
+		return new ArrayList<OutputFileFormat>(getFormatsByName().values());
+	}
+}
@@ -0,0 +1,83 @@
+package edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import edu.millocorona.LAPILU.CrossAssembler.memory.MemoryImage;
+
+/**
+ * Writes only the addresses that hold code as Motorola S-record data records, the empty spaces between sections are not written.
+ * The records use 16, 24 or 32 bit addresses (S1, S2 or S3) depending on the last byte address of the program.
+ */
+public class SRecordOutputFileFormat implements OutputFileFormat{
+
+	private static final byte[] HEADER = "LAPILU".getBytes(StandardCharsets.US_ASCII);
+
+	@Override
+	public String getName() {
+		return "srec";
+	}
+
+	@Override
+	public String getFileExtension() {
+		return ".srec";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Motorola S-record file, only the addresses with code";
+	}
+
+	@Override
+	public void outputFormatedImage(MemoryImage memoryImage, WritableByteChannel outputChannel) throws IOException {
+		int bytesPerWord = ByteRecords.getBytesPerWord(memoryImage);
+		int ranges = memoryImage.getUsedRangeCount();
+		long lastByteAddress = ranges == 0 ? 0 : (long) memoryImage.getUsedRangeEnd(ranges-1)*bytesPerWord-1;
+		if(lastByteAddress > 0xFFFFFFFFL) {
+			throw new IOException("The program uses byte addresses bigger than 32 bits, they cannot be written in an S-record file");
+		}
+		//S1/S9 for 16 bit addresses, S2/S8 for 24 bits and S3/S7 for 32 bits
+		int addressBytes = lastByteAddress <= 0xFFFF ? 2 : lastByteAddress <= 0xFFFFFF ? 3 : 4;
+		PrintWriter writer = TextOutput.open(outputChannel);
+		StringBuilder record = new StringBuilder();
+		writeRecord(writer,record,0,0,2,HEADER,HEADER.length);
+		byte[] data = new byte[ByteRecords.BYTES_PER_RECORD];
+		long dataRecords = 0;
+		for(int range = 0;range<ranges;range++) {
+			long endAddress = (long) memoryImage.getUsedRangeEnd(range)*bytesPerWord;
+			long address = (long) memoryImage.getUsedRangeStart(range)*bytesPerWord;
+			while(address < endAddress) {
+				int count = (int) Math.min(ByteRecords.BYTES_PER_RECORD,endAddress-address);
+				ByteRecords.getBytes(memoryImage,address,bytesPerWord,data,count);
+				writeRecord(writer,record,addressBytes-1,address,addressBytes,data,count);
+				dataRecords++;
+				address+=count;
+			}
+		}
+		//The count of data records is optional, it is written only if it fits in S5 or S6
+		if(dataRecords <= 0xFFFF) {
+			writeRecord(writer,record,5,dataRecords,2,data,0);
+		}else if(dataRecords <= 0xFFFFFF) {
+			writeRecord(writer,record,6,dataRecords,3,data,0);
+		}
+		//The execution starts at the address 0, in the main section
+		writeRecord(writer,record,11-addressBytes,0,addressBytes,data,0);
+		TextOutput.finish(writer);
+	}
+
+	private static void writeRecord(PrintWriter writer, StringBuilder record, int recordType, long address, int addressBytes, byte[] data, int count) {
+		record.setLength(0);
+		record.append('S').append(recordType);
+		int byteCount = addressBytes+count+1;
+		ByteRecords.appendHexadecimalByte(record,byteCount);
+		int sum = byteCount+ByteRecords.appendHexadecimalValue(record,address,addressBytes);
+		for(int i = 0;i<count;i++) {
+			ByteRecords.appendHexadecimalByte(record,data[i]);
+			sum+=data[i] & 0xFF;
+		}
+		ByteRecords.appendHexadecimalByte(record,~sum);//One's complement of the sum
+		writer.println(record);
+	}
+}
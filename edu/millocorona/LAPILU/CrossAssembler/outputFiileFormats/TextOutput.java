@@ -0,0 +1,27 @@
+package edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Helpers for the formats that write text
+ */
+class TextOutput {
+
+	/**
+	 * @return a buffered UTF-8 writer over the channel, it must be finished with finish so the channel is not closed
+	 */
+	static PrintWriter open(WritableByteChannel outputChannel) {
+		return new PrintWriter(new BufferedWriter(Channels.newWriter(outputChannel,StandardCharsets.UTF_8.newEncoder(),-1)));
+	}
+
+	static void finish(PrintWriter writer) throws IOException {
+		if(writer.checkError()) {//It also flushes the writer
+			throw new IOException("The output could not be written");
+		}
+	}
+}
@@ -0,0 +1,7 @@
+package edu.millocorona.LAPILU.CrossAssembler.parser;
+
+public enum SectionKind {
+	MAIN,
+	INTERRUPT,
+	ORG
+}
@@ -0,0 +1,454 @@
+package edu.millocorona.LAPILU.CrossAssembler.parser;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import edu.millocorona.LAPILU.CrossAssembler.diagnostics.DiagnosticCode;
+import edu.millocorona.LAPILU.CrossAssembler.diagnostics.DiagnosticCollector;
+import edu.millocorona.LAPILU.CrossAssembler.include.IncludeCache;
+import edu.millocorona.LAPILU.CrossAssembler.include.IncludedFile;
+import edu.millocorona.LAPILU.CrossAssembler.lexer.Lexer;
+import edu.millocorona.LAPILU.CrossAssembler.lexer.Token;
+import edu.millocorona.LAPILU.CrossAssembler.lexer.TokenSource;
+import edu.millocorona.LAPILU.CrossAssembler.lexer.TokenType;
+import edu.millocorona.LAPILU.CrossAssembler.symbols.SymbolTable;
+import edu.millocorona.LAPILU.CrossAssembler.util.NumericLiteralParser;
+
+/**
+ * Groups the tokens given by the lexer in to the .head constants and the .main, .interrupt and .org sections of the .code.
+ * The errors are reported to the diagnostic collector and the parser continues in the next line, a section that is not closed ends
+ * where the next section starts, so the errors of the rest of the file are still found.
+ * An .include line is replaced by the tokens of the file it names, it can be used in the .head and .code sections and inside the code
+ * sections. A file is included once per program, and a file that includes itself through other files is an error
+ */
+public class SourceParser {
+
+	private Lexer lexer;
+	private DiagnosticCollector diagnostics;
+	private StatementHandler statementHandler;
+	//False while a section that is not kept in the program is parsed, its statements are not given to the handler
+	private boolean handleStatements;
+	private Token currentToken;
+	private SymbolTable symbols;
+	//How the section being parsed is called in the diagnostics, null outside the sections
+	private String sectionName;
+	//The number of the last section that declared each code label, by symbol id, to find the labels declared twice in a section
+	private int[] labelSections = new int[64];
+	private int sectionCount;
+	//The statements read, also in the included files, it gives the order of the statements between sections and files
+	private int statementCount;
+	private Path inputFile;
+	private IncludeCache includeCache;
+	//The file being read and the files that included it, the file of the program first
+	private ArrayList<IncludeLevel> includeLevels = new ArrayList<IncludeLevel>();
+	private ArrayList<Path> includedFiles;
+
+	public SourceParser(Lexer lexer) {
+		this(lexer,new DiagnosticCollector(null));
+	}
+
+	/**
+	 * @param diagnostics - where the errors of the program are reported
+	 */
+	public SourceParser(Lexer lexer, DiagnosticCollector diagnostics) {
+		this.lexer = lexer;
+		this.diagnostics = diagnostics;
+	}
+
+	/**
+	 * @param statementHandler - receives every statement while it is parsed, null to keep all the statements in the sections
+	 */
+	public void setStatementHandler(StatementHandler statementHandler) {
+		this.statementHandler = statementHandler;
+	}
+
+	/**
+	 * @param inputFile - the file of the program, the included files are found from its directory, null if the program doesn't come from a
+	 * file, then they are found from the working directory
+	 * @param includeCache - where the included files are looked for before reading them, it can be shared by many parsers
+	 */
+	public void setIncludes(Path inputFile, IncludeCache includeCache) {
+		this.inputFile = inputFile;
+		this.includeCache = includeCache;
+	}
+
+	/**
+	 * The purpose of this method is to read the whole program
+	 * @return the program, if the diagnostics have errors it can have missing sections or statements
+	 */
+	public SourceProgram parse() throws IOException {
+		SourceProgram program = new SourceProgram(lexer.getSymbols());
+		symbols = program.getSymbols();
+		includedFiles = program.getIncludedFiles();
+		if(includeCache == null) {
+			includeCache = new IncludeCache();
+		}
+		includeLevels.add(new IncludeLevel(lexer,inputFile));
+		boolean headSectionFound = false;
+		boolean codeSectionFound = false;
+		advance();
+		while(currentToken.getType() != TokenType.END_OF_FILE) {
+			if(isDirective(".HEAD")) {
+				if(headSectionFound) {
+					error(DiagnosticCode.DUPLICATE_SECTION,"The head section is declared more than once");
+				}else if(codeSectionFound && statementHandler != null) {
+					//The statements of the code section were already handled without these constants
+					error(DiagnosticCode.MISPLACED_SECTION,"The head section must be declared before the code section when the file is read line by line");
+				}
+				headSectionFound = true;
+				advance();
+				expectEndOfLine();
+				sectionName = "head section";
+				parseHeadSection(program);
+				sectionName = null;
+			}else if(isDirective(".CODE")) {
+				if(codeSectionFound) {
+					error(DiagnosticCode.DUPLICATE_SECTION,"The code section is declared more than once");
+				}
+				codeSectionFound = true;
+				advance();
+				expectEndOfLine();
+				parseCodeSection(program);
+			}else if(isDirective(".INCLUDE")) {
+				parseInclude(false);
+			}else {
+				error(DiagnosticCode.UNEXPECTED_TOKEN,"Unexpected "+currentToken.getText()+", only the .head and .code sections can be declared at this point");
+				skipLine();
+			}
+		}
+		if(!headSectionFound) {
+			diagnostics.error(DiagnosticCode.MISSING_SECTION,null,0,0,"The head section is not present in the file");
+		}
+		if(!codeSectionFound) {
+			diagnostics.error(DiagnosticCode.MISSING_SECTION,null,0,0,"The code section is not present in the file");
+		}
+		return program;
+	}
+
+	private void parseHeadSection(SourceProgram program) throws IOException {
+		while(!isDirective(".ENDHEAD")) {
+			if(currentToken.getType() == TokenType.END_OF_FILE || isDirective(".CODE")) {
+				error(DiagnosticCode.UNCLOSED_SECTION,"The .head section is not properly closed with an .endhead");
+				return;
+			}else if(isDirective(".INCLUDE")) {
+				parseInclude(true);
+			}else if(currentToken.getType() != TokenType.CONSTANT) {
+				error(DiagnosticCode.UNEXPECTED_TOKEN,"Unexpected "+currentToken.getText()+", only constant labels can be declared in the head section");
+				skipLine();
+			}else {
+				parseConstant();
+			}
+		}
+		advance();
+		expectEndOfLine();
+	}
+
+	private void parseConstant() throws IOException {
+		String labelName = currentToken.getText();
+		int symbol = currentToken.getSymbol();
+		advance();
+		if(currentToken.getType() != TokenType.EQUALS) {
+			error(DiagnosticCode.MISSING_CONSTANT_VALUE,"The constant label "+labelName+" must be followed by = and its value");
+			skipLine();
+			return;
+		}
+		advance();
+		if(currentToken.getType() != TokenType.OPERAND) {
+			error(DiagnosticCode.MISSING_CONSTANT_VALUE,"The constant label "+labelName+" has no value");
+			skipLine();
+			return;
+		}
+		String labelValue = currentToken.getText();
+		if(labelName.contains("¬") || labelName.contains("$") || labelName.contains("%") || labelName.contains("#") || labelName.contains(":")) {
+			error(DiagnosticCode.INVALID_LABEL_NAME,"The label name "+labelName+" is invalid, it cannot contain ¬, $, : or % characters");
+			skipLine();
+			return;
+		}
+		long parsedLabelValue = NumericLiteralParser.parse(labelValue);
+		if(!NumericLiteralParser.isValue(parsedLabelValue)) {
+			error(DiagnosticCode.INVALID_CONSTANT_VALUE,"The value "+labelValue+" of the label "+labelName+" is invalid, "+NumericLiteralParser.describeError(parsedLabelValue));
+			skipLine();
+			return;
+		}
+		//The lexer already interned the name, so its id says if it is already defined
+		if(symbols.isConstant(symbol)) {
+			error(DiagnosticCode.DUPLICATE_CONSTANT,"The constant label "+labelName+" is already defined");
+			skipLine();
+			return;
+		}
+		symbols.defineConstant(symbol,parsedLabelValue);
+		advance();
+		expectEndOfLine();
+	}
+
+	private void parseCodeSection(SourceProgram program) throws IOException {
+		while(!isDirective(".ENDCODE")) {
+			if(currentToken.getType() == TokenType.END_OF_FILE || isDirective(".HEAD")) {
+				error(DiagnosticCode.UNCLOSED_SECTION,"The .code section is not properly closed with an .endcode");
+				break;
+			}else if(isDirective(".MAIN")) {
+				if(program.getMainSection() != null) {
+					error(DiagnosticCode.DUPLICATE_SECTION,"The main section is declared more than once");
+				}
+				SourceSection mainSection = new SourceSection(SectionKind.MAIN,"",getCurrentFileName(),currentToken.getLine());
+				advance();
+				expectEndOfLine();
+				sectionName = "main section";
+				parseStatements(mainSection,".ENDMAIN",program.getMainSection() == null);
+				//The statements of a repeated section are parsed to find their errors, but only the first section is kept
+				if(program.getMainSection() == null) {
+					program.setMainSection(mainSection);
+				}
+			}else if(isDirective(".INTERRUPT")) {
+				if(program.getInterruptSection() != null) {
+					error(DiagnosticCode.DUPLICATE_SECTION,"The interrupt section is declared more than once");
+				}
+				SourceSection interruptSection = new SourceSection(SectionKind.INTERRUPT,"",getCurrentFileName(),currentToken.getLine());
+				advance();
+				expectEndOfLine();
+				sectionName = "interrupt vector section";
+				parseStatements(interruptSection,".ENDINTERRUPT",program.getInterruptSection() == null);
+				if(program.getInterruptSection() == null) {
+					program.setInterruptSection(interruptSection);
+				}
+			}else if(isDirective(".ORG")) {
+				int orgLine = currentToken.getLine();
+				advance();
+				boolean locationFound = currentToken.getType() == TokenType.OPERAND;
+				if(!locationFound) {
+					error(DiagnosticCode.MISSING_ORG_LOCATION,"The assembler cannot find the location of the .org section declared in the line: "+orgLine+" please make sure that the location is provided.");
+				}
+				SourceSection orgSection = new SourceSection(SectionKind.ORG,locationFound ? currentToken.getText() : "",getCurrentFileName(),orgLine);
+				if(locationFound) {
+					advance();
+				}
+				expectEndOfLine();
+				sectionName = "org section located at "+orgSection.getLocation();
+				parseStatements(orgSection,".ENDORG",locationFound);
+				if(locationFound) {
+					program.getOrgSections().add(orgSection);
+				}
+			}else if(isDirective(".INCLUDE")) {
+				parseInclude(false);
+			}else {
+				error(DiagnosticCode.UNEXPECTED_TOKEN,"Unexpected "+currentToken.getText()+", only .main, .interrupt and .org sections can be declared in the code section");
+				skipLine();
+			}
+			sectionName = null;
+		}
+		if(program.getMainSection() == null) {
+			diagnostics.error(DiagnosticCode.MISSING_SECTION,null,0,0,"The main code section is not present in the file");
+		}
+		if(isDirective(".ENDCODE")) {
+			advance();
+			expectEndOfLine();
+		}
+	}
+
+	/**
+	 * @param kept - true if the section is added to the program, the handler only receives the statements of those sections
+	 */
+	private void parseStatements(SourceSection section,String endDirective,boolean kept) throws IOException {
+		sectionCount++;
+		handleStatements = kept && statementHandler != null;
+		if(handleStatements) {
+			statementHandler.sectionStarted(section);
+		}
+		while(!isDirective(endDirective)) {
+			switch(currentToken.getType()) {
+				case LABEL:
+					int labelSymbol = currentToken.getSymbol();
+					if(labelSymbol >= labelSections.length) {
+						labelSections = Arrays.copyOf(labelSections,Math.max(labelSections.length*2,labelSymbol+1));
+					}
+					boolean redeclaration = labelSections[labelSymbol] == sectionCount;
+					labelSections[labelSymbol] = sectionCount;
+					addStatement(section,SourceStatement.label(currentToken.getText(),labelSymbol,redeclaration,getCurrentFileName(),currentToken.getLine(),currentToken.getColumn()));
+					advance();
+					break;
+				case MNEMONIC:
+					Token mnemonicToken = currentToken;
+					String file = getCurrentFileName();
+					String parameter = "";
+					int parameterSymbol = SymbolTable.NOT_FOUND;
+					advance();
+					if(currentToken.getType() == TokenType.OPERAND) {
+						parameter = currentToken.getText();
+						parameterSymbol = currentToken.getSymbol();
+						advance();
+					}
+					addStatement(section,SourceStatement.instruction(mnemonicToken.getText(),parameter,parameterSymbol,file,mnemonicToken.getLine(),mnemonicToken.getColumn()));
+					expectEndOfLine();
+					break;
+				case END_OF_LINE:
+					advance();
+					break;
+				case END_OF_FILE:
+					error(DiagnosticCode.UNCLOSED_SECTION,"The section is not properly closed with an "+endDirective.toLowerCase());
+					return;
+				default:
+					if(isDirective(".INCLUDE")) {
+						parseInclude(false);
+						break;
+					}
+					if(isSectionStart()) {
+						//The end of the section is missing, the next section is parsed as if it was there
+						error(DiagnosticCode.UNCLOSED_SECTION,"Unexpected "+currentToken.getText()+", the section is not properly closed with an "+endDirective.toLowerCase());
+						return;
+					}
+					error(DiagnosticCode.UNEXPECTED_TOKEN,"Unexpected "+currentToken.getText()+", the section is not properly closed with an "+endDirective.toLowerCase());
+					skipLine();
+			}
+		}
+		if(section.getStatementCount() == 0 && section.getKind() == SectionKind.ORG) {
+			diagnostics.warning(section.getFile(),DiagnosticCode.EMPTY_SECTION,sectionName,section.getLine(),0,"The .org section has no instructions");
+		}
+		advance();
+		expectEndOfLine();
+	}
+
+	/**
+	 * Parses an .include line, the tokens of the file are read next as if the file was written in place of the line
+	 * @param insideHeadSection - true if the line is in the .head section, then the names of the file are constants
+	 */
+	private void parseInclude(boolean insideHeadSection) throws IOException {
+		advance();
+		String text = currentToken.getText();
+		if(currentToken.getType() != TokenType.STRING || text.length() < 2 || !text.endsWith("\"")) {
+			error(DiagnosticCode.INVALID_INCLUDE,"The .include directive must be followed by the name of the file between double quotes");
+			skipLine();
+			return;
+		}
+		IncludedFile includedFile = null;
+		Path file = null;
+		try {
+			//The name is relative to the directory of the file that includes it
+			Path includingFile = getCurrentLevel().file;
+			String fileName = text.substring(1,text.length()-1);
+			file = (includingFile == null || includingFile.getParent() == null ? Paths.get(fileName) : includingFile.getParent().resolve(fileName)).normalize();
+		}catch(InvalidPathException e) {
+			error(DiagnosticCode.INVALID_INCLUDE,"The file name "+text+" is invalid, "+e.getMessage());
+		}
+		if(file != null) {
+			Path absoluteFile = file.toAbsolutePath().normalize();
+			if(isBeingIncluded(absoluteFile)) {
+				StringBuilder chain = new StringBuilder();
+				for(IncludeLevel level:includeLevels) {
+					chain.append(level.file == null ? "the program" : level.file.toString()).append(" -> ");
+				}
+				error(DiagnosticCode.CYCLIC_INCLUDE,"The file "+file+" includes itself: "+chain+file);
+			}else if(includedFiles.contains(absoluteFile)) {
+				diagnostics.warning(getCurrentFileName(),DiagnosticCode.DUPLICATE_INCLUDE,sectionName,currentToken.getLine(),currentToken.getColumn(),"The file "+file+" is already included, it is not included again");
+			}else {
+				includedFiles.add(absoluteFile);
+				try {
+					includedFile = includeCache.get(absoluteFile,insideHeadSection);
+				}catch(NoSuchFileException e) {
+					error(DiagnosticCode.MISSING_INCLUDE,"The file "+file+" does not exist");
+				}catch(IOException e) {
+					error(DiagnosticCode.MISSING_INCLUDE,"The file "+file+" cannot be read, "+e.toString());
+				}
+			}
+		}
+		advance();
+		if(includedFile == null || currentToken.getType() != TokenType.END_OF_LINE) {
+			expectEndOfLine();
+			return;
+		}
+		//The end of the .include line is not read, the next token is the first one of the file
+		includeLevels.add(new IncludeLevel(includedFile.open(symbols),file));
+		advance();
+	}
+
+	private boolean isBeingIncluded(Path absoluteFile) {
+		for(IncludeLevel level:includeLevels) {
+			if(level.file != null && level.file.toAbsolutePath().normalize().equals(absoluteFile)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private IncludeLevel getCurrentLevel() {
+		return includeLevels.get(includeLevels.size()-1);
+	}
+
+	/**
+	 * @return the name of the included file being read, null while the file of the program is read
+	 */
+	private String getCurrentFileName() {
+		return includeLevels.size() == 1 ? null : getCurrentLevel().file.toString();
+	}
+
+	private void addStatement(SourceSection section, SourceStatement statement) {
+		statement.setIndex(statementCount++);
+		section.addStatement(statement,!handleStatements || statementHandler.statementParsed(section,statement));
+	}
+
+	private boolean isDirective(String directive) {
+		return currentToken.getType() == TokenType.DIRECTIVE && directive.equals(currentToken.getText());
+	}
+
+	/**
+	 * @return true if the current token starts a section or ends the code section, so it cannot be inside a section
+	 */
+	private boolean isSectionStart() {
+		return isDirective(".MAIN") || isDirective(".INTERRUPT") || isDirective(".ORG") || isDirective(".ENDCODE") || isDirective(".HEAD") || isDirective(".CODE");
+	}
+
+	private void expectEndOfLine() throws IOException {
+		if(currentToken.getType() == TokenType.END_OF_LINE) {
+			advance();
+		}else if(currentToken.getType() != TokenType.END_OF_FILE) {
+			error(DiagnosticCode.UNEXPECTED_TOKEN,"Unexpected "+currentToken.getText()+", a new line was expected");
+			skipLine();
+		}
+	}
+
+	/**
+	 * Skips the rest of the current line after an error, the parser continues in the next one
+	 */
+	private void skipLine() throws IOException {
+		while(currentToken.getType() != TokenType.END_OF_LINE && currentToken.getType() != TokenType.END_OF_FILE) {
+			advance();
+		}
+		if(currentToken.getType() == TokenType.END_OF_LINE) {
+			advance();
+		}
+	}
+
+	private void advance() throws IOException {
+		currentToken = getCurrentLevel().tokenSource.nextToken();
+		//At the end of an included file the parser continues after the .include line
+		while(currentToken.getType() == TokenType.END_OF_FILE && includeLevels.size() > 1) {
+			includeLevels.remove(includeLevels.size()-1);
+			currentToken = getCurrentLevel().tokenSource.nextToken();
+		}
+	}
+
+	/**
+	 * Reports an error at the current token
+	 */
+	private void error(DiagnosticCode code, String message) {
+		diagnostics.error(getCurrentFileName(),code,sectionName,currentToken.getLine(),currentToken.getColumn(),message);
+	}
+
+	/**
+	 * A file being read, the tokens come from the last one until its end
+	 */
+	private static class IncludeLevel {
+		private TokenSource tokenSource;
+		//The file as it is named in the diagnostics, null if the program doesn't come from a file
+		private Path file;
+
+		public IncludeLevel(TokenSource tokenSource, Path file) {
+			this.tokenSource = tokenSource;
+			this.file = file;
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package edu.millocorona.LAPILU.CrossAssembler.parser;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedList;
+
+import edu.millocorona.LAPILU.CrossAssembler.symbols.SymbolTable;
+
+public class SourceProgram {
+	private SymbolTable symbols;
+	private SourceSection mainSection;
+	private SourceSection interruptSection;
+	private LinkedList<SourceSection> orgSections = new LinkedList<SourceSection>();
+	private ArrayList<Path> includedFiles = new ArrayList<Path>();
+
+	/**
+	 * @param symbols - the symbol table where the lexer interned the names of the program
+	 */
+	public SourceProgram(SymbolTable symbols) {
+		this.symbols = symbols;
+	}
+
+	/**
+	 * @return the constant labels of the .head section and every name used as a label or as a parameter in the code sections
+	 */
+	public SymbolTable getSymbols() {
+		return symbols;
+	}
+
+	public SourceSection getMainSection() {
+		return mainSection;
+	}
+
+	public void setMainSection(SourceSection mainSection) {
+		this.mainSection = mainSection;
+	}
+
+	/**
+	 * @return the .interrupt section or null if the file doesn't have one
+	 */
+	public SourceSection getInterruptSection() {
+		return interruptSection;
+	}
+
+	public void setInterruptSection(SourceSection interruptSection) {
+		this.interruptSection = interruptSection;
+	}
+
+	public LinkedList<SourceSection> getOrgSections() {
+		return orgSections;
+	}
+
+	/**
+	 * @return the absolute paths of the files given to the .include directives, also the ones that could not be read, in the order they are included
+	 */
+	public ArrayList<Path> getIncludedFiles() {
+		return includedFiles;
+	}
+}
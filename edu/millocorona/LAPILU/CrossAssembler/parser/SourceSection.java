@@ -0,0 +1,76 @@
+package edu.millocorona.LAPILU.CrossAssembler.parser;
+
+import java.util.ArrayList;
+
+public class SourceSection {
+	private SectionKind kind;
+	private String location;
+	private String file;
+	private int line;
+	private ArrayList<SourceStatement> statements = new ArrayList<SourceStatement>();
+	private int statementCount;
+
+	public SourceSection(SectionKind kind, String location, int line) {
+		this(kind,location,null,line);
+	}
+
+	/**
+	 * @param file - the name of the included file where the section is declared, null if it is declared in the file of the program
+	 */
+	public SourceSection(SectionKind kind, String location, String file, int line) {
+		this.kind = kind;
+		this.location = location;
+		this.file = file;
+		this.line = line;
+	}
+
+	public SectionKind getKind() {
+		return kind;
+	}
+
+	/**
+	 * @return the location given in the .org declaration, empty for the .main and .interrupt sections
+	 */
+	public String getLocation() {
+		return location;
+	}
+
+	/**
+	 * @return the name of the included file where the section is declared, null if it is declared in the file of the program
+	 */
+	public String getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the line of the file where the section is declared
+	 */
+	public int getLine() {
+		return line;
+	}
+
+	/**
+	 * @return the statements of the section, if the program was parsed with a StatementHandler only the ones that it kept
+	 */
+	public ArrayList<SourceStatement> getStatements() {
+		return statements;
+	}
+
+	/**
+	 * The purpose of this method is to add a statement at the end of the section
+	 * @param keep - false to only count it, when a StatementHandler doesn't need it anymore
+	 */
+	public void addStatement(SourceStatement statement, boolean keep) {
+		statementCount++;
+		if(keep) {
+			statements.add(statement);
+		}
+	}
+
+	/**
+	 * @return the number of statements parsed, also the ones that were not kept
+	 */
+	public int getStatementCount() {
+		return statementCount;
+	}
+}
@@ -0,0 +1,104 @@
+package edu.millocorona.LAPILU.CrossAssembler.parser;
+
+/**
+ * A line of a code section, it is a code label declaration or an instruction with its optional parameter
+ */
+public class SourceStatement {
+	private boolean label;
+	private String name;
+	private String parameter;
+	private int symbol;
+	private boolean redeclaration;
+	private String file;
+	private int line;
+	private int column;
+	private int index;
+
+	private SourceStatement(boolean label, String name, String parameter, int symbol, boolean redeclaration, String file, int line, int column) {
+		this.label = label;
+		this.name = name;
+		this.parameter = parameter;
+		this.symbol = symbol;
+		this.redeclaration = redeclaration;
+		this.file = file;
+		this.line = line;
+		this.column = column;
+	}
+
+	/**
+	 * @param symbol - the id of the label in the symbol table of the program
+	 * @param redeclaration - true if the label was already declared in the same section
+	 * @param file - the name of the included file of the statement, null if it is in the file of the program
+	 */
+	public static SourceStatement label(String labelName, int symbol, boolean redeclaration, String file, int line, int column) {
+		return new SourceStatement(true,labelName,"",symbol,redeclaration,file,line,column);
+	}
+
+	/**
+	 * @param parameterSymbol - the id in the symbol table of the program of the name used as parameter, without the #, or
+	 * SymbolTable.NOT_FOUND if the parameter is a number or there is no parameter
+	 * @param file - the name of the included file of the statement, null if it is in the file of the program
+	 */
+	public static SourceStatement instruction(String mnemonic, String parameter, int parameterSymbol, String file, int line, int column) {
+		return new SourceStatement(false,mnemonic,parameter,parameterSymbol,false,file,line,column);
+	}
+
+	public boolean isLabel() {
+		return label;
+	}
+
+	/**
+	 * @return the name of the label or the mnemonic of the instruction
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the parameter of the instruction, empty if it has none
+	 */
+	public String getParameter() {
+		return parameter;
+	}
+
+	/**
+	 * @return the id of the label, or of the name used as parameter, in the symbol table of the program
+	 */
+	public int getSymbol() {
+		return symbol;
+	}
+
+	/**
+	 * @return true if the statement declares a label that was already declared in the same section
+	 */
+	public boolean isRedeclaration() {
+		return redeclaration;
+	}
+
+	/**
+	 * @return the name of the included file of the statement, null if it is in the file of the program
+	 */
+	public String getFile() {
+		return file;
+	}
+
+	public int getLine() {
+		return line;
+	}
+
+	public int getColumn() {
+		return column;
+	}
+
+	/**
+	 * @return the position of the statement in the order the parser read the statements of the program, the statements of an included
+	 * file are read where the file is included
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	void setIndex(int index) {
+		this.index = index;
+	}
+}
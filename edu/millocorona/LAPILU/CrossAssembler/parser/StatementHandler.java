@@ -0,0 +1,20 @@
+package edu.millocorona.LAPILU.CrossAssembler.parser;
+
+/**
+ * Receives the statements of the code sections while they are parsed, so a program can be encoded line by line without keeping all its
+ * statements in memory. The statements are given before the constants declared after them are known, so with a handler the .head section
+ * must be declared before the .code section. Only the sections that are kept in the program are given, not the repeated ones or the
+ * .org sections without a location
+ */
+public interface StatementHandler {
+
+	/**
+	 * Called when a section is declared, before its first statement
+	 */
+	void sectionStarted(SourceSection section);
+
+	/**
+	 * @return true if the statement must also be kept in the section, false if the handler doesn't need it anymore
+	 */
+	boolean statementParsed(SourceSection section, SourceStatement statement);
+}
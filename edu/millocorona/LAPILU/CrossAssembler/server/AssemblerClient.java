@@ -0,0 +1,101 @@
+package edu.millocorona.LAPILU.CrossAssembler.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+
+/**
+ * Sends a command to the assembler server and writes its output as if the command was executed in this process
+ */
+public class AssemblerClient {
+	//Returned by forward when there is no server to execute the command
+	public static final int SERVER_NOT_RUNNING = -1;
+
+	private Path socketPath;
+
+	public AssemblerClient(Path socketPath) {
+		this.socketPath = socketPath;
+	}
+
+	/**
+	 * @return true if a server accepts connections on the socket
+	 */
+	public boolean isServerRunning() {
+		SocketChannel channel = connect();
+		if(channel == null) {
+			return false;
+		}
+		try {
+			channel.close();
+		} catch (IOException e) {
+			//We only wanted to know if the connection was possible
+		}
+		return true;
+	}
+
+	/**
+	 * The purpose of this method is to execute a command in the server
+	 * @param arguments - the command line arguments
+	 * @param workingDirectory - the directory used by the server to resolve the relative file names
+	 * @param out - where the standard output of the command is written
+	 * @param err - where the standard error of the command is written
+	 * @return the exit code of the command or SERVER_NOT_RUNNING if there is no server or its socket can be used by other users, in
+	 * that case nothing was executed
+	 * @throws IOException if the connection with the server is lost while the command runs
+	 */
+	public int forward(String[] arguments, Path workingDirectory, PrintStream out, PrintStream err) throws IOException {
+		SocketChannel connection = connect();
+		if(connection == null) {
+			return SERVER_NOT_RUNNING;
+		}
+		try(SocketChannel channel = connection){
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+			ServerProtocol.writeRequest(output,workingDirectory.toAbsolutePath().toString(),arguments);
+			DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+			byte[] text = new byte[0];
+			while(true) {
+				byte frameType = input.readByte();
+				if(frameType == ServerProtocol.EXIT_FRAME) {
+					out.flush();
+					err.flush();
+					return input.readInt();
+				}
+				int length = input.readInt();
+				if(length > text.length) {
+					text = new byte[length];
+				}
+				input.readFully(text,0,length);
+				if(frameType == ServerProtocol.STANDARD_ERROR_FRAME) {
+					err.write(text,0,length);
+				}else {
+					out.write(text,0,length);
+				}
+			}
+		}
+	}
+
+	private SocketChannel connect() {
+		if(!Files.exists(socketPath,LinkOption.NOFOLLOW_LINKS)) {
+			return null;
+		}
+		//A socket created by another user would receive the arguments of the commands and could answer with any output
+		if(!AssemblerServer.isPrivateFile(socketPath)) {
+			return null;
+		}
+		try {
+			return SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+		} catch (IOException e) {
+			//The socket file exists but no server is listening on it
+			return null;
+		}
+	}
+}
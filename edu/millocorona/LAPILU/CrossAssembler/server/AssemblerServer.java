@@ -0,0 +1,219 @@
+package edu.millocorona.LAPILU.CrossAssembler.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import edu.millocorona.LAPILU.CrossAssembler.cli.CommandLineInterfaceHandler;
+import edu.millocorona.LAPILU.CrossAssembler.encoder.SectionEncodingCache;
+import edu.millocorona.LAPILU.CrossAssembler.include.IncludeCache;
+
+/**
+ * Keeps one assembler process running and executes the assemble commands sent by the clients through a Unix domain socket, so the
+ * commands don't pay for the start of a new JVM and run with code that the JIT already compiled. Every connection is one command,
+ * the commands are executed at the same time in a pool of threads.
+ */
+public class AssemblerServer {
+	//Environment variable that changes the socket used by the server and the clients
+	public static final String SOCKET_ENVIRONMENT_VARIABLE = "LPCA_SOCKET";
+
+	private Path socketPath;
+	private int threads;
+	//The sections that didn't change since the last command are only linked
+	private SectionEncodingCache sectionEncodingCache = new SectionEncodingCache();
+	//The headers included by the programs are read once while the server runs
+	private IncludeCache includeCache = new IncludeCache();
+
+	/**
+	 * @param socketPath - the file of the Unix domain socket
+	 * @param threads - the number of commands that can run at the same time
+	 */
+	public AssemblerServer(Path socketPath, int threads) {
+		this.socketPath = socketPath;
+		this.threads = threads;
+	}
+
+	/**
+	 * @return the socket given in the LPCA_SOCKET environment variable, or lpca.sock in XDG_RUNTIME_DIR, or lpca.sock in a lpca-[user]
+	 * directory of the temporary directory that only the user can open
+	 */
+	public static Path getDefaultSocketPath() {
+		String socket = System.getenv(SOCKET_ENVIRONMENT_VARIABLE);
+		if(socket != null && !socket.isEmpty()) {
+			return Paths.get(socket);
+		}
+		String runtimeDirectory = System.getenv("XDG_RUNTIME_DIR");
+		if(runtimeDirectory != null && !runtimeDirectory.isEmpty()) {
+			return Paths.get(runtimeDirectory,"lpca.sock");
+		}
+		return Paths.get(System.getProperty("java.io.tmpdir"),"lpca-"+System.getProperty("user.name"),"lpca.sock");
+	}
+
+	/**
+	 * The purpose of this method is to know if a file can only be used by the current user, the commands are only sent to a socket
+	 * that passes this check, otherwise another user could read them and answer with any output
+	 * @param file - the socket or its directory
+	 * @return true if the file is owned by the current user and the group and the other users have no permissions on it, false if it
+	 * isn't or if the file system doesn't have owners and POSIX permissions
+	 */
+	public static boolean isPrivateFile(Path file) {
+		try {
+			UserPrincipal currentUser = FileSystems.getDefault().getUserPrincipalLookupService().lookupPrincipalByName(System.getProperty("user.name"));
+			if(!currentUser.equals(Files.getOwner(file,LinkOption.NOFOLLOW_LINKS))) {
+				return false;
+			}
+			Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(file,LinkOption.NOFOLLOW_LINKS);
+			permissions.removeAll(EnumSet.of(PosixFilePermission.OWNER_READ,PosixFilePermission.OWNER_WRITE,PosixFilePermission.OWNER_EXECUTE));
+			return permissions.isEmpty();
+		} catch (IOException | UnsupportedOperationException e) {
+			return false;
+		}
+	}
+
+	public Path getSocketPath() {
+		return socketPath;
+	}
+
+	/**
+	 * The purpose of this method is to accept the connections of the clients until the process is stopped
+	 * @throws IOException if the socket cannot be created or another server is already using it
+	 */
+	public void serve() throws IOException {
+		Path socketDirectory = socketPath.toAbsolutePath().getParent();
+		if(!Files.exists(socketDirectory)) {
+			//The directory of the default socket in the temporary directory, only the user can open it
+			Files.createDirectories(socketDirectory,PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+		}
+		if(Files.exists(socketPath,LinkOption.NOFOLLOW_LINKS)) {
+			if(!isPrivateFile(socketPath)) {
+				throw new IOException("The socket "+socketPath+" belongs to another user or other users can use it");
+			}
+			if(new AssemblerClient(socketPath).isServerRunning()) {
+				throw new IOException("There is already a server running on "+socketPath);
+			}
+			//The socket was left by a server that didn't stop properly
+			Files.delete(socketPath);
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		Thread removeSocketFile = new Thread() {
+			@Override
+			public void run() {
+				try {
+					Files.deleteIfExists(socketPath);
+				} catch (IOException e) {
+					//The process is stopping, nothing else can be done
+				}
+			}
+		};
+		try(ServerSocketChannel serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX)){
+			serverChannel.bind(UnixDomainSocketAddress.of(socketPath));
+			//The clients refuse to send the commands to a socket that other users can open
+			Files.setPosixFilePermissions(socketPath,PosixFilePermissions.fromString("rw-------"));
+			Runtime.getRuntime().addShutdownHook(removeSocketFile);
+			while(true) {
+				SocketChannel clientChannel = serverChannel.accept();
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						handleClient(clientChannel);
+					}
+				});
+			}
+		}finally {
+			executor.shutdown();
+			Files.deleteIfExists(socketPath);
+		}
+	}
+
+	private void handleClient(SocketChannel clientChannel) {
+		try(SocketChannel channel = clientChannel){
+			DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+			PrintStream out = new PrintStream(new FrameOutputStream(output,ServerProtocol.STANDARD_OUTPUT_FRAME),true,StandardCharsets.UTF_8);
+			PrintStream err = new PrintStream(new FrameOutputStream(output,ServerProtocol.STANDARD_ERROR_FRAME),true,StandardCharsets.UTF_8);
+			int exitCode;
+			try {
+				String[] request = ServerProtocol.readRequest(input);
+				String[] arguments = Arrays.copyOfRange(request,1,request.length);
+				if(arguments.length > 0 && "serve".equals(arguments[0])) {
+					err.println("The serve command cannot be sent to a server");
+					exitCode = 1;
+				}else {
+					CommandLineInterfaceHandler commandLineInterfaceHandler = new CommandLineInterfaceHandler(out,err,Paths.get(request[0]));
+					commandLineInterfaceHandler.setSectionEncodingCache(sectionEncodingCache);
+					commandLineInterfaceHandler.setIncludeCache(includeCache);
+					exitCode = commandLineInterfaceHandler.interpretCommandLineArguments(arguments);
+				}
+			}catch(IOException e) {
+				err.println("Internal error: "+e.toString());
+				exitCode = 1;
+			}catch(RuntimeException e) {
+				//An error in a command must not stop the server
+				err.println("Internal error: "+e.toString());
+				exitCode = 1;
+			}
+			out.flush();
+			err.flush();
+			synchronized(output) {
+				ServerProtocol.writeExitFrame(output,exitCode);
+			}
+		}catch(IOException e) {
+			//The client closed the connection, there is nobody to report the error to
+		}
+	}
+
+	/**
+	 * Sends everything written to it as text frames of one type, the standard output and the standard error of a command share the connection
+	 */
+	private static class FrameOutputStream extends OutputStream {
+		private DataOutputStream output;
+		private byte frameType;
+
+		public FrameOutputStream(DataOutputStream output, byte frameType) {
+			this.output = output;
+			this.frameType = frameType;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] {(byte) b},0,1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			synchronized(output) {
+				ServerProtocol.writeTextFrame(output,frameType,b,off,len);
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			synchronized(output) {
+				output.flush();
+			}
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package edu.millocorona.LAPILU.CrossAssembler.server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The messages between the assembler server and its clients.
+ * The client sends the protocol version, its working directory and the command line arguments, the server answers with frames of
+ * standard output and standard error text while the command runs and ends with the exit code of the command.
+ */
+public class ServerProtocol {
+	public static final int PROTOCOL_VERSION = 1;
+
+	public static final byte EXIT_FRAME = 0;
+	public static final byte STANDARD_OUTPUT_FRAME = 1;
+	public static final byte STANDARD_ERROR_FRAME = 2;
+
+	public static void writeRequest(DataOutputStream output, String workingDirectory, String[] arguments) throws IOException {
+		output.writeInt(PROTOCOL_VERSION);
+		output.writeUTF(workingDirectory);
+		output.writeInt(arguments.length);
+		for(String argument:arguments) {
+			output.writeUTF(argument);
+		}
+		output.flush();
+	}
+
+	/**
+	 * @return the arguments of the request, the working directory is returned in the first position
+	 * @throws IOException if the request is not valid or the client uses another version of the protocol
+	 */
+	public static String[] readRequest(DataInputStream input) throws IOException {
+		int version = input.readInt();
+		if(version != PROTOCOL_VERSION) {
+			throw new IOException("The client uses the version "+version+" of the protocol, but the server uses the version "+PROTOCOL_VERSION);
+		}
+		String workingDirectory = input.readUTF();
+		int numberOfArguments = input.readInt();
+		if(numberOfArguments < 0 || numberOfArguments > 1024) {
+			throw new IOException("Invalid number of arguments: "+numberOfArguments);
+		}
+		String[] request = new String[numberOfArguments+1];
+		request[0] = workingDirectory;
+		for(int i = 1;i<request.length;i++) {
+			request[i] = input.readUTF();
+		}
+		return request;
+	}
+
+	public static void writeTextFrame(DataOutputStream output, byte frameType, byte[] text, int offset, int length) throws IOException {
+		output.writeByte(frameType);
+		output.writeInt(length);
+		output.write(text,offset,length);
+	}
+
+	public static void writeExitFrame(DataOutputStream output, int exitCode) throws IOException {
+		output.writeByte(EXIT_FRAME);
+		output.writeInt(exitCode);
+		output.flush();
+	}
+}
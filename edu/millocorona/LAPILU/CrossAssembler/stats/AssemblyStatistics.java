@@ -0,0 +1,146 @@
+package edu.millocorona.LAPILU.CrossAssembler.stats;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.millocorona.LAPILU.CrossAssembler.util.Json;
+
+/**
+ * The wall time, the allocated bytes and some counts of every phase of an assembly. A phase lasts until the next one starts or endPhase
+ * is called. The allocated bytes are the ones of the thread that runs the assembly, the sections encoded by other threads of the fork
+ * join pool are not included. It is used by one thread only.
+ */
+public class AssemblyStatistics {
+	private LinkedHashMap<String,String> attributes = new LinkedHashMap<String,String>();
+	private ArrayList<PhaseStatistics> phases = new ArrayList<PhaseStatistics>();
+	private PhaseStatistics currentPhase;
+	private long phaseStartNanoseconds;
+	private long phaseStartAllocatedBytes;
+
+	/**
+	 * @param name - the name of something that describes the whole assembly, like the input file
+	 */
+	public void setAttribute(String name, String value) {
+		attributes.put(name,value);
+	}
+
+	/**
+	 * Ends the current phase, if there is one, and starts a new one
+	 */
+	public void startPhase(String name) {
+		endPhase();
+		currentPhase = new PhaseStatistics(name);
+		phaseStartAllocatedBytes = getAllocatedBytes();
+		phaseStartNanoseconds = System.nanoTime();
+	}
+
+	public void endPhase() {
+		if(currentPhase == null) {
+			return;
+		}
+		currentPhase.wallTimeNanoseconds = System.nanoTime()-phaseStartNanoseconds;
+		long allocatedBytes = getAllocatedBytes();
+		currentPhase.allocatedBytes = allocatedBytes < 0 ? -1 : allocatedBytes-phaseStartAllocatedBytes;
+		phases.add(currentPhase);
+		currentPhase = null;
+	}
+
+	/**
+	 * Adds a count to the current phase
+	 */
+	public void count(String name, long value) {
+		if(currentPhase != null) {
+			Long previousValue = currentPhase.counts.get(name);
+			currentPhase.counts.put(name,previousValue == null ? value : previousValue+value);
+		}
+	}
+
+	public String toText() {
+		StringBuilder text = new StringBuilder();
+		for(Map.Entry<String,String> attribute:attributes.entrySet()) {
+			text.append(attribute.getKey()).append(": ").append(attribute.getValue()).append('\n');
+		}
+		text.append(String.format("%-12s %12s %16s   %s%n","Phase","Time (ms)","Allocated (KB)","Counts"));
+		long totalNanoseconds = 0;
+		long totalAllocatedBytes = 0;
+		for(PhaseStatistics phase:phases) {
+			StringBuilder counts = new StringBuilder();
+			for(Map.Entry<String,Long> count:phase.counts.entrySet()) {
+				if(counts.length() > 0) {
+					counts.append(", ");
+				}
+				counts.append(count.getKey()).append('=').append(count.getValue());
+			}
+			text.append(String.format("%-12s %12.3f %16s   %s%n",phase.name,phase.wallTimeNanoseconds/1e6,formatKilobytes(phase.allocatedBytes),counts));
+			totalNanoseconds+=phase.wallTimeNanoseconds;
+			totalAllocatedBytes = totalAllocatedBytes < 0 || phase.allocatedBytes < 0 ? -1 : totalAllocatedBytes+phase.allocatedBytes;
+		}
+		text.append(String.format("%-12s %12.3f %16s%n","Total",totalNanoseconds/1e6,formatKilobytes(totalAllocatedBytes)));
+		return text.toString();
+	}
+
+	public String toJson() {
+		StringBuilder json = new StringBuilder();
+		json.append('{');
+		for(Map.Entry<String,String> attribute:attributes.entrySet()) {
+			json.append(Json.quote(attribute.getKey())).append(':').append(Json.quote(attribute.getValue())).append(',');
+		}
+		json.append("\"phases\":[");
+		long totalNanoseconds = 0;
+		long totalAllocatedBytes = 0;
+		for(int i = 0;i<phases.size();i++) {
+			PhaseStatistics phase = phases.get(i);
+			if(i > 0) {
+				json.append(',');
+			}
+			json.append("{\"name\":").append(Json.quote(phase.name));
+			json.append(",\"wallTimeNanoseconds\":").append(phase.wallTimeNanoseconds);
+			json.append(",\"allocatedBytes\":").append(phase.allocatedBytes);
+			json.append(",\"counts\":{");
+			boolean first = true;
+			for(Map.Entry<String,Long> count:phase.counts.entrySet()) {
+				if(!first) {
+					json.append(',');
+				}
+				first = false;
+				json.append(Json.quote(count.getKey())).append(':').append(count.getValue());
+			}
+			json.append("}}");
+			totalNanoseconds+=phase.wallTimeNanoseconds;
+			totalAllocatedBytes = totalAllocatedBytes < 0 || phase.allocatedBytes < 0 ? -1 : totalAllocatedBytes+phase.allocatedBytes;
+		}
+		json.append("],\"totalWallTimeNanoseconds\":").append(totalNanoseconds);
+		json.append(",\"totalAllocatedBytes\":").append(totalAllocatedBytes);
+		json.append('}');
+		return json.toString();
+	}
+
+	private static String formatKilobytes(long bytes) {
+		return bytes < 0 ? "unavailable" : String.format("%.1f",bytes/1024.0);
+	}
+
+	/**
+	 * @return the bytes allocated by the current thread since it started, -1 if the JVM cannot measure it
+	 */
+	private static long getAllocatedBytes() {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if(threadBean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	private static class PhaseStatistics {
+		private String name;
+		private long wallTimeNanoseconds;
+		private long allocatedBytes;
+		private LinkedHashMap<String,Long> counts = new LinkedHashMap<String,Long>();
+
+		public PhaseStatistics(String name) {
+			this.name = name;
+		}
+	}
+}
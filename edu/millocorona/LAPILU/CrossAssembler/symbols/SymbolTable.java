@@ -0,0 +1,168 @@
+package edu.millocorona.LAPILU.CrossAssembler.symbols;
+
+import java.util.Arrays;
+
+/**
+ * The names used as labels in a program, each name is interned once and then known by an id, the ids are 0, 1, 2... in the order the
+ * names are found. The names are kept in an open addressing hash table and the data of every symbol in arrays indexed by its id, so
+ * finding a name is a single probe sequence and reading its kind or value doesn't box anything.
+ * Interning is not thread safe, once the program is parsed the table is only read, and then it can be read by many threads.
+ */
+public class SymbolTable {
+	public static final int NOT_FOUND = -1;
+
+	//A name used as parameter or label that is not declared in the .head section, it may be a code label
+	public static final byte UNDEFINED = 0;
+	public static final byte CONSTANT = 1;
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	//Slots of the hash table, the hash of the name in the high 32 bits and the id of the symbol plus one in the low ones, 0 is an
+	//empty slot. With the hash in the slot the names are only compared when the hashes are equal. The table is at most half full
+	private long[] slots = new long[INITIAL_CAPACITY*2];
+	private String[] names = new String[INITIAL_CAPACITY];
+	private byte[] kinds = new byte[INITIAL_CAPACITY];
+	//The numbers of the source code are at most Integer.MAX_VALUE, so the values fit in an int
+	private int[] values = new int[INITIAL_CAPACITY];
+	private int size;
+	private int constantCount;
+
+	/**
+	 * @param name - the name of the symbol
+	 * @return the id of the symbol, it is added to the table if it was not there
+	 */
+	public int intern(String name) {
+		return intern(name,0);
+	}
+
+	/**
+	 * Same as intern(text.substring(start)), but the substring is created only if the name is new
+	 * @return the id of the symbol, getName gives the String of the name kept by the table
+	 */
+	public int intern(String text, int start) {
+		int hash = hash(text,start);
+		int slot = findSlot(text,start,hash);
+		if(slots[slot] != 0) {
+			return (int) slots[slot]-1;
+		}
+		if(size == names.length) {
+			grow();
+			slot = findSlot(text,start,hash);
+		}
+		int id = size++;
+		names[id] = start == 0 ? text : text.substring(start);
+		slots[slot] = ((long) hash<<32)|(id+1);
+		return id;
+	}
+
+	/**
+	 * @return the id of the symbol or NOT_FOUND if it is not in the table
+	 */
+	public int find(String name) {
+		long entry = slots[findSlot(name,0,hash(name,0))];
+		return entry == 0 ? NOT_FOUND : (int) entry-1;
+	}
+
+	/**
+	 * @return the slot of the name, or the empty slot where it would be added
+	 */
+	private int findSlot(String text, int start, int hash) {
+		int mask = slots.length-1;
+		int slot = hash&mask;
+		long entry;
+		while((entry = slots[slot]) != 0) {
+			//The names are only compared when the hashes are equal
+			if((int) (entry>>>32) == hash) {
+				String name = names[(int) entry-1];
+				if(start == 0 ? name.equals(text) : name.length() == text.length()-start && text.startsWith(name,start)) {
+					return slot;
+				}
+			}
+			slot = (slot+1)&mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * The purpose of this method is to declare a symbol as a constant label
+	 * @param id - the id given by intern
+	 * @param value - the value of the constant, already parsed and valid
+	 */
+	public void defineConstant(int id, long value) {
+		if(kinds[id] != CONSTANT) {
+			constantCount++;
+		}
+		kinds[id] = CONSTANT;
+		values[id] = (int) value;
+	}
+
+	public String getName(int id) {
+		return names[id];
+	}
+
+	/**
+	 * @return CONSTANT or UNDEFINED
+	 */
+	public byte getKind(int id) {
+		return kinds[id];
+	}
+
+	public boolean isConstant(int id) {
+		return id != NOT_FOUND && kinds[id] == CONSTANT;
+	}
+
+	/**
+	 * @return the value of a constant label
+	 */
+	public long getValue(int id) {
+		return values[id];
+	}
+
+	/**
+	 * @return the number of symbols, the ids go from 0 to size-1
+	 */
+	public int size() {
+		return size;
+	}
+
+	public int getConstantCount() {
+		return constantCount;
+	}
+
+	private void grow() {
+		int capacity = names.length*2;
+		names = Arrays.copyOf(names,capacity);
+		kinds = Arrays.copyOf(kinds,capacity);
+		values = Arrays.copyOf(values,capacity);
+		long[] oldSlots = slots;
+		slots = new long[capacity*2];
+		int mask = slots.length-1;
+		for(long entry:oldSlots) {
+			if(entry != 0) {
+				int slot = (int) (entry>>>32)&mask;
+				while(slots[slot] != 0) {
+					slot = (slot+1)&mask;
+				}
+				slots[slot] = entry;
+			}
+		}
+	}
+
+	/**
+	 * The hash of the characters from start, the same as String.hashCode of the substring, mixed so the names that only differ in
+	 * the last character don't end in neighbour slots
+	 */
+	private static int hash(String text, int start) {
+		int hash = 0;
+		if(start == 0) {
+			//The String keeps its hash, it is computed only the first time
+			hash = text.hashCode();
+		}else {
+			for(int i = start;i<text.length();i++) {
+				hash = 31*hash+text.charAt(i);
+			}
+		}
+		hash = (hash^(hash>>>16))*0x45D9F3B;
+		return hash^(hash>>>16);
+	}
+}
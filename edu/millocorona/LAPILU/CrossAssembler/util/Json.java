@@ -0,0 +1,42 @@
+package edu.millocorona.LAPILU.CrossAssembler.util;
+
+/**
+ * Helpers to write JSON without a library
+ */
+public class Json {
+
+	/**
+	 * @return the text as a JSON string, with the quotes
+	 */
+	public static String quote(String text) {
+		StringBuilder quoted = new StringBuilder(text.length()+2);
+		quoted.append('"');
+		for(int i = 0;i<text.length();i++) {
+			char character = text.charAt(i);
+			switch(character) {
+				case '"':
+					quoted.append("\\\"");
+					break;
+				case '\\':
+					quoted.append("\\\\");
+					break;
+				case '\n':
+					quoted.append("\\n");
+					break;
+				case '\r':
+					quoted.append("\\r");
+					break;
+				case '\t':
+					quoted.append("\\t");
+					break;
+				default:
+					if(character < 0x20) {
+						quoted.append(String.format("\\u%04x",(int) character));
+					}else {
+						quoted.append(character);
+					}
+			}
+		}
+		return quoted.append('"').toString();
+	}
+}
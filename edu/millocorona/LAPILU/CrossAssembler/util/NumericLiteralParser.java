@@ -0,0 +1,105 @@
+package edu.millocorona.LAPILU.CrossAssembler.util;
+
+/**
+ * Reads the numbers of LAPILU assembly code: $ hexadecimal, ¬ binary and % decimal, in a single pass over the characters.
+ * The value is returned as a long, the negative values are the error codes so nothing needs to be allocated.
+ */
+public class NumericLiteralParser {
+	//The text doesn't start with $, ¬ or %, it can be a label
+	public static final long NOT_A_NUMBER = -1;
+	//There are no digits after the prefix
+	public static final long MISSING_DIGITS = -2;
+	//A character is not a valid digit for the base of the number
+	public static final long INVALID_DIGIT = -3;
+	//The number doesn't fit in an int
+	public static final long TOO_LARGE = -4;
+
+	public static final char HEXADECIMAL_PREFIX = '$';
+	public static final char BINARY_PREFIX = '¬';
+	public static final char DECIMAL_PREFIX = '%';
+
+	/**
+	 * @param text - the text of the number, with its prefix
+	 * @return the value of the number or an error code
+	 */
+	public static long parse(String text) {
+		return parse(text,0);
+	}
+
+	/**
+	 * @param text - the text that contains the number
+	 * @param start - the index of the prefix of the number in the text
+	 * @return the value of the number or an error code
+	 */
+	public static long parse(String text, int start) {
+		if(start >= text.length()) {
+			return NOT_A_NUMBER;
+		}
+		int base;
+		switch(text.charAt(start)) {
+			case HEXADECIMAL_PREFIX:
+				base = 16;
+				break;
+			case BINARY_PREFIX:
+				base = 2;
+				break;
+			case DECIMAL_PREFIX:
+				base = 10;
+				break;
+			default:
+				return NOT_A_NUMBER;
+		}
+		if(start+1 == text.length()) {
+			return MISSING_DIGITS;
+		}
+		long value = 0;
+		for(int i = start+1;i<text.length();i++) {
+			int digit = digitValue(text.charAt(i),base);
+			if(digit < 0) {
+				return INVALID_DIGIT;
+			}
+			value = value*base+digit;
+			if(value > Integer.MAX_VALUE) {
+				return TOO_LARGE;
+			}
+		}
+		return value;
+	}
+
+	private static int digitValue(char character, int base) {
+		int digit;
+		if(character >= '0' && character <= '9') {
+			digit = character-'0';
+		}else if(character >= 'A' && character <= 'F') {
+			digit = character-'A'+10;
+		}else if(character >= 'a' && character <= 'f') {
+			digit = character-'a'+10;
+		}else {
+			return -1;
+		}
+		return digit < base ? digit : -1;
+	}
+
+	/**
+	 * @return true if the result of parse is a value and not an error code
+	 */
+	public static boolean isValue(long result) {
+		return result >= 0;
+	}
+
+	/**
+	 * @return the description of an error code for the error messages
+	 */
+	public static String describeError(long errorCode) {
+		if(errorCode == NOT_A_NUMBER) {
+			return "it is not a number, the numbers must start with $, ¬ or %";
+		}else if(errorCode == MISSING_DIGITS) {
+			return "the number has no digits";
+		}else if(errorCode == INVALID_DIGIT) {
+			return "the number has an invalid digit";
+		}else if(errorCode == TOO_LARGE) {
+			return "the number is too large";
+		}
+		return "it is valid";
+	}
+}
@@ -0,0 +1,170 @@
+package edu.millocorona.LAPILU.CrossAssembler.watch;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import edu.millocorona.LAPILU.CrossAssembler.LAPILUCrossAssembler;
+import edu.millocorona.LAPILU.CrossAssembler.diagnostics.DiagnosticCollector;
+import edu.millocorona.LAPILU.CrossAssembler.encoder.SectionEncodingCache;
+import edu.millocorona.LAPILU.CrossAssembler.exceptions.AssemblyException;
+import edu.millocorona.LAPILU.CrossAssembler.include.IncludeCache;
+import edu.millocorona.LAPILU.CrossAssembler.memory.MemoryImage;
+import edu.millocorona.LAPILU.CrossAssembler.outputFiileFormats.OutputFileFormat;
+import edu.millocorona.LAPILU.CrossAssembler.parser.SourceProgram;
+
+/**
+ * Assembles a file again every time it is saved, in the same JVM, so after the first assemblies the code is already compiled by the JIT
+ * and the sections and included files that didn't change come from the caches. The file and the files that it includes are watched, their
+ * directories are watched with a WatchService, editors save a file with many events (truncate, write, rename...) so the file is assembled
+ * when no event arrives for the debounce time.
+ * The output file is written only when the machine code changes.
+ */
+public class AssemblyWatcher {
+	public static final long DEFAULT_DEBOUNCE_MILLISECONDS = 200;
+
+	private LAPILUCrossAssembler assembler;
+	private Path inputFile;
+	private String outputFileName;
+	private OutputFileFormat outputFileFormat;
+	private Listener listener;
+	private long debounceMilliseconds = DEFAULT_DEBOUNCE_MILLISECONDS;
+	//The absolute paths of the files that change the program and the directories already registered in the watch service
+	private HashSet<Path> watchedFiles = new HashSet<Path>();
+	private HashSet<Path> watchedDirectories = new HashSet<Path>();
+	private MemoryImage lastWrittenImage;
+
+	/**
+	 * @param assembler - the assembler used for every assembly, if it has no section cache or include cache a new one is given to it
+	 * @param inputFile - the LAPILU assembly file
+	 * @param outputFileName - the output file, the extension of the format is added if it doesn't have it
+	 * @param outputFileFormat - the format of the output file
+	 * @param listener - told about the result of every assembly
+	 */
+	public AssemblyWatcher(LAPILUCrossAssembler assembler, Path inputFile, String outputFileName, OutputFileFormat outputFileFormat, Listener listener) {
+		this.assembler = assembler;
+		this.inputFile = inputFile;
+		this.outputFileName = outputFileName.endsWith(outputFileFormat.getFileExtension()) ? outputFileName : outputFileName+outputFileFormat.getFileExtension();
+		this.outputFileFormat = outputFileFormat;
+		this.listener = listener;
+		if(assembler.getSectionEncodingCache() == null) {
+			assembler.setSectionEncodingCache(new SectionEncodingCache());
+		}
+		if(assembler.getIncludeCache() == null) {
+			assembler.setIncludeCache(new IncludeCache());
+		}
+		watchedFiles.add(inputFile.toAbsolutePath().normalize());
+	}
+
+	/**
+	 * @param debounceMilliseconds - how long the files must stay without changes before they are assembled
+	 */
+	public void setDebounceMilliseconds(long debounceMilliseconds) {
+		this.debounceMilliseconds = debounceMilliseconds;
+	}
+
+	/**
+	 * The purpose of this method is to assemble the file and then assemble it again after every change, it only returns if the
+	 * thread is interrupted
+	 * @throws IOException if the directories cannot be watched
+	 */
+	public void watch() throws IOException {
+		try(WatchService watchService = inputFile.toAbsolutePath().getFileSystem().newWatchService()){
+			assembleOnce();
+			registerDirectories(watchService);
+			while(true) {
+				WatchKey key = watchService.take();
+				if(!isWatchedFileChanged(key)) {
+					continue;
+				}
+				//The events of the same save are consumed until the files stay quiet for the debounce time
+				while((key = watchService.poll(debounceMilliseconds,TimeUnit.MILLISECONDS)) != null) {
+					isWatchedFileChanged(key);
+				}
+				assembleOnce();
+				registerDirectories(watchService);
+			}
+		}catch(InterruptedException | ClosedWatchServiceException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * The purpose of this method is to assemble the file and write the output file if the machine code changed, the result is given to the listener
+	 */
+	public void assembleOnce() {
+		long start = System.nanoTime();
+		DiagnosticCollector diagnostics = new DiagnosticCollector(inputFile.toString());
+		try {
+			SourceProgram program = assembler.parse(inputFile,diagnostics);
+			//The files that are included now, also the ones that could not be read, the program is assembled again when they are created
+			watchedFiles.clear();
+			watchedFiles.add(inputFile.toAbsolutePath().normalize());
+			watchedFiles.addAll(program.getIncludedFiles());
+			MemoryImage memoryImage = assembler.assemble(program,null,diagnostics);
+			//The file can also be deleted or changed by someone else, then it is written again
+			boolean outputWritten = lastWrittenImage == null || !lastWrittenImage.contentEquals(memoryImage) || !Files.exists(Paths.get(outputFileName));
+			if(outputWritten) {
+				LAPILUCrossAssembler.writeOutputFile(outputFileName,outputFileFormat,memoryImage);
+				lastWrittenImage = memoryImage;
+			}
+			listener.assembled(diagnostics,outputWritten,System.nanoTime()-start);
+		}catch(AssemblyException | IOException e) {
+			//An editor can leave the file missing for a moment while it saves it, the next event assembles it again
+			listener.failed(e,System.nanoTime()-start);
+		}
+	}
+
+	/**
+	 * Registers the directories of the watched files that are not registered yet, a directory is watched and not the file because
+	 * many editors save a new file and rename it over the old one. A directory that doesn't exist yet is registered after the next assembly
+	 */
+	private void registerDirectories(WatchService watchService) throws IOException {
+		for(Path watchedFile:watchedFiles) {
+			Path directory = watchedFile.getParent();
+			if(Files.isDirectory(directory) && watchedDirectories.add(directory)) {
+				directory.register(watchService,StandardWatchEventKinds.ENTRY_CREATE,StandardWatchEventKinds.ENTRY_MODIFY);
+			}
+		}
+	}
+
+	/**
+	 * Consumes the events of a directory
+	 * @return true if one of them is about a watched file
+	 */
+	private boolean isWatchedFileChanged(WatchKey key) {
+		boolean changed = false;
+		Path directory = (Path) key.watchable();
+		for(WatchEvent<?> event:key.pollEvents()) {
+			if(event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				//Some events were lost, one of them could be a watched file
+				changed = true;
+			}else if(watchedFiles.contains(directory.resolve((Path) event.context()))) {
+				changed = true;
+			}
+		}
+		key.reset();
+		return changed;
+	}
+
+	public interface Listener {
+		/**
+		 * @param diagnostics - the warnings of the program
+		 * @param outputWritten - false if the machine code is the same as in the last output written, then the file is not written again
+		 */
+		void assembled(DiagnosticCollector diagnostics, boolean outputWritten, long elapsedNanoseconds);
+
+		/**
+		 * @param error - an AssemblyException with the diagnostics of the program, or the IOException if the files cannot be read or written
+		 */
+		void failed(Exception error, long elapsedNanoseconds);
+	}
+}